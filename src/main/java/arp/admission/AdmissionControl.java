@@ -0,0 +1,80 @@
+package arp.admission;
+
+import arp.dto.GridInput;
+import arp.dto.grid.Electrolyzer;
+import arp.dto.grid.Storage;
+import arp.service.Utils;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dopuszczanie obliczeń przed GridService. Koszt żądania to liczba symulacji roku, jakie zwykle wykonuje dany rodzaj
+ * obliczenia, razy rozmiar siatki (magazyny x elektrolizery x źródła) i udział symulowanych godzin w roku.
+ * Każdy rodzaj ma osobną pulę, więc wyszukiwania CAPEX nie zagłodzą walidacji siatek.
+ */
+@Service
+public class AdmissionControl {
+    private static final int UNITS_PER_PROCESSOR = 16;
+    private static final int MAX_QUEUED = 16;
+    private static final long MAX_WAIT_MILLIS = 2_000;
+
+    private final Map<WorkloadType, AdmissionPool> pools = new EnumMap<>(WorkloadType.class);
+
+    public AdmissionControl() {
+        this(Runtime.getRuntime().availableProcessors() * UNITS_PER_PROCESSOR, MAX_QUEUED, MAX_WAIT_MILLIS);
+    }
+
+    public AdmissionControl(int capacity, int maxQueued, long maxWaitMillis) {
+        for (WorkloadType type : WorkloadType.values()) {
+            pools.put(type, new AdmissionPool(type, capacity, maxQueued, maxWaitMillis));
+        }
+    }
+
+    public AdmissionPool.Permit admit(WorkloadType type, GridInput gridInput) {
+        return admit(type, gridInput, 1);
+    }
+
+    /**
+     * repetitions - ile razy obliczenie jest powtarzane w jednym żądaniu (np. poziomy zapotrzebowania).
+     */
+    public AdmissionPool.Permit admit(WorkloadType type, GridInput gridInput, int repetitions) {
+        return pools.get(type).acquire(estimateUnits(type, gridInput, repetitions));
+    }
+
+    /**
+     * Partia siatek - jednostki sumowane po siatkach, pula przycina je do swojej pojemności.
+     */
+    public AdmissionPool.Permit admitBatch(WorkloadType type, List<GridInput> gridInputs) {
+        long units = 0;
+        for (GridInput gridInput : gridInputs) {
+            units += estimateUnits(type, gridInput, 1);
+        }
+        return pools.get(type).acquire((int) Math.min(Integer.MAX_VALUE, units));
+    }
+
+    public static int estimateUnits(WorkloadType type, GridInput gridInput, int repetitions) {
+        List<Storage> storages = gridInput.getGrid() != null && gridInput.getGrid().getStorages() != null
+                ? gridInput.getGrid().getStorages() : new ArrayList<>();
+        int electrolyzers = 0;
+        int sources = 0;
+        for (Storage storage : storages) {
+            for (Electrolyzer electrolyzer : storage.getElectrolyzers()) {
+                electrolyzers++;
+                sources += electrolyzer.getSources().size();
+            }
+        }
+        double gridSize = Math.max(1, storages.size()) * Math.max(1, electrolyzers) * Math.max(1, sources);
+        Integer hours = gridInput.getConstants() != null ? gridInput.getConstants().getHoursOfSimulation() : null;
+        double yearShare = hours != null && hours > 0 ? Math.min(1.0, (double) hours / Utils.HOURS_OF_YEAR) : 1.0;
+        double units = type.getSimulations() * gridSize * yearShare * Math.max(1, repetitions);
+        return (int) Math.min(Integer.MAX_VALUE, Math.ceil(units));
+    }
+
+    public List<AdmissionPool> getPools() {
+        return new ArrayList<>(pools.values());
+    }
+}
@@ -0,0 +1,130 @@
+package arp.admission;
+
+import arp.exception.OverloadedException;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pula jednostek pracy. Żądanie zajmuje tyle jednostek, ile wynosi jego szacowany koszt, więc jedno duże
+ * obliczenie wypiera kilka małych. Kolejka oczekujących jest ograniczona, a czas oczekiwania krótki -
+ * nadmiarowe żądania są odrzucane z podpowiedzią, kiedy ponowić.
+ */
+public class AdmissionPool {
+    private static final double DURATION_SMOOTHING = 0.2;
+
+    private final WorkloadType type;
+    private final int capacity;
+    private final int maxQueued;
+    private final long maxWaitMillis;
+    private final Semaphore units;
+    private int queued;
+    private long admitted;
+    private long rejected;
+    private double averageDurationMillis;
+
+    public AdmissionPool(WorkloadType type, int capacity, int maxQueued, long maxWaitMillis) {
+        this.type = type;
+        this.capacity = capacity;
+        this.maxQueued = maxQueued;
+        this.maxWaitMillis = maxWaitMillis;
+        this.units = new Semaphore(capacity, true);
+    }
+
+    public Permit acquire(int requestedUnits) {
+        int weight = Math.max(1, Math.min(capacity, requestedUnits));
+        if (!units.tryAcquire(weight)) {
+            synchronized (this) {
+                if (queued >= maxQueued) {
+                    throw reject();
+                }
+                queued++;
+            }
+            boolean acquired = false;
+            try {
+                acquired = units.tryAcquire(weight, maxWaitMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                synchronized (this) {
+                    queued--;
+                }
+            }
+            if (!acquired) {
+                throw reject();
+            }
+        }
+        synchronized (this) {
+            admitted++;
+        }
+        return new Permit(this, weight);
+    }
+
+    void release(int weight, long durationMillis) {
+        units.release(weight);
+        synchronized (this) {
+            averageDurationMillis = averageDurationMillis == 0 ? durationMillis
+                    : (1 - DURATION_SMOOTHING) * averageDurationMillis + DURATION_SMOOTHING * durationMillis;
+        }
+    }
+
+    private synchronized OverloadedException reject() {
+        rejected++;
+        long retryAfter = Math.max(1, (long) Math.ceil(averageDurationMillis * (queued + 1) / 1000.0));
+        return new OverloadedException("Too many " + type + " requests, try again later", retryAfter);
+    }
+
+    public WorkloadType getType() {
+        return type;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getUnitsInUse() {
+        return capacity - units.availablePermits();
+    }
+
+    public synchronized int getQueued() {
+        return queued;
+    }
+
+    public synchronized long getAdmitted() {
+        return admitted;
+    }
+
+    public synchronized long getRejected() {
+        return rejected;
+    }
+
+    public synchronized double getAverageDurationMillis() {
+        return averageDurationMillis;
+    }
+
+    /**
+     * Jednostki zajęte przez jedno obliczenie - release() w finally po jego zakończeniu.
+     */
+    public static class Permit {
+        private final AdmissionPool pool;
+        private final int weight;
+        private final long start = System.currentTimeMillis();
+        private boolean released;
+
+        Permit(AdmissionPool pool, int weight) {
+            this.pool = pool;
+            this.weight = weight;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public synchronized void release() {
+            if (!released) {
+                released = true;
+                pool.release(weight, System.currentTimeMillis() - start);
+            }
+        }
+    }
+}
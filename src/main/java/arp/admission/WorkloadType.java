@@ -0,0 +1,20 @@
+package arp.admission;
+
+/**
+ * Rodzaj obliczenia z mnożnikiem pracy względem jednej symulacji roku.
+ */
+public enum WorkloadType {
+    SIMULATION(1),
+    MAX_CONSUMPTION(8),
+    CAPEX_SEARCH(64);
+
+    private final double simulations;
+
+    WorkloadType(double simulations) {
+        this.simulations = simulations;
+    }
+
+    public double getSimulations() {
+        return simulations;
+    }
+}
@@ -0,0 +1,42 @@
+package arp.chart;
+
+import org.jfree.chart.ChartFactory;
+import org.jfree.chart.ChartUtilities;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
+import org.jfree.data.xy.DefaultXYDataset;
+
+import java.awt.geom.Ellipse2D;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Wykres punktowy serii, zapisany jako PNG w pamięci.
+ */
+public class ChartRenderer {
+    public static final int WIDTH = 1500;
+    public static final int HEIGHT = 1000;
+
+    private ChartRenderer() {
+    }
+
+    public static byte[] render(String name, double[] x, double[] y) {
+        var dataset = new DefaultXYDataset();
+        dataset.addSeries("key", new double[][]{x, y});
+
+        JFreeChart chart = ChartFactory.createScatterPlot(name, "x", "y", dataset, PlotOrientation.VERTICAL, false, false, false);
+        XYLineAndShapeRenderer renderer = (XYLineAndShapeRenderer) ((XYPlot) chart.getPlot()).getRenderer();
+        renderer.setSeriesShape(0, new Ellipse2D.Double(0, 0, 0.5, 0.5));
+        renderer.setBaseLinesVisible(true);
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        try {
+            ChartUtilities.writeChartAsPNG(png, chart, WIDTH, HEIGHT);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return png.toByteArray();
+    }
+}
@@ -0,0 +1,175 @@
+package arp.chart;
+
+import arp.enums.Resolution;
+import arp.exception.OverloadedException;
+import arp.service.TimeSeriesPyramid;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wykresy wyników rysowane dopiero przy pierwszym pobraniu, na własnej ograniczonej puli wątków - poza ścieżką
+ * żądania, które policzyło wynik. Serie wyników i gotowe obrazy są w pamięci LRU ograniczonej rozmiarem serii
+ * i rozmiarem obrazów. Równoczesne pobrania tego samego wykresu czekają na jedno rysowanie.
+ */
+@Service
+public class ChartService {
+    public static final String ELECTRICITY = "electricity";
+    public static final String HYDROGEN = "hydrogen";
+    public static final String HYDROGEN_LEVEL = "hydrogenLevel";
+    private static final long MAX_RESULT_BYTES = 32L * 1024 * 1024;
+    private static final long MAX_IMAGE_BYTES = 64L * 1024 * 1024;
+    private static final int RENDER_QUEUE_CAPACITY = 16;
+
+    private final Map<String, Map<String, TimeSeriesPyramid>> results = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<byte[]>> images = new LinkedHashMap<>(16, 0.75f, true);
+    private final long maxResultBytes;
+    private final long maxImageBytes;
+    private final ThreadPoolExecutor executor;
+    private long resultBytes;
+    private long imageBytes;
+    private long renders;
+    private long imageHits;
+
+    public ChartService() {
+        this(MAX_RESULT_BYTES, MAX_IMAGE_BYTES, Math.max(1, Runtime.getRuntime().availableProcessors() / 4));
+    }
+
+    public ChartService(long maxResultBytes, long maxImageBytes, int renderers) {
+        this.maxResultBytes = maxResultBytes;
+        this.maxImageBytes = maxImageBytes;
+        this.executor = new ThreadPoolExecutor(renderers, renderers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(RENDER_QUEUE_CAPACITY), runnable -> {
+            Thread thread = new Thread(runnable, "arp-chart");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Zapamiętuje piramidy serii wyniku i zwraca identyfikator do pobierania wykresów.
+     */
+    public String register(Map<String, TimeSeriesPyramid> series) {
+        String resultId = UUID.randomUUID().toString();
+        synchronized (this) {
+            results.put(resultId, series);
+            resultBytes += bytes(series);
+            evictResults();
+        }
+        return resultId;
+    }
+
+    /**
+     * Obraz PNG średnich serii na danym poziomie, opcjonalnie zredukowanych przez LTTB do points punktów.
+     * Zwraca null, gdy wynik wypadł z pamięci lub nie ma takiej serii.
+     */
+    public CompletableFuture<byte[]> getChart(String resultId, String series, Resolution resolution, Integer points) {
+        String key = resultId + "/" + series + "/" + resolution + "/" + points;
+        TimeSeriesPyramid pyramid;
+        CompletableFuture<byte[]> image;
+        synchronized (this) {
+            Map<String, TimeSeriesPyramid> result = results.get(resultId);
+            if (result == null || !result.containsKey(series)) {
+                return null;
+            }
+            image = images.get(key);
+            if (image != null) {
+                imageHits++;
+                return image;
+            }
+            pyramid = result.get(series);
+            image = new CompletableFuture<>();
+            images.put(key, image);
+        }
+        CompletableFuture<byte[]> pending = image;
+        try {
+            executor.execute(() -> render(key, series, pyramid.getLevel(resolution).getMean(), points, pending));
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                images.remove(key);
+            }
+            throw new OverloadedException("Too many charts are rendered, try again later", 1);
+        }
+        return image;
+    }
+
+    private void render(String key, String series, double[] values, Integer points, CompletableFuture<byte[]> image) {
+        byte[] png;
+        try {
+            double[] x = new double[values.length];
+            for (int i = 0; i < x.length; i++) {
+                x[i] = i;
+            }
+            double[][] sampled = points != null ? Lttb.downsample(x, values, points) : new double[][]{x, values};
+            png = ChartRenderer.render(series, sampled[0], sampled[1]);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                images.remove(key);
+            }
+            image.completeExceptionally(e);
+            return;
+        }
+        synchronized (this) {
+            renders++;
+            if (images.get(key) == image) {
+                imageBytes += png.length;
+                evictImages();
+            }
+        }
+        image.complete(png);
+    }
+
+    private void evictResults() {
+        Iterator<Map<String, TimeSeriesPyramid>> iterator = results.values().iterator();
+        while (resultBytes > maxResultBytes && iterator.hasNext()) {
+            resultBytes -= bytes(iterator.next());
+            iterator.remove();
+        }
+    }
+
+    private static long bytes(Map<String, TimeSeriesPyramid> series) {
+        return series.values().stream().mapToLong(TimeSeriesPyramid::getBytes).sum();
+    }
+
+    private void evictImages() {
+        Iterator<CompletableFuture<byte[]>> iterator = images.values().iterator();
+        while (imageBytes > maxImageBytes && iterator.hasNext()) {
+            CompletableFuture<byte[]> image = iterator.next();
+            byte[] png = image.getNow(null);
+            if (png != null) {
+                imageBytes -= png.length;
+                iterator.remove();
+            }
+        }
+    }
+
+    public synchronized long getRenders() {
+        return renders;
+    }
+
+    public synchronized long getImageHits() {
+        return imageHits;
+    }
+
+    public synchronized long getResultBytes() {
+        return resultBytes;
+    }
+
+    public synchronized long getImageBytes() {
+        return imageBytes;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
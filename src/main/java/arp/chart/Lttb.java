@@ -0,0 +1,59 @@
+package arp.chart;
+
+/**
+ * Largest-Triangle-Three-Buckets: zostawia threshold punktów, które najlepiej zachowują kształt wykresu.
+ * Pierwszy i ostatni punkt zostają zawsze, z każdego kubełka wybieramy punkt tworzący największy trójkąt
+ * z punktem wybranym wcześniej i średnią następnego kubełka.
+ */
+public class Lttb {
+
+    private Lttb() {
+    }
+
+    /**
+     * Zwraca {x, y}; gdy punktów jest nie więcej niż threshold albo threshold < 3 - serię bez zmian.
+     */
+    public static double[][] downsample(double[] x, double[] y, int threshold) {
+        int size = y.length;
+        if (threshold >= size || threshold < 3) {
+            return new double[][]{x, y};
+        }
+        double[] sampledX = new double[threshold];
+        double[] sampledY = new double[threshold];
+        double bucketSize = (double) (size - 2) / (threshold - 2);
+        int selected = 0;
+        sampledX[0] = x[0];
+        sampledY[0] = y[0];
+        for (int i = 0; i < threshold - 2; i++) {
+            int nextStart = (int) Math.floor((i + 1) * bucketSize) + 1;
+            int nextEnd = Math.min((int) Math.floor((i + 2) * bucketSize) + 1, size);
+            double averageX = 0;
+            double averageY = 0;
+            for (int j = nextStart; j < nextEnd; j++) {
+                averageX += x[j];
+                averageY += y[j];
+            }
+            averageX /= nextEnd - nextStart;
+            averageY /= nextEnd - nextStart;
+
+            int start = (int) Math.floor(i * bucketSize) + 1;
+            int end = (int) Math.floor((i + 1) * bucketSize) + 1;
+            double maxArea = -1;
+            int next = start;
+            for (int j = start; j < end; j++) {
+                double area = Math.abs((x[selected] - averageX) * (y[j] - y[selected])
+                        - (x[selected] - x[j]) * (averageY - y[selected]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    next = j;
+                }
+            }
+            sampledX[i + 1] = x[next];
+            sampledY[i + 1] = y[next];
+            selected = next;
+        }
+        sampledX[threshold - 1] = x[size - 1];
+        sampledY[threshold - 1] = y[size - 1];
+        return new double[][]{sampledX, sampledY};
+    }
+}
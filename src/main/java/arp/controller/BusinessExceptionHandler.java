@@ -0,0 +1,29 @@
+package arp.controller;
+
+import arp.exception.BusinessException;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Błędy klienta jako 400, nieznane (np. usunięte) zadania jako 404. Pozostałe przyczyny są rzucane dalej i obsługiwane domyślnie.
+ */
+@Order(Ordered.LOWEST_PRECEDENCE)
+@RestControllerAdvice
+public class BusinessExceptionHandler {
+
+    @ExceptionHandler(BusinessException.class)
+    public ResponseEntity<String> businessException(BusinessException e) {
+        switch (e.type) {
+            case INVALID_INPUT:
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+            case NOT_FOUND:
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+            default:
+                throw e;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package arp.controller;
+
+import arp.chart.ChartService;
+import arp.enums.Resolution;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+public class ChartController {
+    private final ChartService chartService;
+
+    public ChartController(ChartService chartService) {
+        this.chartService = chartService;
+    }
+
+    @Operation(summary = "Chart of result series (electricity, hydrogen, hydrogenLevel), rendered on first request; "
+            + "points reduces the chart with LTTB downsampling")
+    @GetMapping(value = "/charts/{resultId}/{series}.png", produces = MediaType.IMAGE_PNG_VALUE)
+    public CompletableFuture<ResponseEntity<byte[]>> chart(@PathVariable String resultId, @PathVariable String series,
+                                                           @RequestParam(defaultValue = "FOUR_HOURS") Resolution resolution,
+                                                           @RequestParam(required = false) Integer points) {
+        CompletableFuture<byte[]> image = chartService.getChart(resultId, series, resolution, points);
+        if (image == null) {
+            return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
+        }
+        return image.thenApply(png -> ResponseEntity.ok().contentType(MediaType.IMAGE_PNG).body(png));
+    }
+}
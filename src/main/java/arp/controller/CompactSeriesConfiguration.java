@@ -0,0 +1,26 @@
+package arp.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Zwarte kodowanie dokładane na końcu listy, żeby bez nagłówka Accept odpowiedź pozostała zwykłym JSON-em.
+ */
+@Configuration
+public class CompactSeriesConfiguration implements WebMvcConfigurer {
+    private final ObjectMapper objectMapper;
+
+    public CompactSeriesConfiguration(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new CompactSeriesConverter(objectMapper, false));
+        converters.add(new CompactSeriesConverter(objectMapper, true));
+    }
+}
@@ -0,0 +1,60 @@
+package arp.controller;
+
+import arp.dto.util.DoubleColumn;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Collections;
+
+/**
+ * JSON, w którym serie godzinowe są napisem base64 z tablicą float32 albo float64 little-endian.
+ * Wybierany nagłówkiem Accept; pozostałe pola odpowiedzi są zwykłym JSON-em. Podtyp celowo nie kończy się
+ * na +json - domyślny konwerter Jacksona przyjmuje application/*+json i przejąłby takie żądania.
+ */
+public class CompactSeriesConverter extends MappingJackson2HttpMessageConverter {
+    public static final MediaType FLOAT32 = MediaType.parseMediaType("application/vnd.arp.float32");
+    public static final MediaType FLOAT64 = MediaType.parseMediaType("application/vnd.arp.float64");
+
+    public CompactSeriesConverter(ObjectMapper objectMapper, boolean doublePrecision) {
+        super(objectMapper.copy().registerModule(new SimpleModule("compact-series")
+                .addSerializer(DoubleColumn.class, new DoubleColumnSerializer(doublePrecision))));
+        setSupportedMediaTypes(Collections.singletonList(doublePrecision ? FLOAT64 : FLOAT32));
+    }
+
+    static byte[] encode(double[] values, boolean doublePrecision) {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * (doublePrecision ? Double.BYTES : Float.BYTES))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        for (double value : values) {
+            if (doublePrecision) {
+                buffer.putDouble(value);
+            } else {
+                buffer.putFloat((float) value);
+            }
+        }
+        return buffer.array();
+    }
+
+    private static class DoubleColumnSerializer extends StdSerializer<DoubleColumn> {
+        private static final long serialVersionUID = 1L;
+
+        private final boolean doublePrecision;
+
+        DoubleColumnSerializer(boolean doublePrecision) {
+            super(DoubleColumn.class);
+            this.doublePrecision = doublePrecision;
+        }
+
+        @Override
+        public void serialize(DoubleColumn column, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeBinary(encode(column.getValues(), doublePrecision));
+        }
+    }
+}
@@ -1,181 +1,214 @@
 package arp.controller;
 
+import arp.admission.AdmissionControl;
+import arp.admission.AdmissionPool;
+import arp.admission.WorkloadType;
+import arp.chart.ChartService;
+import arp.dto.BatchValidationInput;
+import arp.dto.DemandSweepInput;
+import arp.dto.DemandSweepResult;
 import arp.dto.GridInput;
 import arp.dto.GridResult;
+import arp.dto.ParetoPoint;
 import arp.dto.ValidationResult;
+import arp.dto.grid.Grid;
+import arp.dto.grid.Storage;
+import arp.enums.Resolution;
+import arp.exception.BusinessException;
+import arp.search.ParetoArchive;
+import arp.search.SearchStrategyType;
 import arp.search.State;
 import arp.service.GridService;
 import arp.service.MaxConsumptionYearResult;
-import arp.service.Step;
+import arp.service.TimeSeriesPyramid;
 import arp.service.YearResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
-import org.jfree.chart.ChartFactory;
-import org.jfree.chart.ChartUtilities;
-import org.jfree.chart.JFreeChart;
-import org.jfree.chart.plot.PlotOrientation;
-import org.jfree.chart.plot.XYPlot;
-import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
-import org.jfree.data.xy.DefaultXYDataset;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.awt.geom.Ellipse2D;
-import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static arp.exception.FailureReason.INVALID_INPUT;
 
 @RestController
 public class GridController {
     private final GridService gridService;
+    private final AdmissionControl admissionControl;
+    private final ChartService chartService;
+    private final ObjectMapper objectMapper;
+    private final SimulationStreamWriter simulationStreamWriter;
 
-    public GridController(GridService gridService) {
+    public GridController(GridService gridService, AdmissionControl admissionControl, ChartService chartService,
+                          ObjectMapper objectMapper) {
         this.gridService = gridService;
+        this.admissionControl = admissionControl;
+        this.chartService = chartService;
+        this.objectMapper = objectMapper;
+        this.simulationStreamWriter = new SimulationStreamWriter(objectMapper);
     }
 
     @Operation(summary = "Validate grid given as an input")
     @PostMapping("/validateGrid")
-    public ValidationResult validateGrid(@RequestBody GridInput gridInput) {
-        YearResult yearResult = gridService.runSimulation(gridInput);
-        ValidationResult validationResult = new ValidationResult();
-        validationResult.setGrid(gridInput.getGrid());
-        validationResult.setIsValid(yearResult.isGood());
-        double[] vehicleConsumption = gridService.calculateYearlyConsumption(gridInput.getGrid().getVehicles(),
-                gridInput.getConstants().getHydrogenTransportLoss());
-        validationResult.setMaxVehicleConsumption(Arrays.stream(vehicleConsumption).max().getAsDouble());
-        List<Double> electricityProduction = new ArrayList<>();
-        List<Double> hydrogenProduction = new ArrayList<>();
-        List<Double> hydrogenLevel = new ArrayList<>();
-        for (Step s : yearResult.getSteps()) {
-            hydrogenProduction.add(s.getHydrogenProduction());
-            electricityProduction.add(s.getElectricityProduction());
-            hydrogenLevel.add(s.getStorageStates().values().stream().map(ss ->
-                    ss.getCurrentLevel()).collect(Collectors.summingDouble(Double::doubleValue)));
+    public ValidationResult validateGrid(@RequestBody GridInput gridInput,
+                                         @RequestParam(defaultValue = "HOUR") Resolution resolution) {
+        YearResult yearResult;
+        AdmissionPool.Permit permit = admissionControl.admit(WorkloadType.SIMULATION, gridInput);
+        try {
+            yearResult = gridService.runSimulation(gridInput);
+        } finally {
+            permit.release();
         }
-        validationResult.setMinHydrogenProduction(hydrogenProduction.stream().min(Double::compareTo).get());
-        validationResult.setResMaxPower(electricityProduction.stream().max(Double::compareTo).get());
-        validationResult.setResAnnualCapacity(electricityProduction.stream()
-                .collect(Collectors.summingDouble(Double::doubleValue)));
-        validationResult.setHydrogenProduction(hydrogenProduction);
-        validationResult.setElectricityProduction(electricityProduction);
-        validationResult.setErrors(yearResult.getErrors());
-        validationResult.setWarnings(yearResult.getWarnings());
-        validationResult.setHydrogenLevel(hydrogenLevel);
-        if (validationResult.getIsValid()) {
-            generateCharts(electricityProduction, "electricityChart");
-            generateCharts(hydrogenProduction, "hydrogenChart");
-            generateCharts(hydrogenLevel, "hydrogenLevelChart");
+        ValidationResult validationResult = ValidationResultFactory.ofSimulation(gridService, gridInput, yearResult);
+        return respond(validationResult, resolution);
+    }
+
+    @Operation(summary = "Validate grid streaming hourly series while the simulation runs; rows follow the columns field "
+            + "and the summary comes after the series")
+    @PostMapping(value = "/validateGrid/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public StreamingResponseBody validateGridStream(@RequestBody GridInput gridInput) {
+        AdmissionPool.Permit permit = admissionControl.admit(WorkloadType.SIMULATION, gridInput);
+        return outputStream -> {
+            try {
+                simulationStreamWriter.write(gridService, gridInput, outputStream);
+            } finally {
+                permit.release();
+            }
+        };
+    }
+
+    @Operation(summary = "Validate many grids sharing vehicles, constants and costs in parallel; one JSON line per grid "
+            + "in completion order, hourly series only with series=true")
+    @PostMapping(value = "/validateGrid/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody validateGridBatch(@RequestBody BatchValidationInput batchInput,
+                                                   @RequestParam(defaultValue = "false") boolean series) {
+        if (batchInput.getGrids() == null || batchInput.getGrids().isEmpty()) {
+            throw new BusinessException("Batch must contain at least one grid", INVALID_INPUT);
         }
-        return validationResult;
+        List<GridInput> gridInputs = new ArrayList<>();
+        for (List<Storage> storages : batchInput.getGrids()) {
+            gridInputs.add(new GridInput(new Grid(batchInput.getVehicles(), storages), batchInput.getConstants(),
+                    batchInput.getCosts(), batchInput.getCatalog()));
+        }
+        AdmissionPool.Permit permit = admissionControl.admitBatch(WorkloadType.SIMULATION, gridInputs);
+        return outputStream -> {
+            try {
+                gridService.runBatchSimulation(gridInputs.get(0), batchInput.getGrids(), result -> {
+                    try {
+                        outputStream.write(objectMapper.writeValueAsBytes(ValidationResultFactory.ofBatch(gridService,
+                                gridInputs.get(result.getIndex()), result, series)));
+                        outputStream.write('\n');
+                        outputStream.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                permit.release();
+            }
+        };
     }
 
     @Operation(summary = "Calculate minimal hydrogen production during year")
     @PostMapping("/hydrogenProduction")
-    public ValidationResult hydrogenProduction(@RequestBody GridInput gridInput) {
-        MaxConsumptionYearResult minHydrogenProduction = gridService.calculateHydrogen(gridInput);
-        YearResult yearResult = minHydrogenProduction.getYearResult();
-        ValidationResult validationResult = new ValidationResult();
-        validationResult.setGrid(gridInput.getGrid());
-        validationResult.setIsValid(yearResult.isGood());
-        double[] vehicleConsumption = gridService.calculateYearlyConsumption(gridInput.getGrid().getVehicles(),
-                gridInput.getConstants().getHydrogenTransportLoss());
-        validationResult.setMaxVehicleConsumption(Arrays.stream(vehicleConsumption).max().getAsDouble());
-        List<Double> electricityProduction = new ArrayList<>();
-        List<Double> hydrogenProduction = new ArrayList<>();
-        List<Double> hydrogenLevel = new ArrayList<>();
-        for (Step s : yearResult.getSteps()) {
-            hydrogenProduction.add(s.getHydrogenProduction());
-            electricityProduction.add(s.getElectricityProduction());
-            hydrogenLevel.add(s.getStorageStates().values().stream().map(ss ->
-                    ss.getCurrentLevel()).collect(Collectors.summingDouble(Double::doubleValue)));
-        }
-        validationResult.setMinHydrogenProduction(minHydrogenProduction.getMaxConsumption());
-        validationResult.setResMaxPower(electricityProduction.stream().max(Double::compareTo).get());
-        validationResult.setResAnnualCapacity(electricityProduction.stream()
-                .collect(Collectors.summingDouble(Double::doubleValue)));
-        validationResult.setHydrogenProduction(hydrogenProduction);
-        validationResult.setElectricityProduction(electricityProduction);
-        validationResult.setErrors(yearResult.getErrors());
-        validationResult.setWarnings(yearResult.getWarnings());
-        validationResult.setHydrogenLevel(hydrogenLevel);
-        if (validationResult.getIsValid()) {
-            generateCharts(electricityProduction, "electricityChart");
-            generateCharts(hydrogenProduction, "hydrogenChart");
-            generateCharts(hydrogenLevel, "hydrogenLevelChart");
+    public ValidationResult hydrogenProduction(@RequestBody GridInput gridInput,
+                                               @RequestParam(defaultValue = "HOUR") Resolution resolution) {
+        MaxConsumptionYearResult minHydrogenProduction;
+        AdmissionPool.Permit permit = admissionControl.admit(WorkloadType.MAX_CONSUMPTION, gridInput);
+        try {
+            minHydrogenProduction = gridService.calculateHydrogen(gridInput);
+        } finally {
+            permit.release();
         }
-        return validationResult;
+        ValidationResult validationResult = ValidationResultFactory.ofHydrogenProduction(gridService, gridInput,
+                minHydrogenProduction);
+        return respond(validationResult, resolution);
     }
 
-    @Operation(summary = "Calculate minimal CAPEX (grid investment cost)")
-    @PostMapping("/minCapex")
-    public ValidationResult minCapex(@RequestBody GridInput gridInput) {
-        State state = gridService.calculateCapex(gridInput);
-        YearResult yearResult = state.getMetrics().getYearResult();
-        ValidationResult validationResult = new ValidationResult();
-        validationResult.setGrid(gridInput.getGrid());
-        validationResult.setIsValid(yearResult.isGood());
-        double[] vehicleConsumption = gridService.calculateYearlyConsumption(gridInput.getGrid().getVehicles(),
-                gridInput.getConstants().getHydrogenTransportLoss());
-        validationResult.setMaxVehicleConsumption(Arrays.stream(vehicleConsumption).max().getAsDouble());
-        List<Double> electricityProduction = new ArrayList<>();
-        List<Double> hydrogenProduction = new ArrayList<>();
-        List<Double> hydrogenLevel = new ArrayList<>();
-        for (Step s : yearResult.getSteps()) {
-            hydrogenProduction.add(s.getHydrogenProduction());
-            electricityProduction.add(s.getElectricityProduction());
-            hydrogenLevel.add(s.getStorageStates().values().stream().map(ss ->
-                    ss.getCurrentLevel()).collect(Collectors.summingDouble(Double::doubleValue)));
+    @Operation(summary = "Calculate Pareto front of grid cost, wasted hydrogen and hydrogen surplus")
+    @PostMapping("/minCapex/pareto")
+    public List<ParetoPoint> minCapexPareto(@RequestBody GridInput gridInput) {
+        List<State> front;
+        AdmissionPool.Permit permit = admissionControl.admit(WorkloadType.CAPEX_SEARCH, gridInput);
+        try {
+            front = gridService.calculateParetoFront(gridInput);
+        } finally {
+            permit.release();
         }
-        validationResult.setTotalGridCost(state.getMetrics().getTotalCost());
-        validationResult.setMinHydrogenProduction(state.getMetrics().getHydrogenProduction());
-        validationResult.setResMaxPower(electricityProduction.stream().max(Double::compareTo).get());
-        validationResult.setResAnnualCapacity(electricityProduction.stream()
-                .collect(Collectors.summingDouble(Double::doubleValue)));
-        validationResult.setHydrogenProduction(hydrogenProduction);
-        validationResult.setElectricityProduction(electricityProduction);
-        validationResult.setErrors(yearResult.getErrors());
-        validationResult.setWarnings(yearResult.getWarnings());
-        validationResult.setHydrogenLevel(hydrogenLevel);
-        if (validationResult.getIsValid()) {
-            generateCharts(electricityProduction, "electricityChart");
-            generateCharts(hydrogenProduction, "hydrogenChart");
-            generateCharts(hydrogenLevel, "hydrogenLevelChart");
+        List<ParetoPoint> points = new ArrayList<>();
+        for (State state : front) {
+            ParetoPoint point = new ParetoPoint();
+            point.setTotalGridCost(state.getMetrics().getTotalCost());
+            point.setHydrogenWasted(ParetoArchive.getWasted(state.getMetrics()));
+            point.setHydrogenSurplus(ParetoArchive.getSurplus(state.getMetrics()));
+            point.setStorages(state.getStorages());
+            points.add(point);
         }
-        return validationResult;
+        return points;
     }
 
-    private void generateCharts(List<Double> dataList, String name) {
-        var dataset = new DefaultXYDataset();
-        int compressedChartSize = dataList.size() / 4;
-
-        double[] array = new double[compressedChartSize];
-
-        for (int i = 0; i < compressedChartSize; i++) {
-            var point = dataList.get(i) + dataList.get(i + 1) + dataList.get(i + 2) + dataList.get(i + 3);
-            array[i] = point / 4;
+    @Operation(summary = "Calculate minimal CAPEX for increasing demand levels in one search")
+    @PostMapping("/minCapex/sweep")
+    public List<DemandSweepResult> minCapexSweep(@RequestBody DemandSweepInput demandSweepInput) {
+        TreeMap<Double, State> states;
+        AdmissionPool.Permit permit = admissionControl.admit(WorkloadType.CAPEX_SEARCH, demandSweepInput.getGridInput(),
+                demandSweepInput.getDemandFactors().size());
+        try {
+            states = gridService.calculateDemandSweep(demandSweepInput.getGridInput(), demandSweepInput.getDemandFactors());
+        } finally {
+            permit.release();
         }
-
-        double[][] outArray = new double[2][];
-        outArray[0] = new double[compressedChartSize];
-        outArray[1] = array;
-
-        for (int i = 0; i < compressedChartSize; i++) {
-            outArray[0][i] = i;
+        List<DemandSweepResult> results = new ArrayList<>();
+        for (Double demandFactor : new TreeSet<>(demandSweepInput.getDemandFactors())) {
+            DemandSweepResult result = new DemandSweepResult();
+            result.setDemandFactor(demandFactor);
+            State state = states.get(demandFactor);
+            result.setIsValid(state != null);
+            if (state != null) {
+                result.setTotalGridCost(state.getMetrics().getTotalCost());
+                result.setCapexLowerBound(state.getMetrics().getCapexLowerBound());
+                result.setOptimalityGap(ValidationResultFactory.getOptimalityGap(state));
+            }
+            results.add(result);
         }
+        return results;
+    }
 
-        dataset.addSeries("key", outArray);
-
-        JFreeChart chart = ChartFactory.createScatterPlot(name, "x", "y", dataset, PlotOrientation.VERTICAL, false, false, false);
-        XYLineAndShapeRenderer renderer = (XYLineAndShapeRenderer) ((XYPlot) chart.getPlot()).getRenderer();
-        renderer.setSeriesShape(0, new Ellipse2D.Double(0, 0, 0.5, 0.5));
-        renderer.setBaseLinesVisible(true);
+    @Operation(summary = "Calculate minimal CAPEX (grid investment cost)")
+    @PostMapping("/minCapex")
+    public ValidationResult minCapex(@RequestBody GridInput gridInput,
+                                     @RequestParam(defaultValue = "BEST_FIRST") SearchStrategyType strategy,
+                                     @RequestParam(defaultValue = "HOUR") Resolution resolution) {
+        State state;
+        AdmissionPool.Permit permit = admissionControl.admit(WorkloadType.CAPEX_SEARCH, gridInput);
         try {
-            ChartUtilities.saveChartAsPNG(new File(name + ".png"), chart, 1500, 1000);
-        } catch (IOException e) {
-            e.printStackTrace();
+            state = gridService.calculateCapex(gridInput, strategy);
+        } finally {
+            permit.release();
         }
+        ValidationResult validationResult = ValidationResultFactory.ofCapex(gridService, gridInput, state);
+        return respond(validationResult, resolution);
+    }
+
+    /**
+     * Wykresy dostają serie godzinowe, odpowiedź - serie na żądanym poziomie.
+     */
+    private ValidationResult respond(ValidationResult validationResult, Resolution resolution) {
+        Map<String, TimeSeriesPyramid> pyramids = ValidationResultFactory.buildPyramids(validationResult);
+        validationResult.setResultId(chartService.register(pyramids));
+        ValidationResultFactory.applyResolution(validationResult, pyramids, resolution);
+        return validationResult;
     }
 }
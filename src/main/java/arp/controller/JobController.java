@@ -0,0 +1,80 @@
+package arp.controller;
+
+import arp.chart.ChartService;
+import arp.dto.GridInput;
+import arp.dto.JobResult;
+import arp.dto.ValidationResult;
+import arp.enums.Resolution;
+import arp.job.Job;
+import arp.job.JobService;
+import arp.job.JobStatus;
+import arp.search.SearchStrategyType;
+import arp.service.GridService;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+public class JobController {
+    private final JobService jobService;
+    private final GridService gridService;
+    private final ChartService chartService;
+
+    public JobController(JobService jobService, GridService gridService, ChartService chartService) {
+        this.jobService = jobService;
+        this.gridService = gridService;
+        this.chartService = chartService;
+    }
+
+    @Operation(summary = "Start minimal CAPEX calculation in background and return job id")
+    @PostMapping("/jobs/minCapex")
+    public JobResult minCapex(@RequestBody GridInput gridInput,
+                              @RequestParam(defaultValue = "BEST_FIRST") SearchStrategyType strategy) {
+        return toJobResult(jobService.submitMinCapex(gridInput, strategy, state -> ValidationResultFactory.ofAllResolutions(chartService,
+                () -> ValidationResultFactory.ofCapex(gridService, gridInput, state))), Resolution.HOUR);
+    }
+
+    @Operation(summary = "Start minimal hydrogen production calculation in background and return job id")
+    @PostMapping("/jobs/hydrogenProduction")
+    public JobResult hydrogenProduction(@RequestBody GridInput gridInput) {
+        return toJobResult(jobService.submitHydrogenProduction(gridInput, result -> ValidationResultFactory.ofAllResolutions(chartService,
+                () -> ValidationResultFactory.ofHydrogenProduction(gridService, gridInput, result))), Resolution.HOUR);
+    }
+
+    @Operation(summary = "Progress and result of background job")
+    @GetMapping("/jobs/{id}")
+    public JobResult job(@PathVariable String id, @RequestParam(defaultValue = "HOUR") Resolution resolution) {
+        return toJobResult(jobService.get(id), resolution);
+    }
+
+    @Operation(summary = "Cancel background job")
+    @DeleteMapping("/jobs/{id}")
+    public JobResult cancel(@PathVariable String id) {
+        return toJobResult(jobService.cancel(id), Resolution.HOUR);
+    }
+
+    /**
+     * Wynik zadania jest budowany raz, w wątku zadania, we wszystkich rozdzielczościach.
+     */
+    private JobResult toJobResult(Job job, Resolution resolution) {
+        JobResult jobResult = new JobResult();
+        jobResult.setId(job.getId());
+        jobResult.setType(job.getType());
+        jobResult.setStatus(job.getStatus());
+        jobResult.setExpandedStates(job.getProgress().getExpandedStates());
+        jobResult.setFrontierSize(job.getProgress().getFrontierSize());
+        jobResult.setIncumbentCost(job.getProgress().getIncumbentCost());
+        jobResult.setError(job.getError());
+        if (job.getStatus() == JobStatus.DONE && job.getResult() instanceof Map) {
+            jobResult.setResult((ValidationResult) ((Map<?, ?>) job.getResult()).get(resolution));
+        }
+        return jobResult;
+    }
+}
@@ -0,0 +1,48 @@
+package arp.controller;
+
+import arp.dto.ProfileInfo;
+import arp.dto.ProfileUpload;
+import arp.exception.BusinessException;
+import arp.profile.ProfileRegistry;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import static arp.exception.FailureReason.INVALID_INPUT;
+
+@RestController
+public class ProfileController {
+    private final ProfileRegistry profileRegistry;
+
+    public ProfileController(ProfileRegistry profileRegistry) {
+        this.profileRegistry = profileRegistry;
+    }
+
+    @Operation(summary = "Upload production profile once and reference it by id in grid constants")
+    @PostMapping("/profiles")
+    public ProfileInfo upload(@RequestBody ProfileUpload profileUpload) {
+        if (profileUpload.getBase64() != null) {
+            return ProfileInfo.of(profileRegistry.registerBase64(profileUpload.getBase64()));
+        }
+        if (profileUpload.getValues() != null) {
+            return ProfileInfo.of(profileRegistry.register(profileUpload.getValues()));
+        }
+        throw new BusinessException("Profile values are missing", INVALID_INPUT);
+    }
+
+    @Operation(summary = "Upload production profile in the binary profile format")
+    @PostMapping(value = "/profiles/binary", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ProfileInfo uploadBinary(@RequestBody byte[] profile) {
+        return ProfileInfo.of(profileRegistry.registerBinary(profile));
+    }
+
+    @Operation(summary = "Describe uploaded production profile")
+    @GetMapping("/profiles/{id}")
+    public ProfileInfo profile(@PathVariable String id) {
+        return ProfileInfo.of(profileRegistry.get(id));
+    }
+}
@@ -0,0 +1,95 @@
+package arp.controller;
+
+import arp.dto.GridInput;
+import arp.service.GridService;
+import arp.service.Step;
+import arp.service.StorageState;
+import arp.service.YearResult;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Pisze wynik symulacji w trakcie jej trwania: najpierw pola znane przed symulacją, potem godziny
+ * jako wiersze [electricityProduction, hydrogenProduction, hydrogenLevel], na końcu podsumowanie.
+ * Pamięć nie rośnie z długością symulacji - kroki nie są zbierane.
+ */
+final class SimulationStreamWriter {
+    static final String[] COLUMNS = {"electricityProduction", "hydrogenProduction", "hydrogenLevel"};
+    private static final int FLUSH_HOURS = 168;
+
+    private final ObjectMapper objectMapper;
+
+    SimulationStreamWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    void write(GridService gridService, GridInput gridInput, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.writeStartObject();
+            generator.writeObjectField("grid", gridInput.getGrid());
+            generator.writeNumberField("maxVehicleConsumption", gridService.calculateMaxConsumption(
+                    gridInput.getGrid().getVehicles(), gridInput.getConstants().getHydrogenTransportLoss()));
+            generator.writeArrayFieldStart("columns");
+            for (String column : COLUMNS) {
+                generator.writeString(column);
+            }
+            generator.writeEndArray();
+            generator.flush();
+
+            generator.writeArrayFieldStart("hours");
+            Summary summary = new Summary();
+            YearResult yearResult;
+            try {
+                yearResult = gridService.runSimulation(gridInput, step -> writeStep(generator, step, summary));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            generator.writeEndArray();
+
+            generator.writeBooleanField("isValid", yearResult.isGood());
+            generator.writeNumberField("minHydrogenProduction", summary.minHydrogenProduction);
+            generator.writeNumberField("resMaxPower", summary.resMaxPower);
+            generator.writeNumberField("resAnnualCapacity", summary.resAnnualCapacity);
+            generator.writeObjectField("warnings", yearResult.getWarnings());
+            generator.writeObjectField("errors", yearResult.getErrors());
+            generator.writeEndObject();
+        }
+    }
+
+    private void writeStep(JsonGenerator generator, Step step, Summary summary) {
+        double hydrogenLevel = step.getStorageStates().values().stream().mapToDouble(StorageState::getCurrentLevel).sum();
+        summary.add(step);
+        try {
+            generator.writeStartArray();
+            generator.writeNumber(step.getElectricityProduction());
+            generator.writeNumber(step.getHydrogenProduction());
+            generator.writeNumber(hydrogenLevel);
+            generator.writeEndArray();
+            if (++summary.hours % FLUSH_HOURS == 0) {
+                generator.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Te same wartości co w ValidationResultFactory.ofSimulation, liczone przyrostowo.
+     */
+    private static class Summary {
+        private int hours;
+        private double minHydrogenProduction = Double.POSITIVE_INFINITY;
+        private double resMaxPower = Double.NEGATIVE_INFINITY;
+        private double resAnnualCapacity;
+
+        private void add(Step step) {
+            minHydrogenProduction = Math.min(minHydrogenProduction, step.getHydrogenProduction());
+            resMaxPower = Math.max(resMaxPower, step.getElectricityProduction());
+            resAnnualCapacity += step.getElectricityProduction();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package arp.controller;
+
+import arp.admission.AdmissionControl;
+import arp.admission.AdmissionPool;
+import arp.search.PortfolioStatistics;
+import arp.service.GridService;
+import arp.service.SimulationCache;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+public class StatisticsController {
+    private final GridService gridService;
+    private final AdmissionControl admissionControl;
+
+    public StatisticsController(GridService gridService, AdmissionControl admissionControl) {
+        this.gridService = gridService;
+        this.admissionControl = admissionControl;
+    }
+
+    @Operation(summary = "Win statistics of CAPEX engines raced in PORTFOLIO strategy")
+    @GetMapping("/statistics/portfolio")
+    public PortfolioStatistics portfolioStatistics() {
+        return gridService.getPortfolioStatistics();
+    }
+
+    @Operation(summary = "Hit and miss counters of the shared simulation result cache")
+    @GetMapping("/statistics/simulationCache")
+    public SimulationCache simulationCache() {
+        return gridService.getSimulationCache();
+    }
+
+    @Operation(summary = "Units in use, queue depth and rejections of admission pools of compute endpoints")
+    @GetMapping("/statistics/admission")
+    public List<AdmissionPool> admission() {
+        return admissionControl.getPools();
+    }
+}
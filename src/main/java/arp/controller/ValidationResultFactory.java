@@ -0,0 +1,163 @@
+package arp.controller;
+
+import arp.chart.ChartService;
+import arp.dto.BatchValidationResult;
+import arp.dto.GridInput;
+import arp.dto.SeriesRange;
+import arp.dto.ValidationResult;
+import arp.dto.util.DoubleColumn;
+import arp.enums.Resolution;
+import arp.search.State;
+import arp.service.BatchSimulationResult;
+import arp.service.GridService;
+import arp.service.MaxConsumptionYearResult;
+import arp.service.Step;
+import arp.service.TimeSeriesPyramid;
+import arp.service.YearResult;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Buduje odpowiedzi z wyników symulacji - wspólne dla żądań synchronicznych i zadań w tle.
+ */
+final class ValidationResultFactory {
+
+    private ValidationResultFactory() {
+    }
+
+    static ValidationResult ofSimulation(GridService gridService, GridInput gridInput, YearResult yearResult) {
+        ValidationResult validationResult = new ValidationResult();
+        validationResult.setGrid(gridInput.getGrid());
+        validationResult.setIsValid(yearResult.isGood());
+        validationResult.setMaxVehicleConsumption(gridService.calculateMaxConsumption(gridInput.getGrid().getVehicles(),
+                gridInput.getConstants().getHydrogenTransportLoss()));
+        List<Step> steps = yearResult.getSteps();
+        double[] electricityProduction = new double[steps.size()];
+        double[] hydrogenProduction = new double[steps.size()];
+        double[] hydrogenLevel = new double[steps.size()];
+        for (int i = 0; i < steps.size(); i++) {
+            Step s = steps.get(i);
+            hydrogenProduction[i] = s.getHydrogenProduction();
+            electricityProduction[i] = s.getElectricityProduction();
+            hydrogenLevel[i] = s.getStorageStates().values().stream().mapToDouble(ss -> ss.getCurrentLevel()).sum();
+        }
+        validationResult.setMinHydrogenProduction(Arrays.stream(hydrogenProduction).min().getAsDouble());
+        validationResult.setResMaxPower(Arrays.stream(electricityProduction).max().getAsDouble());
+        validationResult.setResAnnualCapacity(Arrays.stream(electricityProduction).sum());
+        validationResult.setHydrogenProduction(new DoubleColumn(hydrogenProduction));
+        validationResult.setElectricityProduction(new DoubleColumn(electricityProduction));
+        validationResult.setErrors(yearResult.getErrors());
+        validationResult.setWarnings(yearResult.getWarnings());
+        validationResult.setHydrogenLevel(new DoubleColumn(hydrogenLevel));
+        return validationResult;
+    }
+
+    static ValidationResult ofHydrogenProduction(GridService gridService, GridInput gridInput,
+                                                 MaxConsumptionYearResult minHydrogenProduction) {
+        ValidationResult validationResult = ofSimulation(gridService, gridInput, minHydrogenProduction.getYearResult());
+        validationResult.setMinHydrogenProduction(minHydrogenProduction.getMaxConsumption());
+        return validationResult;
+    }
+
+    static ValidationResult ofCapex(GridService gridService, GridInput gridInput, State state) {
+        ValidationResult validationResult = ofSimulation(gridService, gridInput, state.getMetrics().getYearResult());
+        validationResult.setTotalGridCost(state.getMetrics().getTotalCost());
+        validationResult.setCapexLowerBound(state.getMetrics().getCapexLowerBound());
+        validationResult.setOptimalityGap(getOptimalityGap(state));
+        validationResult.setMinHydrogenProduction(state.getMetrics().getHydrogenProduction());
+        return validationResult;
+    }
+
+    /**
+     * Względna luka między kosztem a ograniczeniem albo null, gdy ograniczenia nie ma (np. ceny z katalogu).
+     */
+    static Double getOptimalityGap(State state) {
+        Double capexLowerBound = state.getMetrics().getCapexLowerBound();
+        if (capexLowerBound == null) {
+            return null;
+        }
+        double totalCost = state.getMetrics().getTotalCost();
+        return totalCost > 0 ? (totalCost - capexLowerBound) / totalCost : 0.0;
+    }
+
+    /**
+     * Podsumowanie siatki z partii - bez grafu, który klient już zna, i bez serii, o ile nie zostały zamówione.
+     */
+    static BatchValidationResult ofBatch(GridService gridService, GridInput gridInput, BatchSimulationResult result,
+                                         boolean series) {
+        if (result.getError() != null) {
+            return new BatchValidationResult(result.getIndex(), null, result.getError().getMessage());
+        }
+        ValidationResult validationResult = ofSimulation(gridService, gridInput, result.getYearResult());
+        validationResult.setGrid(null);
+        if (!series) {
+            validationResult.setElectricityProduction(null);
+            validationResult.setHydrogenProduction(null);
+            validationResult.setHydrogenLevel(null);
+        }
+        return new BatchValidationResult(result.getIndex(), validationResult, null);
+    }
+
+    /**
+     * Piramidy serii godzinowych - każda liczona w jednym przejściu po wyniku.
+     */
+    static Map<String, TimeSeriesPyramid> buildPyramids(ValidationResult validationResult) {
+        Map<String, TimeSeriesPyramid> pyramids = new LinkedHashMap<>();
+        pyramids.put(ChartService.ELECTRICITY, new TimeSeriesPyramid(toArray(validationResult.getElectricityProduction())));
+        pyramids.put(ChartService.HYDROGEN, new TimeSeriesPyramid(toArray(validationResult.getHydrogenProduction())));
+        pyramids.put(ChartService.HYDROGEN_LEVEL, new TimeSeriesPyramid(toArray(validationResult.getHydrogenLevel())));
+        return pyramids;
+    }
+
+    /**
+     * Odpowiedź we wszystkich rozdzielczościach naraz - dla wyniku trzymanego dłużej niż jedno żądanie.
+     * Piramidy są liczone i rejestrowane do wykresów raz, więc wszystkie wersje mają ten sam resultId,
+     * a wersje powyżej HOUR mają już tylko krótkie serie.
+     */
+    static Map<Resolution, ValidationResult> ofAllResolutions(ChartService chartService, Supplier<ValidationResult> factory) {
+        ValidationResult hourly = factory.get();
+        Map<String, TimeSeriesPyramid> pyramids = buildPyramids(hourly);
+        String resultId = chartService.register(pyramids);
+        Map<Resolution, ValidationResult> results = new EnumMap<>(Resolution.class);
+        for (Resolution resolution : Resolution.values()) {
+            ValidationResult validationResult = resolution == Resolution.HOUR ? hourly : factory.get();
+            validationResult.setResultId(resultId);
+            applyResolution(validationResult, pyramids, resolution);
+            results.put(resolution, validationResult);
+        }
+        return results;
+    }
+
+    /**
+     * Zamienia serie godzinowe na średnie z okresów i dokłada ich minima i maksima.
+     */
+    static void applyResolution(ValidationResult validationResult, Map<String, TimeSeriesPyramid> pyramids,
+                                Resolution resolution) {
+        validationResult.setResolution(resolution);
+        if (resolution == Resolution.HOUR) {
+            return;
+        }
+        validationResult.setElectricityProduction(toList(pyramids.get(ChartService.ELECTRICITY).getLevel(resolution).getMean()));
+        validationResult.setHydrogenProduction(toList(pyramids.get(ChartService.HYDROGEN).getLevel(resolution).getMean()));
+        validationResult.setHydrogenLevel(toList(pyramids.get(ChartService.HYDROGEN_LEVEL).getLevel(resolution).getMean()));
+        Map<String, SeriesRange> ranges = new LinkedHashMap<>();
+        pyramids.forEach((series, pyramid) -> {
+            TimeSeriesPyramid.Level level = pyramid.getLevel(resolution);
+            ranges.put(series, new SeriesRange(toList(level.getMin()), toList(level.getMax())));
+        });
+        validationResult.setRanges(ranges);
+    }
+
+    private static double[] toArray(List<Double> values) {
+        return DoubleColumn.toArray(values);
+    }
+
+    private static List<Double> toList(double[] values) {
+        return new DoubleColumn(values);
+    }
+}
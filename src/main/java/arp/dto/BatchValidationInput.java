@@ -0,0 +1,32 @@
+package arp.dto;
+
+import arp.dto.catalog.ComponentCatalog;
+import arp.dto.grid.Storage;
+import arp.dto.grid.Vehicle;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchValidationInput {
+
+    @Schema(description = "Vehicles (types) list shared by all grids", required = true)
+    private List<Vehicle> vehicles;
+
+    @Schema(description = "Storages list of each validated grid", required = true)
+    private List<List<Storage>> grids;
+
+    @Schema(description = "Grid constants shared by all grids", required = true)
+    private GridConstants constants;
+
+    @Schema(description = "Grid elements costs shared by all grids", required = true)
+    private GridCosts costs;
+
+    @Schema(description = "Optional catalog of component sizes")
+    private ComponentCatalog catalog;
+}
@@ -0,0 +1,21 @@
+package arp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchValidationResult {
+
+    @Schema(description = "Index of the grid in the batch input")
+    private Integer index;
+
+    @Schema(description = "Validation summary; hourly series only when requested")
+    private ValidationResult result;
+
+    @Schema(description = "Failure message when the grid could not be simulated")
+    private String error;
+}
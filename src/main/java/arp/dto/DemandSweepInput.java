@@ -0,0 +1,20 @@
+package arp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DemandSweepInput {
+
+    @Schema(description = "Grid input solved at every demand level", required = true)
+    private GridInput gridInput;
+
+    @Schema(description = "Multipliers of vehicles fuel consumption, solved in increasing order", required = true)
+    private List<Double> demandFactors;
+}
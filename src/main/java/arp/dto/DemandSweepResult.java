@@ -0,0 +1,22 @@
+package arp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+public class DemandSweepResult {
+
+    @Schema(description = "Multiplier of vehicles fuel consumption")
+    private Double demandFactor;
+
+    @Schema(description = "Minimal cost of grid extension, empty when no valid grid was found")
+    private Double totalGridCost;
+
+    @Schema(description = "Lower bound of grid extension cost proven by the search, empty when there is no valid bound")
+    private Double capexLowerBound;
+
+    @Schema(description = "Relative gap between totalGridCost and capexLowerBound, empty when there is no valid bound")
+    private Double optimalityGap;
+
+    private Boolean isValid;
+}
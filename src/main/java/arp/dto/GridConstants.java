@@ -9,7 +9,7 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class GridConstants {
+public class GridConstants implements Cloneable {
     @Schema(description = "Hours of Simimulation (1..8760)", example = "8760")
     private Integer hoursOfSimulation;
 
@@ -28,6 +28,12 @@ public class GridConstants {
     @Schema(description = "Windmill production histogram")
     private double[] windDailyProduction;
 
+    @Schema(description = "Id of uploaded PV profile, used instead of pvDailyProduction")
+    private String pvProfileId;
+
+    @Schema(description = "Id of uploaded windmill profile, used instead of windDailyProduction")
+    private String windProfileId;
+
     @Schema(description = "Electrolyzer Efficiency", example = "25.0", required = true)
     private double electrolyzerEfficiency;
 
@@ -46,4 +52,15 @@ public class GridConstants {
     public void setElectrolyzerEfficiency(double electrolyzerEfficiency) {
         this.electrolyzerEfficiency = Utils.standardRound(electrolyzerEfficiency);
     }
+
+    /**
+     * Płytka kopia - tablice profili są współdzielone i nie są modyfikowane.
+     */
+    public GridConstants clone() {
+        try {
+            return (GridConstants) super.clone();
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+    }
 }
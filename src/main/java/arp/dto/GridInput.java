@@ -1,5 +1,6 @@
 package arp.dto;
 
+import arp.dto.catalog.ComponentCatalog;
 import arp.dto.grid.Grid;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
@@ -19,4 +20,11 @@ public class GridInput {
 
     @Schema(description = "Grid elements costs", required = true)
     private GridCosts costs;
+
+    @Schema(description = "Optional catalog of component sizes used instead of unit steps priced by grid costs")
+    private ComponentCatalog catalog;
+
+    public GridInput(Grid grid, GridConstants constants, GridCosts costs) {
+        this(grid, constants, costs, null);
+    }
 }
@@ -0,0 +1,34 @@
+package arp.dto;
+
+import arp.job.JobStatus;
+import arp.job.JobType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+public class JobResult {
+
+    @Schema(description = "Job id")
+    private String id;
+
+    @Schema(description = "Job type")
+    private JobType type;
+
+    @Schema(description = "QUEUED, RUNNING, DONE, FAILED or CANCELLED")
+    private JobStatus status;
+
+    @Schema(description = "States expanded by the search so far")
+    private Long expandedStates;
+
+    @Schema(description = "States waiting in the search frontier")
+    private Integer frontierSize;
+
+    @Schema(description = "Cost of the best valid grid found so far")
+    private Double incumbentCost;
+
+    @Schema(description = "Failure message of a FAILED job")
+    private String error;
+
+    @Schema(description = "Result of a DONE job")
+    private ValidationResult result;
+}
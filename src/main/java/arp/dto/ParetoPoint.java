@@ -0,0 +1,23 @@
+package arp.dto;
+
+import arp.dto.grid.Storage;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ParetoPoint {
+
+    @Schema(description = "Cost of grid extension")
+    private Double totalGridCost;
+
+    @Schema(description = "Hydrogen lost during the year in evaporation and because of full storages")
+    private Double hydrogenWasted;
+
+    @Schema(description = "Lowest hydrogen level in storages during the year")
+    private Double hydrogenSurplus;
+
+    @Schema(description = "Storages of the extended grid")
+    private List<Storage> storages;
+}
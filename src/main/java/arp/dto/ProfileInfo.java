@@ -0,0 +1,34 @@
+package arp.dto;
+
+import arp.profile.RegisteredProfile;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+public class ProfileInfo {
+
+    @Schema(description = "Profile id (content hash) to reference from grid constants")
+    private String id;
+
+    @Schema(description = "Number of values in the profile")
+    private Integer size;
+
+    @Schema(description = "Average value of the profile")
+    private Double capacityFactor;
+
+    @Schema(description = "Lowest value of the profile")
+    private Double min;
+
+    @Schema(description = "Highest value of the profile")
+    private Double max;
+
+    public static ProfileInfo of(RegisteredProfile profile) {
+        ProfileInfo info = new ProfileInfo();
+        info.setId(profile.getId());
+        info.setSize(profile.size());
+        info.setCapacityFactor(profile.getCapacityFactor());
+        info.setMin(profile.getMin());
+        info.setMax(profile.getMax());
+        return info;
+    }
+}
@@ -0,0 +1,14 @@
+package arp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+public class ProfileUpload {
+
+    @Schema(description = "Hourly or daily production values, repeated cyclically over the year")
+    private double[] values;
+
+    @Schema(description = "Alternative to values: base64 of big-endian 32-bit floats")
+    private String base64;
+}
@@ -0,0 +1,20 @@
+package arp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SeriesRange {
+
+    @Schema(description = "Lowest hourly value in each period")
+    private List<Double> min;
+
+    @Schema(description = "Highest hourly value in each period")
+    private List<Double> max;
+}
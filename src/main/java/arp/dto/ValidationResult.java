@@ -3,9 +3,12 @@ package arp.dto;
 import arp.dto.grid.Grid;
 import arp.dto.warming.BusinessError;
 import arp.dto.warming.Warning;
+import arp.enums.Resolution;
+import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Data;
 
 import java.util.List;
+import java.util.Map;
 
 @Data
 public class ValidationResult {
@@ -18,7 +21,18 @@ public class ValidationResult {
     private Double resMaxPower;
     private Double resAnnualCapacity;
     private Double totalGridCost;
+    private Double capexLowerBound;
+    private Double optimalityGap;
     private Boolean isValid;
     private List<Warning> warnings;
     private List<BusinessError> errors;
+
+    @Schema(description = "Id of the result for GET /charts/{resultId}/{series}.png")
+    private String resultId;
+
+    @Schema(description = "Period of values in hourly series; above HOUR the series hold period means")
+    private Resolution resolution;
+
+    @Schema(description = "Min and max of hourly values in each period by series name, only above HOUR resolution")
+    private Map<String, SeriesRange> ranges;
 }
@@ -0,0 +1,27 @@
+package arp.dto.catalog;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogItem {
+
+    @Schema(description = "Catalog item name, unique within component type", example = "Turbine 2.5MW", required = true)
+    private String name;
+
+    @Schema(description = "Power or capacity added by one item", example = "2.5", required = true)
+    private double size;
+
+    @Schema(description = "Price of one item", example = "6.0", required = true)
+    private double price;
+
+    @Schema(description = "Discounts for buying more items of this kind")
+    private List<VolumeDiscount> volumeDiscounts = new ArrayList<>();
+}
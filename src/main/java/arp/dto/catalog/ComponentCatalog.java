@@ -0,0 +1,43 @@
+package arp.dto.catalog;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ComponentCatalog {
+
+    @Schema(description = "Available windmill sizes, empty means 1MW steps priced by grid costs")
+    private List<CatalogItem> wind = new ArrayList<>();
+
+    @Schema(description = "Available PV installation sizes, empty means 1MW steps priced by grid costs")
+    private List<CatalogItem> pv = new ArrayList<>();
+
+    @Schema(description = "Available electrolyzer stacks, empty means 1MW steps priced by grid costs")
+    private List<CatalogItem> electrolyzer = new ArrayList<>();
+
+    @Schema(description = "Available electricity storage sizes, empty means 1MWh steps priced by grid costs")
+    private List<CatalogItem> accumulator = new ArrayList<>();
+
+    @Schema(description = "Available hydrogen tank sizes, empty means 1kg steps priced by grid costs")
+    private List<CatalogItem> storage = new ArrayList<>();
+
+    /**
+     * Katalog bez żadnej pozycji - wszystkie przyrosty są wyceniane liniowo z GridCosts, jak bez katalogu.
+     */
+    @JsonIgnore
+    public boolean isEmpty() {
+        return isEmpty(wind) && isEmpty(pv) && isEmpty(electrolyzer) && isEmpty(accumulator) && isEmpty(storage);
+    }
+
+    private static boolean isEmpty(List<CatalogItem> items) {
+        return items == null || items.isEmpty();
+    }
+}
@@ -0,0 +1,18 @@
+package arp.dto.catalog;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VolumeDiscount {
+
+    @Schema(description = "Discount applies to the item bought as this one or later", example = "3", required = true)
+    private int minQuantity;
+
+    @Schema(description = "Price reduction as a fraction of item price", example = "0.1", required = true)
+    private double discount;
+}
@@ -1,6 +1,6 @@
 package arp.dto.grid;
 
-import arp.service.Utils;
+import arp.enums.EnergySourceType;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
@@ -36,11 +36,19 @@ public class Electrolyzer implements Cloneable {
 
     /**
      * rzeczywista moc dostarczona przez wszyskie źródła energii
-     * z uwzględnieniem charakterystyki rocznej produkcji i straty przesyłowej
+     * z uwzględnieniem charakterystyki rocznej produkcji i straty przesyłowej -
+     * ustawiana tylko jawnie, gdy produkcja nie wynika ze źródeł (np. w testach)
      */
     @JsonIgnore
     private double[] summaryEnergyProduction; // godzina w roku
 
+    /**
+     * Produkcja jest liniowa w mocach źródeł: (MW wiatru * profil wiatru + MW PV * profil PV) * (1 - strata przesyłowa).
+     * Zamiast tablicy na każdą godzinę trzymamy dwie sumy mocy, a profile są wspólne w Data.
+     */
+    @JsonIgnore
+    private volatile double[] sourcePowers; // [wiatr, PV]
+
     public Electrolyzer clone() {
         try {
             Electrolyzer cloned = (Electrolyzer) super.clone();
@@ -53,26 +61,44 @@ public class Electrolyzer implements Cloneable {
     }
 
     public double getSummaryEnergyProduction(arp.service.Data data, int hour) {
-        if (summaryEnergyProduction == null) {
-           recalculateSummaryEnergyProduction(data);
+        if (summaryEnergyProduction != null) {
+            return hour < summaryEnergyProduction.length ? summaryEnergyProduction[hour] : 0d;
+        }
+        double[] powers = sourcePowers;
+        if (powers == null) {
+            powers = calculateSourcePowers();
+            sourcePowers = powers;
+        }
+        double production = 0;
+        if (powers[0] != 0) {
+            production += powers[0] * getProfileValue(EnergySourceType.WIND, data, hour);
         }
-        if (summaryEnergyProduction != null && hour < summaryEnergyProduction.length) {
-            return summaryEnergyProduction[hour];
-        } else {
-            return 0d;
+        if (powers[1] != 0) {
+            production += powers[1] * getProfileValue(EnergySourceType.PV, data, hour);
         }
+        return production * (1.0 - data.getGridConstants().getTransmissionLoss());
     }
 
+    /**
+     * Do wywołania po każdej zmianie źródeł - O(liczba źródeł), bez tablic godzinowych.
+     */
     public void recalculateSummaryEnergyProduction(arp.service.Data data) {
-        int size = summaryEnergyProduction != null ? summaryEnergyProduction.length : Utils.HOURS_OF_YEAR;
-        summaryEnergyProduction = Utils.createTableOfValue(0, size);
+        summaryEnergyProduction = null;
+        sourcePowers = calculateSourcePowers();
+    }
+
+    private double[] calculateSourcePowers() {
+        double[] powers = new double[2];
         for (EnergySource source : getSources()) {
-            double[] dailyProduction = source.getDailyProduction(data);
-            for (int i = 0; i < size; i++) {
-                double v = source.getMaxPower() * dailyProduction[i % dailyProduction.length];
-                summaryEnergyProduction[i] += v * (1.0 - data.getGridConstants().getTransmissionLoss());
-            }
+            double power = source.getMaxPower() != null ? source.getMaxPower() : 0.0;
+            powers[EnergySourceType.WIND.equals(source.getType()) ? 0 : 1] += power;
         }
+        return powers;
+    }
+
+    private static double getProfileValue(EnergySourceType type, arp.service.Data data, int hour) {
+        double[] profile = EnergySource.getDailyProduction(type, data);
+        return profile[hour % profile.length];
     }
 
 }
@@ -25,7 +25,11 @@ public class EnergySource implements Cloneable {
 
 
     public double[] getDailyProduction(arp.service.Data data) {
-        if (EnergySourceType.WIND.equals(getType())) {
+        return getDailyProduction(getType(), data);
+    }
+
+    public static double[] getDailyProduction(EnergySourceType type, arp.service.Data data) {
+        if (EnergySourceType.WIND.equals(type)) {
             if (data.getGridConstants().getWindDailyProduction() != null) {
                 return data.getGridConstants().getWindDailyProduction();
             } else {
@@ -0,0 +1,41 @@
+package arp.dto.util;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Seria wyniku trzymana w tablicy prymitywów. Dla zwykłego JSON-a wygląda jak List<Double>,
+ * a zwarte kodowanie odpowiedzi czyta tablicę bez pakowania wartości.
+ */
+public class DoubleColumn extends AbstractList<Double> implements RandomAccess {
+    private final double[] values;
+
+    public DoubleColumn(double[] values) {
+        this.values = values;
+    }
+
+    @Override
+    public Double get(int index) {
+        return values[index];
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Tablica bez kopiowania - nie wolno jej modyfikować.
+     */
+    public double[] getValues() {
+        return values;
+    }
+
+    public static double[] toArray(List<Double> values) {
+        if (values instanceof DoubleColumn) {
+            return ((DoubleColumn) values).getValues();
+        }
+        return values.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+}
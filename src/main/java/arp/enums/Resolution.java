@@ -0,0 +1,39 @@
+package arp.enums;
+
+/**
+ * Poziomy agregacji godzinowych serii wyników. Miesiące są kalendarzowe (rok nieprzestępny).
+ */
+public enum Resolution {
+    HOUR(1), FOUR_HOURS(4), DAY(24), WEEK(168), MONTH(0);
+
+    private static final int[] DAYS_OF_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+    private static final int[] MONTH_OF_DAY = new int[365];
+
+    static {
+        int day = 0;
+        for (int month = 0; month < DAYS_OF_MONTH.length; month++) {
+            for (int i = 0; i < DAYS_OF_MONTH[month]; i++) {
+                MONTH_OF_DAY[day++] = month;
+            }
+        }
+    }
+
+    private final int hours;
+
+    Resolution(int hours) {
+        this.hours = hours;
+    }
+
+    public int getBucket(int hour) {
+        if (this == MONTH) {
+            // godziny po 8760 (seria z rokiem przestępnym lub dłuższa niż rok) idą do miesięcy kolejnego roku, a nie do grudnia
+            int day = hour / 24;
+            return day / MONTH_OF_DAY.length * DAYS_OF_MONTH.length + MONTH_OF_DAY[day % MONTH_OF_DAY.length];
+        }
+        return hour / hours;
+    }
+
+    public int getBuckets(int hours) {
+        return hours > 0 ? getBucket(hours - 1) + 1 : 0;
+    }
+}
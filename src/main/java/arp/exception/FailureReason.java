@@ -3,5 +3,9 @@ package arp.exception;
 public enum FailureReason {
     LACK_OF_POWER_ON_ELECTROLIZER,
     SOLUTION_NOT_FOUND,
-    LACK_OF_HYDROGEN
+    LACK_OF_HYDROGEN,
+    CANCELLED,
+    INVALID_INPUT,
+    NOT_FOUND,
+    OVERLOADED
 }
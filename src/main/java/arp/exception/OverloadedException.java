@@ -0,0 +1,19 @@
+package arp.exception;
+
+/**
+ * Żądanie odrzucone z braku zasobów - klient może ponowić je po retryAfterSeconds.
+ */
+public class OverloadedException extends BusinessException {
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    public OverloadedException(String message, long retryAfterSeconds) {
+        super(message, FailureReason.OVERLOADED);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,117 @@
+package arp.job;
+
+import arp.admission.AdmissionPool;
+import arp.dto.GridInput;
+import arp.search.SearchProgress;
+import arp.service.CancellationToken;
+
+import java.util.concurrent.Future;
+
+/**
+ * Obliczenie w tle. Stan jest zmieniany przez wątek roboczy i czytany przez żądania HTTP.
+ */
+public class Job {
+    private final String id;
+    private final JobType type;
+    private final GridInput gridInput;
+    private final CancellationToken cancellationToken = new CancellationToken();
+    private final SearchProgress progress = new SearchProgress();
+    private volatile JobStatus status = JobStatus.QUEUED;
+    private volatile Object result;
+    private volatile String error;
+    private volatile long finishedAt;
+    private volatile Future<?> future;
+    private volatile AdmissionPool.Permit permit;
+
+    public Job(String id, JobType type, GridInput gridInput) {
+        this.id = id;
+        this.type = type;
+        this.gridInput = gridInput;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public JobType getType() {
+        return type;
+    }
+
+    public GridInput getGridInput() {
+        return gridInput;
+    }
+
+    public CancellationToken getCancellationToken() {
+        return cancellationToken;
+    }
+
+    public SearchProgress getProgress() {
+        return progress;
+    }
+
+    public JobStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Wynik obliczenia (State, MaxConsumptionYearResult albo odpowiedź zbudowana z nich przy zleceniu),
+     * dostępny po zakończeniu ze statusem DONE.
+     */
+    public Object getResult() {
+        return result;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public boolean isFinished() {
+        return finishedAt != 0;
+    }
+
+    void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    void setPermit(AdmissionPool.Permit permit) {
+        this.permit = permit;
+    }
+
+    synchronized boolean start() {
+        if (status != JobStatus.QUEUED) {
+            return false;
+        }
+        status = JobStatus.RUNNING;
+        return true;
+    }
+
+    synchronized void finish(JobStatus status, Object result, String error) {
+        if (isFinished()) {
+            return;
+        }
+        this.result = result;
+        this.error = error;
+        this.status = status;
+        this.finishedAt = System.currentTimeMillis();
+        if (permit != null) {
+            permit.release();
+        }
+    }
+
+    /**
+     * Zadanie w kolejce kończy się od razu, uruchomione przerywa się samo przy najbliższym sprawdzeniu tokenu.
+     */
+    synchronized void cancel() {
+        cancellationToken.cancel();
+        if (status == JobStatus.QUEUED) {
+            if (future != null) {
+                future.cancel(false);
+            }
+            finish(JobStatus.CANCELLED, null, null);
+        }
+    }
+}
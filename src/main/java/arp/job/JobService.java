@@ -0,0 +1,177 @@
+package arp.job;
+
+import arp.admission.AdmissionControl;
+import arp.admission.AdmissionPool;
+import arp.admission.WorkloadType;
+import arp.dto.GridInput;
+import arp.exception.BusinessException;
+import arp.exception.OverloadedException;
+import arp.search.SearchStrategyType;
+import arp.search.State;
+import arp.service.GridService;
+import arp.service.MaxConsumptionYearResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static arp.exception.FailureReason.CANCELLED;
+import static arp.exception.FailureReason.NOT_FOUND;
+
+/**
+ * Długie obliczenia (minCapex, hydrogenProduction) na własnej, ograniczonej puli wątków zamiast wątków serwera.
+ * Zadanie zajmuje jednostki w AdmissionControl od przyjęcia do zakończenia, tak jak żądanie synchroniczne.
+ * Brak jednostek albo pełna kolejka odrzuca zadanie odpowiedzią 429.
+ * Zakończone zadania są trzymane przez czas życia wyniku, ale nie więcej niż maxFinishedJobs naraz - najstarsze
+ * są usuwane przy kolejnych wywołaniach. Wynik można od razu zamienić na odpowiedź, żeby zadanie nie trzymało
+ * całej symulacji.
+ */
+@Service
+public class JobService {
+    private static final int WORKERS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private static final int QUEUE_CAPACITY = 32;
+    private static final long RESULT_TTL = TimeUnit.MINUTES.toMillis(30);
+    private static final int MAX_FINISHED_JOBS = 64;
+
+    private final GridService gridService;
+    private final AdmissionControl admissionControl;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final long resultTtl;
+    private final int maxFinishedJobs;
+
+    @Autowired
+    public JobService(GridService gridService, AdmissionControl admissionControl) {
+        this(gridService, admissionControl, WORKERS, QUEUE_CAPACITY, RESULT_TTL, MAX_FINISHED_JOBS);
+    }
+
+    public JobService(GridService gridService, AdmissionControl admissionControl, int workers, int queueCapacity,
+                      long resultTtl, int maxFinishedJobs) {
+        this.gridService = gridService;
+        this.admissionControl = admissionControl;
+        this.resultTtl = resultTtl;
+        this.maxFinishedJobs = maxFinishedJobs;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "arp-job-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public Job submitMinCapex(GridInput gridInput, SearchStrategyType strategyType) {
+        return submitMinCapex(gridInput, strategyType, Function.identity());
+    }
+
+    /**
+     * view zamienia wynik na odpowiedź w wątku zadania - zadanie trzyma tylko ją.
+     */
+    public Job submitMinCapex(GridInput gridInput, SearchStrategyType strategyType, Function<State, ?> view) {
+        return submit(JobType.MIN_CAPEX, WorkloadType.CAPEX_SEARCH, gridInput, job -> () -> view.apply(
+                gridService.calculateCapex(gridInput, strategyType, job.getCancellationToken(), job.getProgress())));
+    }
+
+    public Job submitHydrogenProduction(GridInput gridInput) {
+        return submitHydrogenProduction(gridInput, Function.identity());
+    }
+
+    public Job submitHydrogenProduction(GridInput gridInput, Function<MaxConsumptionYearResult, ?> view) {
+        return submit(JobType.HYDROGEN_PRODUCTION, WorkloadType.MAX_CONSUMPTION, gridInput, job ->
+                () -> view.apply(gridService.calculateHydrogen(gridInput, job.getCancellationToken())));
+    }
+
+    public Job get(String id) {
+        evictFinished();
+        Job job = jobs.get(id);
+        if (job == null) {
+            throw new BusinessException("Unknown job " + id, NOT_FOUND);
+        }
+        return job;
+    }
+
+    public Job cancel(String id) {
+        Job job = get(id);
+        job.cancel();
+        return job;
+    }
+
+    public int getActiveJobs() {
+        return executor.getActiveCount();
+    }
+
+    public int getQueuedJobs() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(Job::cancel);
+        executor.shutdownNow();
+    }
+
+    private Job submit(JobType type, WorkloadType workloadType, GridInput gridInput, Function<Job, Callable<?>> task) {
+        evictFinished();
+        AdmissionPool.Permit permit = admissionControl.admit(workloadType, gridInput);
+        Job job = new Job(UUID.randomUUID().toString(), type, gridInput);
+        job.setPermit(permit);
+        Callable<?> callable = task.apply(job);
+        jobs.put(job.getId(), job);
+        try {
+            job.setFuture(executor.submit(() -> run(job, callable)));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            permit.release();
+            throw new OverloadedException("Too many jobs, try again later", 1);
+        }
+        return job;
+    }
+
+    private void run(Job job, Callable<?> callable) {
+        if (!job.start()) {
+            return;
+        }
+        try {
+            Object result = callable.call();
+            // przeszukiwanie lokalne po anulowaniu kończy się zwykłym wynikiem
+            if (job.getCancellationToken().isCancelled()) {
+                job.finish(JobStatus.CANCELLED, null, null);
+            } else {
+                job.finish(JobStatus.DONE, result, null);
+            }
+        } catch (BusinessException e) {
+            job.finish(e.type == CANCELLED ? JobStatus.CANCELLED : JobStatus.FAILED, null, e.getMessage());
+        } catch (Exception e) {
+            job.finish(JobStatus.FAILED, null, e.toString());
+        } finally {
+            // po Error (np. OutOfMemoryError) zadanie nie może zostać w RUNNING z zajętymi jednostkami przyjęć
+            job.finish(JobStatus.FAILED, null, "Job terminated unexpectedly");
+        }
+    }
+
+    private void evictFinished() {
+        long now = System.currentTimeMillis();
+        jobs.values().removeIf(job -> job.isFinished() && now - job.getFinishedAt() > resultTtl);
+        List<Job> finished = jobs.values().stream()
+                .filter(Job::isFinished)
+                .sorted(Comparator.comparingLong(Job::getFinishedAt))
+                .collect(Collectors.toList());
+        for (int i = 0; i < finished.size() - maxFinishedJobs; i++) {
+            jobs.remove(finished.get(i).getId());
+        }
+    }
+}
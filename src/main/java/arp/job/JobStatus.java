@@ -0,0 +1,5 @@
+package arp.job;
+
+public enum JobStatus {
+    QUEUED, RUNNING, DONE, FAILED, CANCELLED
+}
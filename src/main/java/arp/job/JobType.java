@@ -0,0 +1,5 @@
+package arp.job;
+
+public enum JobType {
+    MIN_CAPEX, HYDROGEN_PRODUCTION
+}
@@ -0,0 +1,37 @@
+package arp.profile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Zamienia profile tekstowe na binarne, uruchamiany w czasie budowania (faza process-classes).
+ * Argumenty: katalog źródłowy, katalog docelowy, nazwy profili bez rozszerzenia.
+ */
+public final class ProfileConverter {
+
+    private ProfileConverter() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            throw new IllegalArgumentException("Usage: ProfileConverter <source directory> <target directory> <profile>...");
+        }
+        Path source = Paths.get(args[0]);
+        Path target = Paths.get(args[1]);
+        Files.createDirectories(target);
+        for (int i = 2; i < args.length; i++) {
+            convert(source.resolve(args[i] + ProfileLoader.TEXT_EXTENSION), target.resolve(args[i] + ProfileFormat.EXTENSION));
+        }
+    }
+
+    public static void convert(Path text, Path binary) throws IOException {
+        double[] values;
+        try (InputStream inputStream = Files.newInputStream(text)) {
+            values = ProfileLoader.parseText(inputStream);
+        }
+        Files.write(binary, ProfileFormat.encode(values));
+    }
+}
@@ -0,0 +1,64 @@
+package arp.profile;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.CRC32;
+
+/**
+ * Binarny format profilu: nagłówek (znacznik "ARPP", wersja, liczba wartości, CRC32 danych),
+ * a za nim wartości double w kolejności big-endian.
+ */
+public final class ProfileFormat {
+    public static final int MAGIC = 0x41525050;
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+    public static final String EXTENSION = ".bin";
+
+    private ProfileFormat() {
+    }
+
+    public static byte[] encode(double[] values) {
+        ByteBuffer payload = ByteBuffer.allocate(values.length * Double.BYTES).order(ByteOrder.BIG_ENDIAN);
+        payload.asDoubleBuffer().put(values);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payload.capacity()).order(ByteOrder.BIG_ENDIAN);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(values.length);
+        buffer.putInt(checksum(payload.duplicate()));
+        buffer.put(payload);
+        return buffer.array();
+    }
+
+    /**
+     * Nie kopiuje danych - profil jest widokiem na przekazany bufor.
+     */
+    public static WeatherProfile decode(String name, ByteBuffer buffer) {
+        ByteBuffer header = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        if (header.remaining() < HEADER_SIZE) {
+            throw new IllegalStateException("Profile " + name + " is too short");
+        }
+        if (header.getInt() != MAGIC) {
+            throw new IllegalStateException("Profile " + name + " is not in binary profile format");
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IllegalStateException("Profile " + name + " has unsupported version " + version);
+        }
+        int length = header.getInt();
+        int expectedChecksum = header.getInt();
+        if (length < 0 || header.remaining() != (long) length * Double.BYTES) {
+            throw new IllegalStateException("Profile " + name + " has invalid length " + length);
+        }
+        ByteBuffer payload = header.slice().order(ByteOrder.BIG_ENDIAN);
+        if (checksum(payload.duplicate()) != expectedChecksum) {
+            throw new IllegalStateException("Profile " + name + " has invalid checksum");
+        }
+        return new WeatherProfile(name, payload.asDoubleBuffer());
+    }
+
+    private static int checksum(ByteBuffer payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
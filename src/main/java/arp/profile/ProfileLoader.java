@@ -0,0 +1,109 @@
+package arp.profile;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ładuje profile z classpath. Plik binarny leżący na dysku jest mapowany tylko do odczytu, z jara jest czytany
+ * strumieniem - resource.getFile() w jarze nie działa. Gdy brakuje wersji binarnej, parsujemy plik tekstowy.
+ * Profile są współdzielone przez cały proces.
+ */
+public final class ProfileLoader {
+    public static final String TEXT_EXTENSION = ".txt";
+    private static final int HOURS_HINT = 8784;
+
+    private static final Map<String, WeatherProfile> PROFILES = new ConcurrentHashMap<>();
+
+    private ProfileLoader() {
+    }
+
+    public static WeatherProfile load(String name) {
+        return PROFILES.computeIfAbsent(name, ProfileLoader::read);
+    }
+
+    static WeatherProfile read(String name) {
+        try {
+            Resource binary = new ClassPathResource(name + ProfileFormat.EXTENSION);
+            if (binary.exists()) {
+                return ProfileFormat.decode(name, readBinary(binary));
+            }
+            Resource text = new ClassPathResource(name + TEXT_EXTENSION);
+            if (text.exists()) {
+                try (InputStream inputStream = text.getInputStream()) {
+                    return new WeatherProfile(name, DoubleBuffer.wrap(parseText(inputStream)));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Profile " + name + " cannot be read", e);
+        }
+        throw new IllegalStateException("Profile " + name + " not found");
+    }
+
+    private static ByteBuffer readBinary(Resource resource) throws IOException {
+        if (resource.isFile()) {
+            return map(resource.getFile().toPath());
+        }
+        try (InputStream inputStream = resource.getInputStream()) {
+            return ByteBuffer.wrap(inputStream.readAllBytes()).asReadOnlyBuffer();
+        }
+    }
+
+    /**
+     * Profil binarny z pliku na dysku, bez kopiowania danych na stertę.
+     */
+    public static WeatherProfile map(String name, Path file) {
+        try {
+            return ProfileFormat.decode(name, map(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Profile " + name + " cannot be read", e);
+        }
+    }
+
+    private static ByteBuffer map(Path file) throws IOException {
+        // zmapowany bufor pozostaje ważny po zamknięciu kanału
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Wartości rozdzielone przecinkami lub białymi znakami.
+     */
+    public static double[] parseText(InputStream inputStream) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.US_ASCII));
+        double[] values = new double[HOURS_HINT];
+        int size = 0;
+        StringBuilder token = new StringBuilder();
+        int c;
+        do {
+            c = reader.read();
+            if (c == ',' || c == -1 || Character.isWhitespace(c)) {
+                if (token.length() > 0) {
+                    if (size == values.length) {
+                        values = Arrays.copyOf(values, size * 2);
+                    }
+                    values[size++] = Double.parseDouble(token.toString());
+                    token.setLength(0);
+                }
+            } else {
+                token.append((char) c);
+            }
+        } while (c != -1);
+        return Arrays.copyOf(values, size);
+    }
+}
@@ -0,0 +1,141 @@
+package arp.profile;
+
+import arp.exception.BusinessException;
+import arp.exception.OverloadedException;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static arp.exception.FailureReason.INVALID_INPUT;
+
+/**
+ * Niezmienny rejestr profili produkcji. Identyfikatorem jest skrót SHA-256 wartości, więc ten sam profil
+ * wysłany wiele razy jest przechowywany raz, a siatki odwołujące się do niego dostają tę samą tablicę.
+ * Profile nie są usuwane (siatki odwołują się do nich po id), dlatego liczba i długość profili są ograniczone.
+ */
+@Service
+public class ProfileRegistry {
+    public static final int DEFAULT_MAX_PROFILES = 1024;
+    public static final int DEFAULT_MAX_VALUES = 10 * 8784;
+    // profile nie są usuwane, więc miejsca nie przybędzie szybko
+    private static final long FULL_REGISTRY_RETRY_AFTER_SECONDS = 3600;
+
+    private final Map<String, RegisteredProfile> profiles = new ConcurrentHashMap<>();
+    private final int maxProfiles;
+    private final int maxValues;
+
+    public ProfileRegistry() {
+        this(DEFAULT_MAX_PROFILES, DEFAULT_MAX_VALUES);
+    }
+
+    public ProfileRegistry(int maxProfiles, int maxValues) {
+        this.maxProfiles = maxProfiles;
+        this.maxValues = maxValues;
+    }
+
+    public RegisteredProfile register(double[] values) {
+        if (values == null || values.length == 0) {
+            throw new BusinessException("Profile must contain at least one value", INVALID_INPUT);
+        }
+        checkLength(values.length);
+        for (double value : values) {
+            if (!Double.isFinite(value) || value < 0) {
+                throw new BusinessException("Profile values must be finite and not negative", INVALID_INPUT);
+            }
+        }
+        double[] copy = values.clone();
+        String id = hash(copy);
+        RegisteredProfile existing = profiles.get(id);
+        if (existing != null) {
+            return existing;
+        }
+        synchronized (profiles) {
+            existing = profiles.get(id);
+            if (existing != null) {
+                return existing;
+            }
+            if (profiles.size() >= maxProfiles) {
+                throw new OverloadedException("Profile registry is full", FULL_REGISTRY_RETRY_AFTER_SECONDS);
+            }
+            RegisteredProfile profile = new RegisteredProfile(id, copy);
+            profiles.put(id, profile);
+            return profile;
+        }
+    }
+
+    /**
+     * Wartości float w kolejności big-endian zakodowane w base64 - 4 bajty na godzinę zamiast kilkunastu w JSON.
+     */
+    public RegisteredProfile registerBase64(String base64) {
+        // 4 znaki base64 na każde 3 bajty - sprawdzamy przed dekodowaniem
+        checkLength(base64.length() / 4 * 3 / Float.BYTES);
+        byte[] bytes;
+        try {
+            bytes = Base64.getDecoder().decode(base64);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Profile is not valid base64", INVALID_INPUT);
+        }
+        if (bytes.length % Float.BYTES != 0) {
+            throw new BusinessException("Profile length is not a multiple of float size", INVALID_INPUT);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.BIG_ENDIAN);
+        double[] values = new double[bytes.length / Float.BYTES];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = buffer.getFloat();
+        }
+        return register(values);
+    }
+
+    /**
+     * Profil w formacie binarnym ProfileFormat.
+     */
+    public RegisteredProfile registerBinary(byte[] bytes) {
+        checkLength((bytes.length - ProfileFormat.HEADER_SIZE) / Double.BYTES);
+        WeatherProfile profile;
+        try {
+            profile = ProfileFormat.decode("upload", ByteBuffer.wrap(bytes));
+        } catch (IllegalStateException e) {
+            throw new BusinessException(e.getMessage(), INVALID_INPUT);
+        }
+        return register(profile.toArray());
+    }
+
+    public RegisteredProfile get(String id) {
+        RegisteredProfile profile = profiles.get(id);
+        if (profile == null) {
+            throw new BusinessException("Unknown profile " + id, INVALID_INPUT);
+        }
+        return profile;
+    }
+
+    public int size() {
+        return profiles.size();
+    }
+
+    private void checkLength(int length) {
+        if (length > maxValues) {
+            throw new BusinessException("Profile must not contain more than " + maxValues + " values", INVALID_INPUT);
+        }
+    }
+
+    private static String hash(double[] values) {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * Double.BYTES);
+        buffer.asDoubleBuffer().put(values);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(buffer.array());
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package arp.profile;
+
+/**
+ * Profil z rejestru wraz z danymi pochodnymi liczonymi raz przy rejestracji. Tablica wartości jest
+ * współdzielona przez wszystkie symulacje, które go używają - nie wolno jej modyfikować.
+ */
+public final class RegisteredProfile {
+    private final String id;
+    private final double[] values;
+    private final double sum;
+    private final double min;
+    private final double max;
+
+    RegisteredProfile(String id, double[] values) {
+        this.id = id;
+        this.values = values;
+        double sum = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < values.length; i++) {
+            sum += values[i];
+            min = Math.min(min, values[i]);
+            max = Math.max(max, values[i]);
+        }
+        this.sum = sum;
+        this.min = min;
+        this.max = max;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public double[] getValues() {
+        return values;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Średnia wartość profilu, czyli współczynnik wykorzystania mocy źródła o mocy 1.
+     */
+    public double getCapacityFactor() {
+        return sum / values.length;
+    }
+}
@@ -0,0 +1,42 @@
+package arp.profile;
+
+import java.nio.DoubleBuffer;
+
+/**
+ * Niezmienny godzinowy profil pogodowy oparty na buforze tylko do odczytu - zwykle zmapowanym z pliku,
+ * więc wiele profili (np. regionalnych) nie kopiuje danych na stertę, dopóki ktoś nie poprosi o tablicę.
+ */
+public final class WeatherProfile {
+    private final String name;
+    private final DoubleBuffer values;
+
+    WeatherProfile(String name, DoubleBuffer values) {
+        this.name = name;
+        this.values = values.asReadOnlyBuffer();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int size() {
+        return values.limit();
+    }
+
+    public double get(int hour) {
+        return values.get(hour);
+    }
+
+    /**
+     * Niezależny widok na dane - pozycja zwróconego bufora nie wpływa na profil.
+     */
+    public DoubleBuffer getValues() {
+        return values.duplicate();
+    }
+
+    public double[] toArray() {
+        double[] result = new double[size()];
+        values.duplicate().get(result);
+        return result;
+    }
+}
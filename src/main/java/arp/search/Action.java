@@ -7,6 +7,7 @@ public class Action {
     private ActionType type;
     private double actionCost;
     private long objectId;
+    private String catalogItem;
 
     @Override
     public String toString() {
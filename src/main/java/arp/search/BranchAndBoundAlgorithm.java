@@ -0,0 +1,118 @@
+package arp.search;
+
+import arp.dto.GridCosts;
+import arp.exception.BusinessException;
+import arp.service.CancellationToken;
+import arp.service.Data;
+import arp.service.Utils;
+
+import java.util.*;
+
+import static arp.exception.FailureReason.SOLUTION_NOT_FOUND;
+
+/**
+ * Przeszukiwanie w głąb z zachłanną kolejnością dzieci (największy spadek braku wodoru
+ * na jednostkę kosztu) i odcinaniem gałęzi nie tańszych od incumbenta.
+ * Głębokość ogranicza limit kosztu podwajany do chwili znalezienia rozwiązania w limicie -
+ * wtedy całe drzewo tańsze od incumbenta jest przejrzane, co dowodzi optymalności.
+ */
+@lombok.Data
+public class BranchAndBoundAlgorithm implements SearchStrategy {
+    private Data data;
+    private NextStatesFactory nextStatesFactory;
+    private Set<String> visitedStates;
+    private Map<String, Double> shortfalls;
+    private Incumbent incumbent;
+    private CancellationToken cancellationToken;
+    private Double finalLowerBound;
+
+    public BranchAndBoundAlgorithm(Data data) {
+        this.data = data;
+        this.nextStatesFactory = new NextStatesFactory(data);
+        this.visitedStates = new HashSet<>();
+        this.shortfalls = new HashMap<>();
+        this.incumbent = new Incumbent();
+        this.cancellationToken = new CancellationToken();
+    }
+
+    @Override
+    public State calculate() {
+        State initialState = new State(data);
+        if (initialState.getMetrics().isGood()) {
+            incumbent.offer(initialState, SearchStrategyType.GREEDY_BRANCH_AND_BOUND);
+            finalLowerBound = incumbent.getTotalCost();
+            return incumbent.getState();
+        }
+
+        double costLimit = getMinUnitCost();
+        while (true) {
+            search(initialState, costLimit);
+            if (incumbent.getTotalCost() <= costLimit) {
+                finalLowerBound = incumbent.getTotalCost();
+                return incumbent.getState();
+            }
+            costLimit *= 2;
+        }
+    }
+
+    private void search(State initialState, double costLimit) {
+        int hoursOfSimulation = Utils.getHoursOfSimulation(data);
+        visitedStates.clear();
+        visitedStates.add(initialState.toString());
+
+        Deque<Candidate> stack = new ArrayDeque<>();
+        stack.push(new Candidate(initialState, initialState.getMetrics().calculateShortfall(hoursOfSimulation), 0));
+        while (!stack.isEmpty()) {
+            cancellationToken.throwIfCancelled();
+            Candidate candidate = stack.pop();
+            if (candidate.state.getMetrics().getTotalCost() >= incumbent.getTotalCost())
+                continue;
+
+            List<Candidate> children = new ArrayList<>();
+            for (State nextState : nextStatesFactory.getNextStates(candidate.state)) {
+                double cost = nextState.getMetrics().getTotalCost();
+                if (cost > costLimit || cost >= incumbent.getTotalCost() || visitedStates.contains(nextState.toString()))
+                    continue;
+                visitedStates.add(nextState.toString());
+                Double shortfall = shortfalls.get(nextState.toString());
+                if (shortfall == null) {
+                    nextState.updateMetrics(data);
+                    if (nextState.getMetrics().isGood()) {
+                        // potomkowie poprawnego stanu są tylko drożsi
+                        incumbent.offer(nextState, SearchStrategyType.GREEDY_BRANCH_AND_BOUND);
+                        continue;
+                    }
+                    shortfall = nextState.getMetrics().calculateShortfall(hoursOfSimulation);
+                    nextState.getMetrics().setYearResult(null);
+                    shortfalls.put(nextState.toString(), shortfall);
+                }
+                double actionCost = Math.max(nextState.getAction().getActionCost(), 1e-9);
+                children.add(new Candidate(nextState, shortfall, (candidate.shortfall - shortfall) / actionCost));
+            }
+            // na szczycie stosu ląduje dziecko z najlepszym stosunkiem poprawy do kosztu
+            children.sort(Comparator.comparingDouble(c -> c.score));
+            children.forEach(stack::push);
+        }
+    }
+
+    private double getMinUnitCost() {
+        GridCosts costs = data.getGridCosts();
+        return Arrays.stream(new double[]{costs.getPvCost(), costs.getWindCost(), costs.getStoragePowerCost(),
+                        costs.getElectrolyzerCost(), costs.getStorageHydrogenCost()})
+                .filter(cost -> cost > 0)
+                .min()
+                .orElseThrow(() -> new BusinessException("BranchAndBoundAlgorithm needs positive grid costs", SOLUTION_NOT_FOUND));
+    }
+
+    private static class Candidate {
+        private final State state;
+        private final double shortfall;
+        private final double score;
+
+        private Candidate(State state, double shortfall, double score) {
+            this.state = state;
+            this.shortfall = shortfall;
+            this.score = score;
+        }
+    }
+}
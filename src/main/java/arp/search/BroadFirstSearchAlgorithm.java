@@ -1,263 +1,203 @@
 package arp.search;
 
-import arp.dto.grid.Accumulator;
-import arp.dto.grid.Electrolyzer;
-import arp.dto.grid.EnergySource;
-import arp.dto.grid.Storage;
-import arp.enums.EnergySourceType;
 import arp.exception.BusinessException;
+import arp.service.CancellationToken;
 import arp.service.Data;
+import arp.service.Utils;
 
 import java.util.*;
 
 import static arp.exception.FailureReason.SOLUTION_NOT_FOUND;
-import static arp.service.Utils.createTableOfValue;
 
+/**
+ * Przeszukiwanie po rosnącym koszcie powiększonym o dolne ograniczenie z CapexLowerBound (A*).
+ * Ograniczenie nie przekracza kosztu potrzebnego do poprawnej siatki, więc pierwszy poprawny stan jest optymalny.
+ * Przy równym koszcie najpierw symulujemy stany, które model zastępczy uznaje za bliższe poprawnych,
+ * a te uznane za niepoprawne odkładamy - są symulowane zanim przejdziemy do droższych.
+ */
 @lombok.Data
-public class BroadFirstSearchAlgorithm {
+public class BroadFirstSearchAlgorithm implements SearchStrategy {
+    private static final Comparator<State> COST_THEN_PREDICTION = Comparator
+            .comparingDouble((State s) -> s.getMetrics().getEstimatedTotalCost())
+            .thenComparing(Comparator.comparingDouble((State s) -> s.getMetrics().getPredictedHydrogenLevel()).reversed());
+
     private Data data;
+    private State initialState;
+    private NextStatesFactory nextStatesFactory;
     private PriorityQueue<State> priorityQueue;
+    private PriorityQueue<State> deferredStates;
     private Set<String> visitedStates;
+    private HydrogenLevelSurrogate surrogate;
+    private boolean surrogateEnabled = true;
+    private CapexLowerBound lowerBound;
+    private boolean lowerBoundEnabled = true;
+    private Double finalLowerBound;
+    private Incumbent incumbent;
+    private CancellationToken cancellationToken;
+    private SearchProgress progress;
 
     public BroadFirstSearchAlgorithm(Data data) {
         this.data = data;
-        this.priorityQueue = new PriorityQueue<>();
+        this.nextStatesFactory = new NextStatesFactory(data);
+        this.priorityQueue = new PriorityQueue<>(COST_THEN_PREDICTION);
+        this.deferredStates = new PriorityQueue<>(COST_THEN_PREDICTION);
         this.visitedStates = new HashSet<>();
+        this.surrogate = new HydrogenLevelSurrogate();
+        this.incumbent = new Incumbent();
+        this.cancellationToken = new CancellationToken();
+        this.progress = new SearchProgress();
     }
 
+    @Override
     public State calculate() {
-        State initialState = new State(this.data);
+        initialState = new State(this.data);
         priorityQueue.add(initialState);
         visitedStates.add(initialState.toString());
-        while (!priorityQueue.isEmpty()) {
-            State state = priorityQueue.poll();
-            state.updateMetrics(data);
-            if (state.getMetrics().isGood())
-                return state;
+        prepareLevel();
+        return search();
+    }
+
+    /**
+     * Kontynuuje przeszukiwanie tych samych siatek przy nie mniejszym zużyciu. Rozwinięte stany były niepoprawne
+     * i przy większym zużyciu nadal są, więc wystarczy ich front: kolejka, odłożone stany i kopia poprzedniego
+     * rozwiązania, która zostanie zasymulowana jeszcze raz. Incumbent, model zastępczy i ograniczenie są liczone od nowa.
+     * Przewidywania modelu zmieniają klucz kolejki, więc kolejka jest budowana od nowa.
+     */
+    public State resume(Data data) {
+        this.data = data;
+        this.nextStatesFactory = new NextStatesFactory(data);
+        this.incumbent = new Incumbent();
+        this.surrogate = new HydrogenLevelSurrogate();
+        this.lowerBound = null;
+        List<State> frontier = new ArrayList<>(priorityQueue);
+        frontier.addAll(deferredStates);
+        priorityQueue.clear();
+        deferredStates.clear();
+        frontier.forEach(state -> state.getMetrics().setPredictedHydrogenLevel(0));
+        priorityQueue.addAll(frontier);
+        prepareLevel();
+        return search();
+    }
+
+    private void prepareLevel() {
+        // ograniczenie liczone z cen jednostkowych GridCosts nie obowiązuje przy cenach z katalogu
+        if (!lowerBoundEnabled || nextStatesFactory.hasCatalog()) {
+            return;
+        }
+        if (lowerBound == null) {
+            lowerBound = new CapexLowerBound(data);
+        }
+        List<State> frontier = new ArrayList<>(priorityQueue);
+        priorityQueue.clear();
+        frontier.forEach(state -> state.getMetrics().setLowerBound(lowerBound.calculate(state)));
+        priorityQueue.addAll(frontier);
+        seedIncumbent(initialState);
+    }
+
+    private State search() {
+        finalLowerBound = null;
+        while (!priorityQueue.isEmpty() || !deferredStates.isEmpty()) {
+            cancellationToken.throwIfCancelled();
+            boolean deferred = isDeferredStateFirst();
+            State state = deferred ? deferredStates.poll() : priorityQueue.poll();
+            // kolejki są posortowane po szacowanym koszcie, więc nic tańszego od incumbenta już nie zostało
+            if (state.getMetrics().getEstimatedTotalCost() >= incumbent.getTotalCost()) {
+                (deferred ? deferredStates : priorityQueue).add(state);
+                return finish();
+            }
+            if (!deferred && surrogateEnabled && state != initialState && surrogate.isLikelyInfeasible(state)) {
+                deferredStates.add(state);
+                continue;
+            }
+            evaluate(state);
+            progress.stateExpanded(priorityQueue.size() + deferredStates.size());
+            if (state.getMetrics().isGood()) {
+                incumbent.offer(state, SearchStrategyType.BEST_FIRST);
+                // poprawny stan nie jest rozwijany - jego kopia zostaje w kolejce dla resume,
+                // żeby resume nie nadpisało metryk zwróconego stanu
+                priorityQueue.add(state.copy());
+                return finish();
+            }
             priorityQueue.addAll(processState(state));
         }
         throw new BusinessException("BroadSearchAlgorithm has no state to process", SOLUTION_NOT_FOUND);
     }
 
-    private List<State> processState(State state) {
-        List<State> result = new ArrayList<>();
-
-        List<State> nextStates = getNextStates(state);
-        for (State nextState : nextStates) {
-            if (!visitedStates.contains(nextState.toString())) {
-                visitedStates.add(nextState.toString());
-
-                result.add(nextState);
+    /**
+     * Żadna poprawna siatka nie jest tańsza od incumbenta ani od najniższego szacunku w kolejkach. Po dowodzie optymalności
+     * szacunki w kolejkach nie są niższe od incumbenta, więc ograniczenie jest równe kosztowi wyniku.
+     */
+    private State finish() {
+        double bound = incumbent.getTotalCost();
+        for (PriorityQueue<State> queue : Arrays.asList(priorityQueue, deferredStates)) {
+            if (!queue.isEmpty()) {
+                bound = Math.min(bound, queue.peek().getMetrics().getEstimatedTotalCost());
             }
         }
-        return result;
+        finalLowerBound = bound;
+        return incumbent.getState();
     }
 
-    private List<State> getNextStates(State state) {
-        List<State> results = new ArrayList<>();
-
-        for (Storage storage : state.getStorages()) {
-            updateStorage(results, state, storage.getId());
-
-            for (Electrolyzer electrolyzer : storage.getElectrolyzers()) {
-                updateElectrolizer(results, state, electrolyzer.getId());
-                updateAccumulator(results, state, electrolyzer.getId());
-
-                for (EnergySource source : electrolyzer.getSources()) {
-                    if (EnergySourceType.WIND.equals(source.getType())) {
-                        updateWindSource(results, state, electrolyzer.getId(), source.getId());
-                    } else {
-                        updatePvSource(results, state, electrolyzer.getId(), source.getId());
-                    }
-                }
-                addWindSource(results, state, electrolyzer.getId());
-                addPvSource(results, state, electrolyzer.getId());
+    /**
+     * Odłożony stan idzie pierwszy, gdy w kolejce głównej zostały już tylko droższe stany.
+     */
+    private boolean isDeferredStateFirst() {
+        if (deferredStates.isEmpty()) {
+            return false;
+        }
+        return priorityQueue.isEmpty()
+                || deferredStates.peek().getMetrics().getEstimatedTotalCost() < priorityQueue.peek().getMetrics().getEstimatedTotalCost();
+    }
+
+    /**
+     * Zaokrąglony projekt z relaksacji daje incumbenta od razu, więc droższe gałęzie są obcinane od początku.
+     * Gdy zaokrąglenie nie wystarcza, próbujemy projektu trochę powiększonego.
+     */
+    private void seedIncumbent(State initialState) {
+        double[] design = lowerBound.getContinuousDesign();
+        for (double scale : new double[]{1.0, 1.1, 1.25, 1.5}) {
+            State designState = nextStatesFactory.buildDesignState(initialState,
+                    scale * design[0], scale * design[1], scale * design[2]);
+            if (designState == null) {
+                return;
+            }
+            evaluate(designState);
+            if (designState.getMetrics().isGood()) {
+                incumbent.offer(designState, SearchStrategyType.BEST_FIRST);
+                return;
             }
-            addElectrolizer(results, state, storage.getId());
         }
-        addStorage(results, state);
-
-        return results;
-    }
-
-
-    /** =-=-=-=-= STORAGE =-=-=-=-= */
-
-    private void addStorage(List<State> results, State state) {
-        long newId = state.nextStorageId();
-
-        Action action = createStorageAction(newId);
-
-        State nextState = state.buildNextState(action);
-        Storage storage = new Storage();
-        storage.setId(newId);
-        storage.setMaxCapacity(1.0);
-
-        nextState.getStorages().add(storage);
-
-        results.add(nextState);
-    }
-
-    private void updateStorage(List<State> results, State state, Long id) {
-        Action action = createStorageAction(id);
-
-
-        State nextState = state.buildNextState(action);
-        Storage storage = nextState.findStorageById(id);
-        storage.setMaxCapacity(storage.getMaxCapacity() + 1.0);
-
-        results.add(nextState);
-    }
-
-    private Action createStorageAction(long newId) {
-        Action action = new Action();
-        action.setType(ActionType.STORAGE);
-        action.setObjectId(newId);
-        action.setActionCost(this.data.getGridCosts().getStorageHydrogenCost());
-        return action;
-    }
-
-    /** =-=-=-=-= ELECTROLYZER =-=-=-=-= */
-
-    private void addElectrolizer(List<State> results, State state, Long parentId) {
-        long newId = state.nextElectrolyzerId();
-
-        Action action = createElectrolizerAction(newId);
-        State nextState = state.buildNextState(action);
-
-        Electrolyzer electrolyzer = new Electrolyzer();
-        electrolyzer.setId(newId);
-        electrolyzer.setAccumulator(new Accumulator());
-        electrolyzer.setEfficiency(data.getGridConstants().getElectrolyzerEfficiency());
-        electrolyzer.setMaxPower(1.0);
-
-        Storage storage = nextState.findStorageById(parentId);
-        storage.getElectrolyzers().add(electrolyzer);
-
-        results.add(nextState);
-    }
-
-    private void updateElectrolizer(List<State> results, State state, Long id) {
-        Action action = createElectrolizerAction(id);
-        State nextState = state.buildNextState(action);
-        Electrolyzer electrolyzer = nextState.findElectrolyzerById(id);
-        electrolyzer.setMaxPower(electrolyzer.getMaxPower() + 1.0);
-
-        results.add(nextState);
-    }
-
-    private Action createElectrolizerAction(long newId) {
-        Action action = new Action();
-        action.setType(ActionType.ELECTROLYZER);
-        action.setObjectId(newId);
-        action.setActionCost(this.data.getGridCosts().getElectrolyzerCost());
-        return action;
-    }
-
-    /** =-=-=-=-= ACCUMULATOR =-=-=-=-= */
-
-    private void updateAccumulator(List<State> results, State state, Long id) {
-        Action action = createAccumulatorAction(id);
-
-        State nextState = state.buildNextState(action);
-        Accumulator accumulator = nextState.findAccumulatorById(id);
-        accumulator.setAccumulatorMaxSize(accumulator.getAccumulatorMaxSize() + 1.0);
-
-        results.add(nextState);
-    }
-
-    private Action createAccumulatorAction(Long id) {
-        Action action = new Action();
-        action.setType(ActionType.ACCUMULATOR);
-        action.setObjectId(id);
-        action.setActionCost(this.data.getGridCosts().getStoragePowerCost());
-        return action;
-    }
-
-    /** =-=-=-=-= SOURCE WIND =-=-=-=-= */
-
-    private void addWindSource(List<State> results, State state, Long parentId) {
-        long newId = state.nextEnergySourceId();
-        Action action = createWindAction(newId);
-
-        State nextState = state.buildNextState(action);
-        EnergySource energySource = new EnergySource();
-        energySource.setId(newId);
-        energySource.setType(EnergySourceType.WIND);
-        energySource.setMaxPower(1.0);
-        energySource.setDistance(0.0);
-
-        Electrolyzer electrolyzer = nextState.findElectrolyzerById(parentId);
-        electrolyzer.getSources().add(energySource);
-        electrolyzer.recalculateSummaryEnergyProduction(data);
-
-        results.add(nextState);
-    }
-
-    private void updateWindSource(List<State> results, State state, Long parentId, Long id) {
-        Action action = createWindAction(id);
-
-        State nextState = state.buildNextState(action);
-        EnergySource energySource = nextState.findEnergySourceById(id);
-        energySource.setMaxPower(energySource.getMaxPower() + 1.0);
-
-        Electrolyzer electrolyzer = nextState.findElectrolyzerById(parentId);
-        electrolyzer.getSources().add(energySource);
-        electrolyzer.recalculateSummaryEnergyProduction(data);
-
-        results.add(nextState);
-    }
-
-
-    private Action createWindAction(Long id) {
-        Action action = new Action();
-        action.setType(ActionType.WIND);
-        action.setObjectId(id);
-        action.setActionCost(this.data.getGridCosts().getWindCost());
-        return action;
     }
 
-    /** =-=-=-=-= SOURCE PV =-=-=-=-= */
-
-    private void addPvSource(List<State> results, State state, Long parentId) {
-        long newId = state.nextEnergySourceId();
-        Action action = createPvAction(newId);
-
-        State nextState = state.buildNextState(action);
-        EnergySource energySource = new EnergySource();
-        energySource.setId(newId);
-        energySource.setType(EnergySourceType.PV);
-        energySource.setMaxPower(1.0);
-        energySource.setDistance(0.0);
-
-        Electrolyzer electrolyzer = nextState.findElectrolyzerById(parentId);
-        electrolyzer.getSources().add(energySource);
-        electrolyzer.recalculateSummaryEnergyProduction(data);
-
-        results.add(nextState);
+    private void evaluate(State state) {
+        double stateLowerBound = state.getMetrics().getLowerBound();
+        state.updateMetrics(data);
+        state.getMetrics().setLowerBound(stateLowerBound);
+        if (surrogateEnabled) {
+            surrogate.update(state, Utils.getHoursOfSimulation(data));
+        }
+        if (!state.getMetrics().isGood()) {
+            // wyniki godzinowe stanów niepoprawnych nie będą już potrzebne
+            state.getMetrics().setYearResult(null);
+        }
     }
 
-    private void updatePvSource(List<State> results, State state, Long parentId, Long id) {
-        Action action = createPvAction(id);
-
-        State nextState = state.buildNextState(action);
-        EnergySource energySource = nextState.findEnergySourceById(id);
-        energySource.setMaxPower(energySource.getMaxPower() + 1.0);
-
-        Electrolyzer electrolyzer = nextState.findElectrolyzerById(parentId);
-        electrolyzer.getSources().add(energySource);
-        electrolyzer.recalculateSummaryEnergyProduction(data);
-
-        results.add(nextState);
-    }
+    private List<State> processState(State state) {
+        List<State> result = new ArrayList<>();
 
-    private Action createPvAction(Long id) {
-        Action action = new Action();
-        action.setType(ActionType.PV);
-        action.setObjectId(id);
-        action.setActionCost(this.data.getGridCosts().getPvCost());
-        return action;
+        List<State> nextStates = nextStatesFactory.getNextStates(state);
+        for (State nextState : nextStates) {
+            if (!visitedStates.contains(nextState.toString())) {
+                visitedStates.add(nextState.toString());
+                if (lowerBound != null) {
+                    nextState.getMetrics().setLowerBound(lowerBound.calculate(nextState));
+                }
+                if (surrogateEnabled && surrogate.isWarm()) {
+                    nextState.getMetrics().setPredictedHydrogenLevel(surrogate.predict(nextState));
+                }
+                result.add(nextState);
+            }
+        }
+        return result;
     }
-
-
 }
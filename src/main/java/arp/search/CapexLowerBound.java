@@ -0,0 +1,405 @@
+package arp.search;
+
+import arp.dto.GridCosts;
+import arp.dto.grid.Electrolyzer;
+import arp.dto.grid.EnergySource;
+import arp.dto.grid.Storage;
+import arp.enums.EnergySourceType;
+import arp.service.Data;
+import arp.service.Utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dolne ograniczenie kosztu z relaksacji ciągłej. Wszystkie elektrolizery, źródła i magazyny łączymy w jeden
+ * (z najlepszą sprawnością), magazyn i akumulator są nieograniczone, pomijamy minPower i straty magazynu.
+ * Wtedy siatka jest poprawna tylko jeśli dla każdej pary godzin s <= t:
+ * energia wyprodukowana przed s + moc elektrolizerów * (t+1-s) >= zużycie do t / sprawność.
+ * Zostaje program liniowy z trzema zmiennymi (przyrost elektrolizerów, wiatru i PV) i O(H^2) ograniczeniami,
+ * rozwiązywany generowaniem kolumn: najbardziej naruszoną parę znajduje jedno przejście po godzinach z minimum prefiksowym.
+ * Każde rozwiązanie dualne daje cięcie LB(delta) = V - pi * delta, prawdziwe dla każdego stanu powstałego przez dodawanie.
+ * Pomijamy zaokrąglanie poziomu akumulatora do 0.001 w symulacji.
+ */
+public class CapexLowerBound {
+    private static final int MAX_ITERATIONS = 200;
+    private static final int MAX_COLUMNS = 24;
+    private static final int COLUMNS_PER_ITERATION = 4;
+
+    private final double[] costs;
+    private final double initialElectrolyzerPower;
+    private final double initialWindPower;
+    private final double initialPvPower;
+    private final List<Cut> cuts = new ArrayList<>();
+    private double[] continuousDesign = new double[3];
+    private boolean converged;
+
+    private int steps;
+    private double[] requiredEnergy;
+    private double[] existingEnergy;
+    private double[] windEnergy;
+    private double[] pvEnergy;
+
+    public CapexLowerBound(Data data) {
+        GridCosts gridCosts = data.getGridCosts();
+        this.costs = new double[]{gridCosts.getElectrolyzerCost(), gridCosts.getWindCost(), gridCosts.getPvCost()};
+        double[] capacities = getCapacities(data.getStorages());
+        this.initialElectrolyzerPower = capacities[0];
+        this.initialWindPower = capacities[1];
+        this.initialPvPower = capacities[2];
+        if (prepare(data)) {
+            solve();
+        }
+    }
+
+    /**
+     * Dolne ograniczenie kosztu, który trzeba jeszcze ponieść, żeby z tego stanu dojść do poprawnej siatki.
+     */
+    public double calculate(State state) {
+        double[] capacities = getCapacities(state.getStorages());
+        double[] delta = new double[]{capacities[0] - initialElectrolyzerPower, capacities[1] - initialWindPower,
+                capacities[2] - initialPvPower};
+        double bound = 0;
+        for (Cut cut : cuts) {
+            bound = Math.max(bound, cut.value - dot(cut.prices, delta));
+        }
+        return bound;
+    }
+
+    /**
+     * Dolne ograniczenie kosztu inwestycji dla siatki wejściowej.
+     */
+    public double getRootBound() {
+        double bound = 0;
+        for (Cut cut : cuts) {
+            bound = Math.max(bound, cut.value);
+        }
+        return bound;
+    }
+
+    /**
+     * Przyrosty mocy elektrolizerów, wiatru i PV z rozwiązania relaksacji.
+     */
+    public double[] getContinuousDesign() {
+        return continuousDesign.clone();
+    }
+
+    public boolean isConverged() {
+        return converged;
+    }
+
+    private boolean prepare(Data data) {
+        double efficiency = data.getGridConstants().getElectrolyzerEfficiency();
+        for (Storage storage : data.getStorages()) {
+            for (Electrolyzer electrolyzer : storage.getElectrolyzers()) {
+                efficiency = Math.max(efficiency, electrolyzer.getEfficiency());
+            }
+        }
+        steps = Utils.getHoursOfSimulation(data) - 1;
+        if (efficiency <= 0 || steps <= 0) {
+            return false;
+        }
+
+        double transmission = 1.0 - data.getGridConstants().getTransmissionLoss();
+        EnergySource wind = new EnergySource(null, EnergySourceType.WIND, 1.0, 0.0);
+        EnergySource pv = new EnergySource(null, EnergySourceType.PV, 1.0, 0.0);
+        double[] windProfile = wind.getDailyProduction(data);
+        double[] pvProfile = pv.getDailyProduction(data);
+        double[] consumption = data.getVehiclesConsumption();
+
+        requiredEnergy = new double[steps];
+        existingEnergy = new double[steps + 1];
+        windEnergy = new double[steps + 1];
+        pvEnergy = new double[steps + 1];
+        double required = 0;
+        for (int hour = 0; hour < steps; hour++) {
+            required += consumption[hour] / efficiency;
+            requiredEnergy[hour] = required;
+            double existing = 0;
+            for (Storage storage : data.getStorages()) {
+                for (Electrolyzer electrolyzer : storage.getElectrolyzers()) {
+                    existing += electrolyzer.getSummaryEnergyProduction(data, hour);
+                }
+            }
+            existingEnergy[hour + 1] = existingEnergy[hour] + existing;
+            windEnergy[hour + 1] = windEnergy[hour] + (windProfile != null ? windProfile[hour % windProfile.length] * transmission : 0);
+            pvEnergy[hour + 1] = pvEnergy[hour] + (pvProfile != null ? pvProfile[hour % pvProfile.length] * transmission : 0);
+        }
+        return true;
+    }
+
+    private void solve() {
+        double tolerance = 1e-9 * (1 + requiredEnergy[steps - 1]);
+        List<Column> columns = new ArrayList<>();
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            Basis basis = solveRestrictedDual(columns);
+            addCut(basis);
+            continuousDesign = basis.primal;
+
+            List<Column> violated = findViolatedColumns(basis.primal, tolerance);
+            if (violated.isEmpty()) {
+                converged = true;
+                return;
+            }
+            for (Column column : violated) {
+                if (column.isEmpty()) {
+                    // tego zużycia nie pokryje żadna siatka - nie ograniczamy przeszukiwania
+                    cuts.clear();
+                    return;
+                }
+            }
+            // zostawiamy kolumny z bazy i dokładamy nowe
+            List<Column> next = new ArrayList<>(basis.columns);
+            for (Column column : violated) {
+                if (next.size() < MAX_COLUMNS && !next.contains(column)) {
+                    next.add(column);
+                }
+            }
+            columns = next;
+        }
+    }
+
+    /**
+     * Dla każdej godziny t najciaśniejsza para (s, t): min po s <= t+1 z
+     * existing(s) + E*(t+1-s) + W*wind(s) + P*pv(s), liczone minimum prefiksowym.
+     */
+    private List<Column> findViolatedColumns(double[] design, double tolerance) {
+        double power = initialElectrolyzerPower + design[0];
+        double[] violations = new double[steps];
+        int[] arguments = new int[steps];
+        double prefixMin = Double.POSITIVE_INFINITY;
+        int prefixArg = 0;
+        for (int t = 0; t < steps; t++) {
+            for (int s = t == 0 ? 0 : t + 1; s <= t + 1; s++) {
+                double value = existingEnergy[s] + design[1] * windEnergy[s] + design[2] * pvEnergy[s] - power * s;
+                if (value < prefixMin) {
+                    prefixMin = value;
+                    prefixArg = s;
+                }
+            }
+            violations[t] = requiredEnergy[t] - (prefixMin + power * (t + 1));
+            arguments[t] = prefixArg;
+        }
+
+        List<Column> result = new ArrayList<>();
+        boolean[] taken = new boolean[steps];
+        for (int k = 0; k < COLUMNS_PER_ITERATION; k++) {
+            int worst = -1;
+            for (int t = 0; t < steps; t++) {
+                if (!taken[t] && violations[t] > tolerance && (worst < 0 || violations[t] > violations[worst])) {
+                    worst = t;
+                }
+            }
+            if (worst < 0) {
+                break;
+            }
+            taken[worst] = true;
+            result.add(createColumn(arguments[worst], worst));
+        }
+        return result;
+    }
+
+    private Column createColumn(int s, int t) {
+        double[] coefficients = new double[]{t + 1 - s, windEnergy[s], pvEnergy[s]};
+        double value = requiredEnergy[t] - existingEnergy[s] - initialElectrolyzerPower * (t + 1 - s);
+        return new Column(s, t, coefficients, value);
+    }
+
+    /**
+     * max sum(lambda * v) przy sum(lambda * g) <= koszty, lambda >= 0. Przy trzech wierszach wystarczy
+     * przejrzeć wszystkie bazy złożone z kolumn i zmiennych swobodnych.
+     */
+    private Basis solveRestrictedDual(List<Column> columns) {
+        int size = columns.size() + 3;
+        Basis best = new Basis(new ArrayList<>(), new double[3], new double[3], 0);
+        for (int a = 0; a < size; a++) {
+            for (int b = a + 1; b < size; b++) {
+                for (int c = b + 1; c < size; c++) {
+                    Basis basis = evaluateBasis(columns, new int[]{a, b, c});
+                    if (basis != null && basis.objective > best.objective + 1e-12) {
+                        best = basis;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private Basis evaluateBasis(List<Column> columns, int[] indexes) {
+        double[][] matrix = new double[3][3];
+        double[] values = new double[3];
+        for (int j = 0; j < 3; j++) {
+            int index = indexes[j];
+            if (index < columns.size()) {
+                Column column = columns.get(index);
+                for (int i = 0; i < 3; i++) {
+                    matrix[i][j] = column.coefficients[i];
+                }
+                values[j] = column.value;
+            } else {
+                matrix[index - columns.size()][j] = 1.0;
+            }
+        }
+        double[] lambda = solve3(matrix, costs);
+        if (lambda == null) {
+            return null;
+        }
+        double objective = 0;
+        List<Column> basicColumns = new ArrayList<>();
+        double[] prices = new double[3];
+        for (int j = 0; j < 3; j++) {
+            if (lambda[j] < -1e-12) {
+                return null;
+            }
+            if (indexes[j] < columns.size()) {
+                Column column = columns.get(indexes[j]);
+                objective += lambda[j] * column.value;
+                basicColumns.add(column);
+                for (int i = 0; i < 3; i++) {
+                    prices[i] += Math.max(lambda[j], 0) * column.coefficients[i];
+                }
+            }
+        }
+        // rozwiązanie prymalne: kolumny bazowe są napięte, zmienne z bazowymi luzami są zerowe
+        double[] primal = solve3(transpose(matrix), values);
+        if (primal == null) {
+            return null;
+        }
+        for (int i = 0; i < 3; i++) {
+            primal[i] = Math.max(primal[i], 0);
+        }
+        return new Basis(basicColumns, prices, primal, objective);
+    }
+
+    private void addCut(Basis basis) {
+        if (basis.objective <= 0) {
+            return;
+        }
+        // skalowanie theta przywraca pi <= koszt mimo błędów numerycznych
+        double theta = 1.0;
+        for (int i = 0; i < 3; i++) {
+            if (basis.prices[i] > costs[i]) {
+                theta = Math.min(theta, costs[i] / basis.prices[i]);
+            }
+        }
+        double[] prices = new double[3];
+        for (int i = 0; i < 3; i++) {
+            prices[i] = theta * basis.prices[i];
+        }
+        Cut cut = new Cut(theta * basis.objective, prices);
+        if (cuts.stream().noneMatch(existing -> existing.dominates(cut))) {
+            cuts.add(cut);
+        }
+    }
+
+    private static double[] getCapacities(List<Storage> storages) {
+        double[] capacities = new double[3];
+        for (Storage storage : storages) {
+            for (Electrolyzer electrolyzer : storage.getElectrolyzers()) {
+                capacities[0] += electrolyzer.getMaxPower();
+                for (EnergySource source : electrolyzer.getSources()) {
+                    capacities[EnergySourceType.WIND.equals(source.getType()) ? 1 : 2] += source.getMaxPower();
+                }
+            }
+        }
+        return capacities;
+    }
+
+    private static double dot(double[] a, double[] b) {
+        return a[0] * b[0] + a[1] * b[1] + a[2] * b[2];
+    }
+
+    private static double[][] transpose(double[][] matrix) {
+        double[][] result = new double[3][3];
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                result[i][j] = matrix[j][i];
+            }
+        }
+        return result;
+    }
+
+    private static double[] solve3(double[][] m, double[] r) {
+        double det = determinant(m);
+        if (Math.abs(det) < 1e-12) {
+            return null;
+        }
+        double[] result = new double[3];
+        for (int k = 0; k < 3; k++) {
+            double[][] replaced = new double[3][];
+            for (int i = 0; i < 3; i++) {
+                replaced[i] = m[i].clone();
+                replaced[i][k] = r[i];
+            }
+            result[k] = determinant(replaced) / det;
+        }
+        return result;
+    }
+
+    private static double determinant(double[][] m) {
+        return m[0][0] * (m[1][1] * m[2][2] - m[1][2] * m[2][1])
+                - m[0][1] * (m[1][0] * m[2][2] - m[1][2] * m[2][0])
+                + m[0][2] * (m[1][0] * m[2][1] - m[1][1] * m[2][0]);
+    }
+
+    private static class Column {
+        private final int s;
+        private final int t;
+        private final double[] coefficients;
+        private final double value;
+
+        private Column(int s, int t, double[] coefficients, double value) {
+            this.s = s;
+            this.t = t;
+            this.coefficients = coefficients;
+            this.value = value;
+        }
+
+        private boolean isEmpty() {
+            return coefficients[0] == 0 && coefficients[1] == 0 && coefficients[2] == 0;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Column)) {
+                return false;
+            }
+            Column other = (Column) o;
+            return s == other.s && t == other.t;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * s + t;
+        }
+    }
+
+    private static class Basis {
+        private final List<Column> columns;
+        private final double[] prices;
+        private final double[] primal;
+        private final double objective;
+
+        private Basis(List<Column> columns, double[] prices, double[] primal, double objective) {
+            this.columns = columns;
+            this.prices = prices;
+            this.primal = primal;
+            this.objective = objective;
+        }
+    }
+
+    private static class Cut {
+        private final double value;
+        private final double[] prices;
+
+        private Cut(double value, double[] prices) {
+            this.value = value;
+            this.prices = prices;
+        }
+
+        private boolean dominates(Cut other) {
+            return value >= other.value && prices[0] <= other.prices[0] && prices[1] <= other.prices[1]
+                    && prices[2] <= other.prices[2];
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package arp.search;
+
+import arp.dto.GridCosts;
+import arp.dto.grid.Electrolyzer;
+import arp.dto.grid.EnergySource;
+import arp.dto.grid.Storage;
+import arp.enums.EnergySourceType;
+import arp.service.Data;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Pamięć rozwiązań /minCapex. Kluczem jest GridFingerprint (siatka, stałe, profile i zużycie bez kosztów),
+ * więc przy zmianie samych cen trafiamy w ten sam wpis. Zapamiętane poprawne siatki są wyceniane nowymi kosztami,
+ * a najtańsza z nich po symulacji zostaje początkowym incumbentem, który od razu ogranicza przeszukiwanie.
+ * Po przekroczeniu rozmiaru usuwany jest najdawniej używany wpis.
+ */
+public class CapexSolutionCache {
+    private static final int MAX_DESIGNS = 8;
+
+    private final Map<String, List<List<Storage>>> designs;
+    private long hits;
+    private long misses;
+
+    public CapexSolutionCache() {
+        this(32);
+    }
+
+    public CapexSolutionCache(int maxEntries) {
+        this.designs = new LinkedHashMap<String, List<List<Storage>>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<List<Storage>>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Zgłasza incumbentowi najtańszą (w nowych cenach) zapamiętaną siatkę, która przechodzi symulację.
+     */
+    public boolean seed(String fingerprint, Data data, Incumbent incumbent, SearchStrategyType source) {
+        List<List<Storage>> cached;
+        synchronized (this) {
+            cached = designs.get(fingerprint);
+            if (cached == null) {
+                misses++;
+                return false;
+            }
+            hits++;
+        }
+        List<List<Storage>> ordered = cached.stream()
+                .sorted(Comparator.comparingDouble(design -> calculateCost(data.getStorages(), design, data.getGridCosts())))
+                .collect(Collectors.toList());
+        for (List<Storage> design : ordered) {
+            Data designData = data.clone(false);
+            designData.setStorages(design.stream().map(Storage::clone).collect(Collectors.toList()));
+            State state = new State(designData);
+            if (state.getMetrics().isGood()) {
+                state.getMetrics().setTotalCost(calculateCost(data.getStorages(), design, data.getGridCosts()));
+                state.updateKey();
+                return incumbent.offer(state, source);
+            }
+        }
+        return false;
+    }
+
+    public void store(String fingerprint, List<State> states) {
+        List<List<Storage>> stored = states.stream()
+                .filter(state -> state.getMetrics().isGood())
+                .sorted(Comparator.comparingDouble(state -> state.getMetrics().getTotalCost()))
+                .limit(MAX_DESIGNS)
+                .map(state -> state.getStorages().stream().map(Storage::clone).collect(Collectors.toList()))
+                .collect(Collectors.toList());
+        if (stored.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            designs.put(fingerprint, stored);
+        }
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Koszt rozbudowy jest liniowy w przyrostach mocy i pojemności, więc wystarczą sumy po całej siatce.
+     */
+    public static double calculateCost(List<Storage> initial, List<Storage> design, GridCosts costs) {
+        double[] before = sumCapacities(initial);
+        double[] after = sumCapacities(design);
+        return (after[0] - before[0]) * costs.getStorageHydrogenCost()
+                + (after[1] - before[1]) * costs.getElectrolyzerCost()
+                + (after[2] - before[2]) * costs.getStoragePowerCost()
+                + (after[3] - before[3]) * costs.getWindCost()
+                + (after[4] - before[4]) * costs.getPvCost();
+    }
+
+    private static double[] sumCapacities(List<Storage> storages) {
+        double[] sums = new double[5];
+        for (Storage storage : storages) {
+            sums[0] += storage.getMaxCapacity();
+            for (Electrolyzer electrolyzer : storage.getElectrolyzers()) {
+                sums[1] += electrolyzer.getMaxPower();
+                sums[2] += electrolyzer.getAccumulator() != null ? electrolyzer.getAccumulator().getAccumulatorMaxSize() : 0.0;
+                for (EnergySource source : electrolyzer.getSources()) {
+                    double power = source.getMaxPower() != null ? source.getMaxPower() : 0.0;
+                    if (EnergySourceType.WIND.equals(source.getType())) {
+                        sums[3] += power;
+                    } else if (EnergySourceType.PV.equals(source.getType())) {
+                        sums[4] += power;
+                    }
+                }
+            }
+        }
+        return sums;
+    }
+}
@@ -0,0 +1,279 @@
+package arp.search;
+
+import arp.dto.grid.Electrolyzer;
+import arp.dto.grid.EnergySource;
+import arp.dto.grid.Storage;
+import arp.exception.BusinessException;
+import arp.service.CancellationToken;
+import arp.service.Data;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static arp.exception.FailureReason.CANCELLED;
+import static arp.exception.FailureReason.SOLUTION_NOT_FOUND;
+
+/**
+ * Dekompozycja siatki z wieloma magazynami. Każdy magazyn dostaje udział w zużyciu pojazdów i jego poddrzewo
+ * jest dobierane osobno (równolegle) przez BroadFirstSearchAlgorithm. Połączona siatka jest symulowana w całości,
+ * bo w CalculateNextStepAlgorithm zużycie dzieli się proporcjonalnie do poziomów magazynów, a nie według udziałów.
+ * Gdy połączenie nie wystarcza, zwiększamy zapas; udziały przesuwamy w stronę magazynów z tańszym wodorem.
+ * Koszty rosną skokowo, więc w każdej rundzie próbujemy też oddać cały udział najdroższego magazynu pozostałym.
+ * Poddrzewo z zerowym udziałem też jest przeszukiwane - dostaje elementy tylko wtedy, gdy magazyn sam nie jest poprawny
+ * (np. elektrolizer bez mocy minimalnej). Wynik nie jest dowodem optymalności - to najlepsza znaleziona poprawna siatka.
+ */
+@lombok.Data
+public class DecompositionSearchAlgorithm implements SearchStrategy {
+    private Data data;
+    private Incumbent incumbent;
+    private CancellationToken cancellationToken;
+    private int rounds = 4;
+    private double initialMargin = 0.05;
+    private int maxMarginIncreases = 6;
+    private ExecutorService executor = SearchExecutors.engines();
+
+    public DecompositionSearchAlgorithm(Data data) {
+        this.data = data;
+        this.incumbent = new Incumbent();
+        this.cancellationToken = new CancellationToken();
+    }
+
+    @Override
+    public State calculate() {
+        if (data.getStorages().size() < 2) {
+            BroadFirstSearchAlgorithm broadFirstSearchAlgorithm = new BroadFirstSearchAlgorithm(data);
+            broadFirstSearchAlgorithm.setIncumbent(incumbent);
+            broadFirstSearchAlgorithm.setCancellationToken(cancellationToken);
+            return broadFirstSearchAlgorithm.calculate();
+        }
+
+        double[] shares = getInitialShares();
+        double margin = initialMargin;
+        for (int round = 0; round < rounds; round++) {
+            List<State> parts = null;
+            State merged = null;
+            for (int attempt = 0; attempt <= maxMarginIncreases && merged == null; attempt++) {
+                parts = solveParts(shares, margin);
+                merged = merge(parts);
+                if (merged == null) {
+                    margin *= 2;
+                }
+            }
+            if (merged == null) {
+                break;
+            }
+            incumbent.offer(merged, SearchStrategyType.DECOMPOSITION);
+            double[] consolidated = consolidate(shares, parts);
+            if (consolidated != null) {
+                // najpierw bez zapasu - gdy udział ma już tylko jeden magazyn, połączenie jest dokładne
+                List<State> consolidatedParts = null;
+                State consolidatedMerged = null;
+                for (double consolidatedMargin : new double[]{0.0, margin}) {
+                    consolidatedParts = solveParts(consolidated, consolidatedMargin);
+                    consolidatedMerged = merge(consolidatedParts);
+                    if (consolidatedMerged != null) {
+                        break;
+                    }
+                }
+                if (consolidatedMerged != null) {
+                    incumbent.offer(consolidatedMerged, SearchStrategyType.DECOMPOSITION);
+                    if (consolidatedMerged.getMetrics().getTotalCost() < merged.getMetrics().getTotalCost()) {
+                        shares = consolidated;
+                        parts = consolidatedParts;
+                    }
+                }
+            }
+            shares = rebalance(shares, parts);
+        }
+
+        if (incumbent.getState() == null) {
+            throw new BusinessException("DecompositionSearchAlgorithm has not found any valid state", SOLUTION_NOT_FOUND);
+        }
+        return incumbent.getState();
+    }
+
+    /**
+     * Udziały proporcjonalne do obecnej produkcji wodoru magazynów, a przy pustych magazynach równe.
+     */
+    private double[] getInitialShares() {
+        int storages = data.getStorages().size();
+        double[] shares = new double[storages];
+        double total = 0;
+        for (int i = 0; i < storages; i++) {
+            for (Electrolyzer electrolyzer : data.getStorages().get(i).getElectrolyzers()) {
+                shares[i] += electrolyzer.getMaxPower() * electrolyzer.getEfficiency();
+            }
+            total += shares[i];
+        }
+        for (int i = 0; i < storages; i++) {
+            shares[i] = total > 0 ? shares[i] / total : 1.0 / storages;
+        }
+        return shares;
+    }
+
+    /**
+     * Poddrzewa liczone równolegle na wspólnej puli. Gdy jedno się nie uda, pozostałe są przerywane tokenem.
+     */
+    private List<State> solveParts(double[] shares, double margin) {
+        CancellationToken partsToken = new CancellationToken(cancellationToken);
+        List<Future<State>> futures = new ArrayList<>();
+        List<State> parts = new ArrayList<>();
+        try {
+            for (int i = 0; i < shares.length; i++) {
+                Data part = createPartData(data.getStorages().get(i), shares[i] * (1 + margin));
+                futures.add(executor.submit(() -> {
+                    BroadFirstSearchAlgorithm broadFirstSearchAlgorithm = new BroadFirstSearchAlgorithm(part);
+                    broadFirstSearchAlgorithm.setCancellationToken(partsToken);
+                    return broadFirstSearchAlgorithm.calculate();
+                }));
+            }
+            for (Future<State> future : futures) {
+                parts.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Calculation has been cancelled", CANCELLED);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new RuntimeException(e.getCause());
+        } finally {
+            partsToken.cancel();
+            futures.forEach(future -> future.cancel(false));
+        }
+        return parts;
+    }
+
+    private Data createPartData(Storage storage, double share) {
+        Data part = data.clone(false);
+        part.setStorages(new ArrayList<>(Collections.singletonList(storage.clone())));
+        part.setVehiclesConsumption(Arrays.stream(data.getVehiclesConsumption()).map(c -> c * share).toArray());
+        return part;
+    }
+
+    /**
+     * Łączy poddrzewa w jedną siatkę i sprawdza ją pełną symulacją. Nowe elementy z różnych poddrzew
+     * mogą mieć te same identyfikatory, więc dostają nowe, większe od wszystkich z siatki wejściowej.
+     */
+    private State merge(List<State> parts) {
+        long nextId = 0;
+        for (Storage storage : data.getStorages()) {
+            nextId = Math.max(nextId, storage.getId() != null ? storage.getId() : 0);
+            for (Long id : collectElectrolyzerIds(storage)) {
+                nextId = Math.max(nextId, id != null ? id : 0);
+            }
+            for (Long id : collectSourceIds(storage)) {
+                nextId = Math.max(nextId, id != null ? id : 0);
+            }
+        }
+
+        List<Storage> storages = new ArrayList<>();
+        double totalCost = 0;
+        for (int i = 0; i < parts.size(); i++) {
+            State part = parts.get(i);
+            // identyfikatory zachowują tylko elementy, które ten magazyn miał w siatce wejściowej
+            Set<Long> electrolyzerIds = collectElectrolyzerIds(data.getStorages().get(i));
+            Set<Long> sourceIds = collectSourceIds(data.getStorages().get(i));
+            Long originalStorageId = data.getStorages().get(i).getId();
+            totalCost += part.getMetrics().getTotalCost();
+            for (Storage storage : part.getStorages()) {
+                Storage merged = storage.clone();
+                if (!Objects.equals(merged.getId(), originalStorageId)) {
+                    merged.setId(++nextId);
+                }
+                for (Electrolyzer electrolyzer : merged.getElectrolyzers()) {
+                    if (!electrolyzerIds.contains(electrolyzer.getId())) {
+                        electrolyzer.setId(++nextId);
+                    }
+                    for (EnergySource source : electrolyzer.getSources()) {
+                        if (!sourceIds.contains(source.getId())) {
+                            source.setId(++nextId);
+                        }
+                    }
+                }
+                storages.add(merged);
+            }
+        }
+
+        Data mergedData = data.clone(false);
+        mergedData.setStorages(storages);
+        State state = new State(mergedData);
+        if (!state.getMetrics().isGood()) {
+            return null;
+        }
+        state.getMetrics().setTotalCost(totalCost);
+        state.updateKey();
+        return state;
+    }
+
+    private Set<Long> collectElectrolyzerIds(Storage storage) {
+        Set<Long> ids = new HashSet<>();
+        for (Electrolyzer electrolyzer : storage.getElectrolyzers()) {
+            ids.add(electrolyzer.getId());
+        }
+        return ids;
+    }
+
+    private Set<Long> collectSourceIds(Storage storage) {
+        Set<Long> ids = new HashSet<>();
+        for (Electrolyzer electrolyzer : storage.getElectrolyzers()) {
+            for (EnergySource source : electrolyzer.getSources()) {
+                ids.add(source.getId());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Udziały bez magazynu o najdroższej jednostce zużycia, rozdzielone proporcjonalnie między pozostałe.
+     * null, gdy został już tylko jeden magazyn z udziałem.
+     */
+    private double[] consolidate(double[] shares, List<State> parts) {
+        int dropped = -1;
+        int active = 0;
+        double maxUnitCost = -1;
+        for (int i = 0; i < shares.length; i++) {
+            if (shares[i] <= 0) {
+                continue;
+            }
+            active++;
+            double unitCost = parts.get(i).getMetrics().getTotalCost() / shares[i];
+            if (unitCost >= maxUnitCost) {
+                maxUnitCost = unitCost;
+                dropped = i;
+            }
+        }
+        if (active < 2) {
+            return null;
+        }
+        double[] result = new double[shares.length];
+        double remaining = 1.0 - shares[dropped];
+        for (int i = 0; i < shares.length; i++) {
+            result[i] = i == dropped ? 0.0 : shares[i] / remaining;
+        }
+        return result;
+    }
+
+    /**
+     * Przesuwa udziały w stronę magazynów, w których jednostka zużycia kosztuje najmniej.
+     * Pierwiastek i dolne ograniczenie kosztu tłumią zmiany, żeby udziały nie skakały między skrajnościami.
+     */
+    private double[] rebalance(double[] shares, List<State> parts) {
+        double[] unitCosts = new double[shares.length];
+        double average = 0;
+        for (int i = 0; i < shares.length; i++) {
+            unitCosts[i] = shares[i] > 0 ? parts.get(i).getMetrics().getTotalCost() / shares[i] : 0;
+            average += unitCosts[i] / shares.length;
+        }
+        double[] result = new double[shares.length];
+        double total = 0;
+        for (int i = 0; i < shares.length; i++) {
+            result[i] = average > 0 ? shares[i] * Math.sqrt(average / Math.max(unitCosts[i], average / 4)) : shares[i];
+            total += result[i];
+        }
+        for (int i = 0; i < shares.length; i++) {
+            result[i] = total > 0 ? result[i] / total : 1.0 / shares.length;
+        }
+        return result;
+    }
+}
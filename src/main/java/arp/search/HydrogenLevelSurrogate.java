@@ -0,0 +1,150 @@
+package arp.search;
+
+import arp.dto.grid.Electrolyzer;
+import arp.dto.grid.EnergySource;
+import arp.dto.grid.Storage;
+import arp.enums.EnergySourceType;
+
+/**
+ * Tani model zastępczy: regresja grzbietowa (ridge) dopasowywana przyrostowo na parach
+ * (wektor pojemności -> minimalny poziom wodoru) z już zasymulowanych stanów.
+ * Służy tylko do kolejności przeglądania - o poprawności zawsze decyduje pełna symulacja.
+ */
+public class HydrogenLevelSurrogate {
+    private static final int FEATURES = 6;
+
+    private final double[][] xtx = new double[FEATURES][FEATURES];
+    private final double[] xty = new double[FEATURES];
+    private final int minSamples;
+    private double[] weights;
+    private int samples;
+    private int residualSamples;
+    private double sumSquaredResiduals;
+
+    public HydrogenLevelSurrogate() {
+        this(2 * FEATURES);
+    }
+
+    public HydrogenLevelSurrogate(int minSamples) {
+        this.minSamples = minSamples;
+    }
+
+    /**
+     * Dodaje zasymulowany stan. Dla stanów niepoprawnych celem jest ujemny brak wodoru,
+     * więc przerwane symulacje też są traktowane jako "poniżej zera".
+     */
+    public void update(State state, int hoursOfSimulation) {
+        Metrics metrics = state.getMetrics();
+        double target = metrics.isGood() ? metrics.getMinHourHydrogenLevel() : -metrics.calculateShortfall(hoursOfSimulation);
+        double[] x = features(state);
+        if (isWarm()) {
+            double residual = target - predict(x);
+            sumSquaredResiduals += residual * residual;
+            residualSamples++;
+        }
+        for (int i = 0; i < FEATURES; i++) {
+            for (int j = 0; j < FEATURES; j++) {
+                xtx[i][j] += x[i] * x[j];
+            }
+            xty[i] += x[i] * target;
+        }
+        samples++;
+        weights = null;
+    }
+
+    public boolean isWarm() {
+        return samples >= minSamples;
+    }
+
+    public double predict(State state) {
+        return predict(features(state));
+    }
+
+    /**
+     * Stan jest odkładany tylko wtedy, gdy przewidywany poziom jest ujemny z zapasem
+     * równym dotychczasowemu błędowi średniokwadratowemu modelu.
+     */
+    public boolean isLikelyInfeasible(State state) {
+        if (!isWarm()) {
+            return false;
+        }
+        double rmse = residualSamples > 0 ? Math.sqrt(sumSquaredResiduals / residualSamples) : Double.POSITIVE_INFINITY;
+        return predict(state) + rmse < 0;
+    }
+
+    private double predict(double[] x) {
+        if (weights == null) {
+            weights = solve();
+        }
+        double result = 0;
+        for (int i = 0; i < FEATURES; i++) {
+            result += weights[i] * x[i];
+        }
+        return result;
+    }
+
+    private double[] solve() {
+        double trace = 0;
+        for (int i = 0; i < FEATURES; i++) {
+            trace += xtx[i][i];
+        }
+        double lambda = 1e-6 * (trace / FEATURES + 1);
+
+        double[][] a = new double[FEATURES][FEATURES + 1];
+        for (int i = 0; i < FEATURES; i++) {
+            System.arraycopy(xtx[i], 0, a[i], 0, FEATURES);
+            a[i][i] += lambda;
+            a[i][FEATURES] = xty[i];
+        }
+        // eliminacja Gaussa z wyborem elementu głównego
+        for (int col = 0; col < FEATURES; col++) {
+            int pivot = col;
+            for (int row = col + 1; row < FEATURES; row++) {
+                if (Math.abs(a[row][col]) > Math.abs(a[pivot][col])) {
+                    pivot = row;
+                }
+            }
+            double[] tmp = a[col];
+            a[col] = a[pivot];
+            a[pivot] = tmp;
+            for (int row = col + 1; row < FEATURES; row++) {
+                double factor = a[row][col] / a[col][col];
+                for (int k = col; k <= FEATURES; k++) {
+                    a[row][k] -= factor * a[col][k];
+                }
+            }
+        }
+        double[] w = new double[FEATURES];
+        for (int row = FEATURES - 1; row >= 0; row--) {
+            double sum = a[row][FEATURES];
+            for (int k = row + 1; k < FEATURES; k++) {
+                sum -= a[row][k] * w[k];
+            }
+            w[row] = sum / a[row][row];
+        }
+        return w;
+    }
+
+    private double[] features(State state) {
+        double storage = 0;
+        double electrolyzer = 0;
+        double accumulator = 0;
+        double wind = 0;
+        double pv = 0;
+        for (Storage s : state.getStorages()) {
+            storage += s.getMaxCapacity();
+            for (Electrolyzer e : s.getElectrolyzers()) {
+                electrolyzer += e.getMaxPower() * e.getEfficiency();
+                accumulator += e.getAccumulator().getAccumulatorMaxSize();
+                for (EnergySource source : e.getSources()) {
+                    if (EnergySourceType.WIND.equals(source.getType())) {
+                        wind += source.getMaxPower();
+                    } else {
+                        pv += source.getMaxPower();
+                    }
+                }
+            }
+        }
+        return new double[]{1.0, storage, electrolyzer, accumulator, wind, pv};
+    }
+}
@@ -0,0 +1,99 @@
+package arp.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Najlepsze znalezione dotąd poprawne rozwiązanie, współdzielone między wątkami.
+ * Jego koszt jest górnym ograniczeniem, którym silniki obcinają przeszukiwanie.
+ */
+public class Incumbent {
+    private static final int FEASIBLE_STATES = 8;
+
+    private final AtomicReference<Entry> entry = new AtomicReference<>();
+    private final Map<SearchStrategyType, Long> improvements = new EnumMap<>(SearchStrategyType.class);
+    private final List<State> feasibleStates = new ArrayList<>();
+
+    public boolean offer(State candidate, SearchStrategyType source) {
+        if (!candidate.getMetrics().isGood()) {
+            return false;
+        }
+        rememberFeasible(candidate);
+        Entry next = new Entry(candidate, source);
+        while (true) {
+            Entry current = entry.get();
+            if (current != null && current.getTotalCost() <= next.getTotalCost()) {
+                return false;
+            }
+            if (entry.compareAndSet(current, next)) {
+                synchronized (improvements) {
+                    improvements.merge(source, 1L, Long::sum);
+                }
+                return true;
+            }
+        }
+    }
+
+    public State getState() {
+        Entry current = entry.get();
+        return current != null ? current.state : null;
+    }
+
+    public SearchStrategyType getSource() {
+        Entry current = entry.get();
+        return current != null ? current.source : null;
+    }
+
+    public double getTotalCost() {
+        Entry current = entry.get();
+        return current != null ? current.getTotalCost() : Double.POSITIVE_INFINITY;
+    }
+
+    public Map<SearchStrategyType, Long> getImprovements() {
+        synchronized (improvements) {
+            return new EnumMap<>(improvements);
+        }
+    }
+
+    /**
+     * Najtańsze poprawne siatki zgłoszone w trakcie przeszukiwania, nie tylko kolejne incumbenty.
+     * Przy innych cenach któraś z nich może okazać się tańsza od obecnego rozwiązania.
+     */
+    public List<State> getFeasibleStates() {
+        synchronized (feasibleStates) {
+            return new ArrayList<>(feasibleStates);
+        }
+    }
+
+    private void rememberFeasible(State candidate) {
+        synchronized (feasibleStates) {
+            String key = candidate.toString();
+            if (feasibleStates.stream().anyMatch(state -> state.toString().equals(key))) {
+                return;
+            }
+            feasibleStates.add(candidate);
+            feasibleStates.sort(Comparator.comparingDouble(state -> state.getMetrics().getTotalCost()));
+            if (feasibleStates.size() > FEASIBLE_STATES) {
+                feasibleStates.remove(feasibleStates.size() - 1);
+            }
+        }
+    }
+
+    private static class Entry {
+        private final State state;
+        private final SearchStrategyType source;
+
+        private Entry(State state, SearchStrategyType source) {
+            this.state = state;
+            this.source = source;
+        }
+
+        private double getTotalCost() {
+            return state.getMetrics().getTotalCost();
+        }
+    }
+}
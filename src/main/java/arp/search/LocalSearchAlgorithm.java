@@ -0,0 +1,158 @@
+package arp.search;
+
+import arp.dto.GridCosts;
+import arp.exception.BusinessException;
+import arp.service.CancellationToken;
+import arp.service.Data;
+import arp.service.Utils;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static arp.exception.FailureReason.SOLUTION_NOT_FOUND;
+
+/**
+ * Symulowane wyżarzanie z listą tabu. Kilka niezależnych łańcuchów chodzi po siatkach
+ * tymi samymi krokami (+/- 1.0 jednostki) co BroadFirstSearchAlgorithm i dzieli się najlepszym
+ * rozwiązaniem. Nie daje gwarancji optymalności, ale kończy się w ograniczonym czasie.
+ * Łańcuchy chodzą na wspólnej puli SearchExecutors.chains(); przy jednym łańcuchu i stałym seed wynik jest powtarzalny.
+ */
+@lombok.Data
+public class LocalSearchAlgorithm implements SearchStrategy {
+    private Data data;
+    private NextStatesFactory nextStatesFactory;
+    private Incumbent incumbent;
+    private CancellationToken cancellationToken;
+
+    private int chains = Runtime.getRuntime().availableProcessors();
+    private int iterations = 1000;
+    private long timeLimit = 10_000;
+    private double coolingRate = 0.995;
+    private int tabuSize = 50;
+    private long seed = 0;
+    private ExecutorService executor = SearchExecutors.chains();
+
+    public LocalSearchAlgorithm(Data data) {
+        this.data = data;
+        this.nextStatesFactory = new NextStatesFactory(data);
+        this.incumbent = new Incumbent();
+        this.cancellationToken = new CancellationToken();
+    }
+
+    @Override
+    public State calculate() {
+        State initialState = new State(data);
+        if (initialState.getMetrics().isGood()) {
+            incumbent.offer(initialState, SearchStrategyType.LOCAL_SEARCH);
+            return incumbent.getState();
+        }
+
+        long deadline = System.currentTimeMillis() + timeLimit;
+        CancellationToken chainsToken = new CancellationToken(cancellationToken);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < chains; i++) {
+                Random random = new Random(seed + i);
+                futures.add(executor.submit(() -> runChain(initialState, random, deadline, chainsToken)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            // łańcuchy jeszcze w kolejce nie wystartują, uruchomione kończą się przy najbliższym sprawdzeniu tokenu
+            chainsToken.cancel();
+            futures.forEach(future -> future.cancel(false));
+        }
+
+        if (incumbent.getState() == null) {
+            throw new BusinessException("LocalSearchAlgorithm has not found any valid state", SOLUTION_NOT_FOUND);
+        }
+        return incumbent.getState();
+    }
+
+    private void runChain(State initialState, Random random, long deadline, CancellationToken cancellationToken) {
+        State current = initialState;
+        double currentEnergy = energy(current);
+        double temperature = getMaxUnitCost();
+        Deque<String> tabuQueue = new ArrayDeque<>();
+        Set<String> tabu = new HashSet<>();
+
+        for (int i = 0; i < iterations && System.currentTimeMillis() < deadline && !cancellationToken.isCancelled(); i++) {
+            State candidate = pickCandidate(current, initialState, random, tabu);
+            if (candidate == null) {
+                if (current == initialState) {
+                    return;
+                }
+                // utknęliśmy - wracamy do siatki wejściowej z pustą listą tabu
+                current = initialState;
+                currentEnergy = energy(current);
+                tabuQueue.clear();
+                tabu.clear();
+                continue;
+            }
+            candidate.updateMetrics(data);
+            // łańcuch nie trzyma historii - koszt jest już policzony w metrykach
+            candidate.setPreviousState(null);
+
+            if (incumbent.offer(candidate, SearchStrategyType.LOCAL_SEARCH)) {
+                // wszystko droższe od nowego incumbenta i tak jest pomijane - zaczynamy od siatki wejściowej
+                current = initialState;
+                currentEnergy = energy(current);
+            } else {
+                double candidateEnergy = energy(candidate);
+                double delta = candidateEnergy - currentEnergy;
+                if (delta <= 0 || random.nextDouble() < Math.exp(-delta / temperature)) {
+                    current = candidate;
+                    currentEnergy = candidateEnergy;
+                    tabuQueue.addLast(candidate.getKey());
+                    tabu.add(candidate.getKey());
+                    if (tabuQueue.size() > tabuSize) {
+                        tabu.remove(tabuQueue.removeFirst());
+                    }
+                }
+            }
+            temperature *= coolingRate;
+        }
+    }
+
+    private State pickCandidate(State current, State initialState, Random random, Set<String> tabu) {
+        List<State> candidates = nextStatesFactory.getNextStates(current);
+        candidates.addAll(nextStatesFactory.getReducedStates(current, initialState));
+        Collections.shuffle(candidates, random);
+        for (State candidate : candidates) {
+            // nie warto liczyć stanów, które nie mogą już poprawić najlepszego rozwiązania
+            if (candidate.getMetrics().getTotalCost() >= incumbent.getTotalCost()) {
+                continue;
+            }
+            if (!tabu.contains(candidate.toString())) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Koszt siatki powiększony o karę za brak wodoru albo przerwaną symulację.
+     */
+    private double energy(State state) {
+        Metrics metrics = state.getMetrics();
+        if (metrics.isGood()) {
+            return metrics.getTotalCost();
+        }
+        double shortfall = metrics.calculateShortfall(Utils.getHoursOfSimulation(data));
+        return metrics.getTotalCost() + getMaxUnitCost() * (1 + shortfall);
+    }
+
+    private double getMaxUnitCost() {
+        GridCosts costs = data.getGridCosts();
+        double max = Math.max(Math.max(costs.getPvCost(), costs.getWindCost()),
+                Math.max(costs.getStoragePowerCost(), Math.max(costs.getElectrolyzerCost(), costs.getStorageHydrogenCost())));
+        return max > 0 ? max : 1.0;
+    }
+}
@@ -5,13 +5,18 @@ import arp.service.YearResult;
 import lombok.Data;
 
 @Data
-public class Metrics implements Comparable<Metrics> {
+public class Metrics implements Comparable<Metrics>, Cloneable {
     private boolean good;
     private double minHourHydrogenLevel;
     private double totalCost;
     private double hydrogenProduction;
     private double electricityProduction;
     private double totalHydrogenWasted;
+    private double sumHydrogenOverflow;
+    private int simulatedHours;
+    private double predictedHydrogenLevel;
+    private double lowerBound;
+    private Double capexLowerBound; // null, gdy nie ma poprawnego ograniczenia
     private YearResult yearResult;
 
     @Override
@@ -19,6 +24,31 @@ public class Metrics implements Comparable<Metrics> {
         return Utils.roundDouble(totalCost);
     }
 
+    /**
+     * Miara niespełnienia wymagań: brakujący wodór plus godziny, których symulacja nie doliczyła.
+     */
+    public double calculateShortfall(int hoursOfSimulation) {
+        if (good) {
+            return 0;
+        }
+        return Math.max(0, -minHourHydrogenLevel) + Math.max(0, hoursOfSimulation - simulatedHours);
+    }
+
+    /**
+     * Koszt stanu powiększony o dolne ograniczenie kosztu potrzebnego do poprawnej siatki.
+     */
+    public double getEstimatedTotalCost() {
+        return totalCost + lowerBound;
+    }
+
+    public Metrics copy() {
+        try {
+            return (Metrics) super.clone();
+        } catch (CloneNotSupportedException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
     @Override
     public int compareTo(Metrics o) {
         return Double.compare(totalCost, o.totalCost);
@@ -0,0 +1,607 @@
+package arp.search;
+
+import arp.dto.catalog.CatalogItem;
+import arp.dto.catalog.ComponentCatalog;
+import arp.dto.catalog.VolumeDiscount;
+import arp.dto.grid.Accumulator;
+import arp.dto.grid.Electrolyzer;
+import arp.dto.grid.EnergySource;
+import arp.dto.grid.Storage;
+import arp.enums.EnergySourceType;
+import arp.exception.BusinessException;
+import arp.service.CalculateHydrogenProduction;
+import arp.service.CalculateMinimalCapacity;
+import arp.service.Data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+import static arp.exception.FailureReason.INVALID_INPUT;
+
+/**
+ * Tworzy stany sąsiednie: zwiększenia (wspólne dla wszystkich strategii)
+ * oraz zmniejszenia (używane przez przeszukiwanie lokalne).
+ */
+public class NextStatesFactory {
+    private final Data data;
+    private final CalculateHydrogenProduction hydrogenProduction;
+    private final CalculateMinimalCapacity minimalCapacity;
+
+    public NextStatesFactory(Data data) {
+        this.data = data;
+        this.hydrogenProduction = new CalculateHydrogenProduction(data);
+        this.minimalCapacity = new CalculateMinimalCapacity(data);
+        validateCatalog();
+    }
+
+    public List<State> getNextStates(State state) {
+        List<State> results = new ArrayList<>();
+
+        for (Storage storage : state.getStorages()) {
+            if (hasCatalog(ActionType.STORAGE)) {
+                addCatalogStates(results, state, ActionType.STORAGE, size -> {
+                    List<State> states = new ArrayList<>();
+                    updateStorage(states, state, storage.getId(), size);
+                    return states;
+                });
+            } else if (state.getStorages().size() == 1) {
+                sizeStorage(results, state, storage);
+            } else {
+                updateStorage(results, state, storage.getId(), 1.0);
+            }
+
+            for (Electrolyzer electrolyzer : storage.getElectrolyzers()) {
+                addStates(results, state, ActionType.ELECTROLYZER, size -> {
+                    List<State> states = new ArrayList<>();
+                    updateElectrolizer(states, state, electrolyzer.getId(), size);
+                    return states;
+                });
+                if (electrolyzer.getAccumulator().getAccumulatorMaxSize() < hydrogenProduction.calculateAccumulatorSaturation(electrolyzer)) {
+                    addStates(results, state, ActionType.ACCUMULATOR, size -> {
+                        List<State> states = new ArrayList<>();
+                        updateAccumulator(states, state, electrolyzer.getId(), size);
+                        return states;
+                    });
+                }
+
+                for (EnergySource source : electrolyzer.getSources()) {
+                    if (EnergySourceType.WIND.equals(source.getType())) {
+                        addStates(results, state, ActionType.WIND, size -> {
+                            List<State> states = new ArrayList<>();
+                            updateWindSource(states, state, electrolyzer.getId(), source.getId(), size);
+                            return states;
+                        });
+                    } else {
+                        addStates(results, state, ActionType.PV, size -> {
+                            List<State> states = new ArrayList<>();
+                            updatePvSource(states, state, electrolyzer.getId(), source.getId(), size);
+                            return states;
+                        });
+                    }
+                }
+                addStates(results, state, ActionType.WIND, size -> {
+                    List<State> states = new ArrayList<>();
+                    addWindSource(states, state, electrolyzer.getId());
+                    resizeAddedElement(states, size);
+                    return states;
+                });
+                addStates(results, state, ActionType.PV, size -> {
+                    List<State> states = new ArrayList<>();
+                    addPvSource(states, state, electrolyzer.getId());
+                    resizeAddedElement(states, size);
+                    return states;
+                });
+            }
+            addStates(results, state, ActionType.ELECTROLYZER, size -> {
+                List<State> states = new ArrayList<>();
+                addElectrolizer(states, state, storage.getId());
+                resizeAddedElement(states, size);
+                return states;
+            });
+        }
+        addStates(results, state, ActionType.STORAGE, size -> {
+            List<State> states = new ArrayList<>();
+            addStorage(states, state);
+            resizeAddedElement(states, size);
+            return states;
+        });
+
+        return results;
+    }
+
+    /** =-=-=-=-= CATALOG =-=-=-=-= */
+
+    public boolean hasCatalog() {
+        return data.getCatalog() != null && !data.getCatalog().isEmpty();
+    }
+
+    /**
+     * Pozycja o zerowym rozmiarze dawałaby darmowe stany bez postępu, a ujemna cena lub rabat spoza [0, 1) - ujemne koszty akcji.
+     */
+    private void validateCatalog() {
+        for (ActionType type : ActionType.values()) {
+            for (CatalogItem item : getCatalogItems(type)) {
+                if (!(item.getSize() > 0)) {
+                    throw new BusinessException("Catalog item " + item.getName() + " must have positive size", INVALID_INPUT);
+                }
+                if (!(item.getPrice() >= 0)) {
+                    throw new BusinessException("Catalog item " + item.getName() + " must not have negative price", INVALID_INPUT);
+                }
+                List<VolumeDiscount> volumeDiscounts = item.getVolumeDiscounts() != null ? item.getVolumeDiscounts() : Collections.emptyList();
+                for (VolumeDiscount volumeDiscount : volumeDiscounts) {
+                    if (!(volumeDiscount.getDiscount() >= 0 && volumeDiscount.getDiscount() < 1)) {
+                        throw new BusinessException("Catalog item " + item.getName() + " discount must be in [0, 1)", INVALID_INPUT);
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean hasCatalog(ActionType type) {
+        return !getCatalogItems(type).isEmpty();
+    }
+
+    /**
+     * Bez katalogu dla typu - jeden stan o jedną jednostkę wyceniony z GridCosts, z katalogiem - po stanie na pozycję.
+     */
+    private void addStates(List<State> results, State state, ActionType type, Function<Double, List<State>> factory) {
+        if (hasCatalog(type)) {
+            addCatalogStates(results, state, type, factory);
+        } else {
+            results.addAll(factory.apply(1.0));
+        }
+    }
+
+    private void addCatalogStates(List<State> results, State state, ActionType type, Function<Double, List<State>> factory) {
+        for (CatalogItem item : getCatalogItems(type)) {
+            for (State nextState : factory.apply(item.getSize())) {
+                Action action = nextState.getAction();
+                action.setCatalogItem(item.getName());
+                action.setActionCost(getCatalogPrice(state, type, item));
+                nextState.addPurchase(type, item.getName());
+                nextState.getMetrics().setTotalCost(state.getMetrics().getTotalCost() + action.getActionCost());
+                results.add(nextState);
+            }
+        }
+    }
+
+    /**
+     * Cena kolejnej sztuki - rabat z najwyższego progu, do którego dochodzi ta sztuka.
+     */
+    private double getCatalogPrice(State state, ActionType type, CatalogItem item) {
+        int quantity = state.getPurchases(type, item.getName()) + 1;
+        double discount = 0;
+        List<VolumeDiscount> volumeDiscounts = item.getVolumeDiscounts() != null ? item.getVolumeDiscounts() : Collections.emptyList();
+        for (VolumeDiscount volumeDiscount : volumeDiscounts) {
+            if (volumeDiscount.getMinQuantity() <= quantity) {
+                discount = Math.max(discount, volumeDiscount.getDiscount());
+            }
+        }
+        return item.getPrice() * (1 - discount);
+    }
+
+    private List<CatalogItem> getCatalogItems(ActionType type) {
+        ComponentCatalog catalog = data.getCatalog();
+        if (catalog == null) {
+            return Collections.emptyList();
+        }
+        List<CatalogItem> items;
+        switch (type) {
+            case WIND:
+                items = catalog.getWind();
+                break;
+            case PV:
+                items = catalog.getPv();
+                break;
+            case ELECTROLYZER:
+                items = catalog.getElectrolyzer();
+                break;
+            case ACCUMULATOR:
+                items = catalog.getAccumulator();
+                break;
+            default:
+                items = catalog.getStorage();
+        }
+        return items != null ? items : Collections.emptyList();
+    }
+
+    /**
+     * Nowe elementy powstają z mocą 1.0 - pozycja z katalogu ustawia jej rozmiar.
+     */
+    private void resizeAddedElement(List<State> states, double size) {
+        for (State nextState : states) {
+            Action action = nextState.getAction();
+            switch (action.getType()) {
+                case STORAGE:
+                    nextState.findStorageById(action.getObjectId()).setMaxCapacity(size);
+                    break;
+                case ELECTROLYZER:
+                    nextState.findElectrolyzerById(action.getObjectId()).setMaxPower(size);
+                    break;
+                case WIND:
+                case PV:
+                    nextState.findEnergySourceById(action.getObjectId()).setMaxPower(size);
+                    for (Storage storage : nextState.getStorages()) {
+                        for (Electrolyzer electrolyzer : storage.getElectrolyzers()) {
+                            if (electrolyzer.getSources().stream().anyMatch(source -> Objects.equals(source.getId(), action.getObjectId()))) {
+                                electrolyzer.recalculateSummaryEnergyProduction(data);
+                            }
+                        }
+                    }
+                    break;
+                default:
+            }
+        }
+    }
+
+    /**
+     * Stany o jedną jednostkę mniejsze. Nie schodzimy poniżej pojemności z siatki wejściowej -
+     * istniejąca infrastruktura jest darmowa, więc jej usunięcie nie może obniżyć kosztu.
+     */
+    public List<State> getReducedStates(State state, State initialState) {
+        List<State> results = new ArrayList<>();
+
+        for (Storage storage : state.getStorages()) {
+            Storage initialStorage = initialState.findStorageById(storage.getId());
+            if (canReduce(storage.getMaxCapacity(), initialStorage != null ? initialStorage.getMaxCapacity() : 0.0)) {
+                reduceStorage(results, state, storage.getId());
+            }
+
+            for (Electrolyzer electrolyzer : storage.getElectrolyzers()) {
+                Electrolyzer initialElectrolyzer = initialState.findElectrolyzerById(electrolyzer.getId());
+                if (canReduce(electrolyzer.getMaxPower(), initialElectrolyzer != null ? initialElectrolyzer.getMaxPower() : 0.0)) {
+                    reduceElectrolizer(results, state, electrolyzer.getId());
+                }
+                if (canReduce(electrolyzer.getAccumulator().getAccumulatorMaxSize(), initialElectrolyzer != null ?
+                        initialElectrolyzer.getAccumulator().getAccumulatorMaxSize() : 0.0)) {
+                    reduceAccumulator(results, state, electrolyzer.getId());
+                }
+
+                for (EnergySource source : electrolyzer.getSources()) {
+                    EnergySource initialSource = initialState.findEnergySourceById(source.getId());
+                    if (canReduce(source.getMaxPower(), initialSource != null ? initialSource.getMaxPower() : 0.0)) {
+                        reduceSource(results, state, electrolyzer.getId(), source.getId(), source.getType());
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Siatka z projektu ciągłego (przyrosty mocy) zaokrąglonego w górę do pełnych jednostek i dołożonego
+     * do pierwszego elektrolizera jedynego magazynu. Akumulator dostaje pojemność nasycenia, a magazyn
+     * najmniejszą wystarczającą pojemność. Zwraca null przy katalogu, dla wielu magazynów albo gdy magazyn nie wystarczy.
+     */
+    public State buildDesignState(State initialState, double electrolyzerPower, double windPower, double pvPower) {
+        if (hasCatalog() || initialState.getStorages().size() != 1 || initialState.getStorages().get(0).getId() == null) {
+            return null;
+        }
+        List<State> chain = new ArrayList<>();
+        State state = initialState;
+        Long storageId = state.getStorages().get(0).getId();
+        if (state.getStorages().get(0).getElectrolyzers().isEmpty()) {
+            addElectrolizer(chain, state, storageId);
+            state = last(chain);
+            electrolyzerPower -= 1.0;
+        }
+        Long electrolyzerId = state.getStorages().get(0).getElectrolyzers().get(0).getId();
+        if (electrolyzerId == null) {
+            return null;
+        }
+        double units = Math.ceil(electrolyzerPower - 1e-9);
+        if (units > 0) {
+            updateElectrolizer(chain, state, electrolyzerId, units);
+            state = last(chain);
+        }
+        state = addSourcePower(chain, state, electrolyzerId, EnergySourceType.WIND, windPower);
+        state = addSourcePower(chain, state, electrolyzerId, EnergySourceType.PV, pvPower);
+
+        Electrolyzer electrolyzer = state.findElectrolyzerById(electrolyzerId);
+        units = Math.ceil(hydrogenProduction.calculateAccumulatorSaturation(electrolyzer)
+                - electrolyzer.getAccumulator().getAccumulatorMaxSize() - 1e-9);
+        if (units > 0) {
+            updateAccumulator(chain, state, electrolyzerId, units);
+            state = last(chain);
+        }
+
+        Storage storage = state.getStorages().get(0);
+        double[] production = hydrogenProduction.calculate(storage.getElectrolyzers());
+        double capacity = production != null ? minimalCapacity.calculate(production) : Double.NaN;
+        if (Double.isNaN(capacity) || Double.isInfinite(capacity)) {
+            return null;
+        }
+        units = Math.ceil(capacity - storage.getMaxCapacity() - 1e-9);
+        if (units > 0) {
+            updateStorage(chain, state, storageId, units);
+            state = last(chain);
+        }
+        return state;
+    }
+
+    private State addSourcePower(List<State> chain, State state, Long electrolyzerId, EnergySourceType type, double power) {
+        if (power <= 1e-9) {
+            return state;
+        }
+        EnergySource source = state.findElectrolyzerById(electrolyzerId).getSources().stream()
+                .filter(s -> type.equals(s.getType()))
+                .findFirst()
+                .orElse(null);
+        if (source == null) {
+            if (EnergySourceType.WIND.equals(type)) {
+                addWindSource(chain, state, electrolyzerId);
+            } else {
+                addPvSource(chain, state, electrolyzerId);
+            }
+            state = last(chain);
+            List<EnergySource> sources = state.findElectrolyzerById(electrolyzerId).getSources();
+            source = sources.get(sources.size() - 1);
+            power -= 1.0;
+        }
+        double units = Math.ceil(power - 1e-9);
+        if (units > 0) {
+            if (EnergySourceType.WIND.equals(type)) {
+                updateWindSource(chain, state, electrolyzerId, source.getId(), units);
+            } else {
+                updatePvSource(chain, state, electrolyzerId, source.getId(), units);
+            }
+            state = last(chain);
+        }
+        return state;
+    }
+
+    private State last(List<State> chain) {
+        return chain.get(chain.size() - 1);
+    }
+
+    private boolean canReduce(double current, double initial) {
+        return current - 1.0 >= initial - 1e-9;
+    }
+
+    /** =-=-=-=-= STORAGE =-=-=-=-= */
+
+    private void addStorage(List<State> results, State state) {
+        long newId = state.nextStorageId();
+
+        Action action = createStorageAction(newId);
+
+        State nextState = state.buildNextState(action);
+        Storage storage = new Storage();
+        storage.setId(newId);
+        storage.setMaxCapacity(1.0);
+
+        nextState.getStorages().add(storage);
+
+        results.add(nextState);
+    }
+
+    /**
+     * Przy jednym magazynie od razu skaczemy do najmniejszej wystarczającej pojemności dla obecnej produkcji.
+     * Pośrednie pojemności są niepoprawne, a te same siatki z większą produkcją osiągamy, dodając najpierw źródła.
+     */
+    private void sizeStorage(List<State> results, State state, Storage storage) {
+        double[] production = hydrogenProduction.calculate(storage.getElectrolyzers());
+        double capacity = production != null ? minimalCapacity.calculate(production) : Double.NaN;
+        if (capacity == Double.POSITIVE_INFINITY) {
+            // sam magazyn nie pokryje braku wodoru
+            return;
+        }
+        double units = Double.isNaN(capacity) ? 1.0 : Math.ceil(capacity - storage.getMaxCapacity() - 1e-9);
+        updateStorage(results, state, storage.getId(), Math.max(units, 1.0));
+    }
+
+    private void updateStorage(List<State> results, State state, Long id, double units) {
+        Action action = createStorageAction(id);
+        action.setActionCost(units * action.getActionCost());
+
+        State nextState = state.buildNextState(action);
+        Storage storage = nextState.findStorageById(id);
+        storage.setMaxCapacity(storage.getMaxCapacity() + units);
+
+        results.add(nextState);
+    }
+
+    private void reduceStorage(List<State> results, State state, Long id) {
+        Action action = createStorageAction(id);
+        action.setActionCost(-action.getActionCost());
+
+        State nextState = state.buildNextState(action);
+        Storage storage = nextState.findStorageById(id);
+        storage.setMaxCapacity(storage.getMaxCapacity() - 1.0);
+
+        results.add(nextState);
+    }
+
+    private Action createStorageAction(long newId) {
+        Action action = new Action();
+        action.setType(ActionType.STORAGE);
+        action.setObjectId(newId);
+        action.setActionCost(this.data.getGridCosts().getStorageHydrogenCost());
+        return action;
+    }
+
+    /** =-=-=-=-= ELECTROLYZER =-=-=-=-= */
+
+    private void addElectrolizer(List<State> results, State state, Long parentId) {
+        long newId = state.nextElectrolyzerId();
+
+        Action action = createElectrolizerAction(newId);
+        State nextState = state.buildNextState(action);
+
+        Electrolyzer electrolyzer = new Electrolyzer();
+        electrolyzer.setId(newId);
+        electrolyzer.setAccumulator(new Accumulator());
+        electrolyzer.setEfficiency(data.getGridConstants().getElectrolyzerEfficiency());
+        electrolyzer.setMaxPower(1.0);
+
+        Storage storage = nextState.findStorageById(parentId);
+        storage.getElectrolyzers().add(electrolyzer);
+
+        results.add(nextState);
+    }
+
+    private void updateElectrolizer(List<State> results, State state, Long id, double units) {
+        Action action = createElectrolizerAction(id);
+        action.setActionCost(units * action.getActionCost());
+        State nextState = state.buildNextState(action);
+        Electrolyzer electrolyzer = nextState.findElectrolyzerById(id);
+        electrolyzer.setMaxPower(electrolyzer.getMaxPower() + units);
+
+        results.add(nextState);
+    }
+
+    private void reduceElectrolizer(List<State> results, State state, Long id) {
+        Action action = createElectrolizerAction(id);
+        action.setActionCost(-action.getActionCost());
+
+        State nextState = state.buildNextState(action);
+        Electrolyzer electrolyzer = nextState.findElectrolyzerById(id);
+        electrolyzer.setMaxPower(electrolyzer.getMaxPower() - 1.0);
+
+        results.add(nextState);
+    }
+
+    private Action createElectrolizerAction(long newId) {
+        Action action = new Action();
+        action.setType(ActionType.ELECTROLYZER);
+        action.setObjectId(newId);
+        action.setActionCost(this.data.getGridCosts().getElectrolyzerCost());
+        return action;
+    }
+
+    /** =-=-=-=-= ACCUMULATOR =-=-=-=-= */
+
+    private void updateAccumulator(List<State> results, State state, Long id, double units) {
+        Action action = createAccumulatorAction(id);
+        action.setActionCost(units * action.getActionCost());
+
+        State nextState = state.buildNextState(action);
+        Accumulator accumulator = nextState.findAccumulatorById(id);
+        accumulator.setAccumulatorMaxSize(accumulator.getAccumulatorMaxSize() + units);
+
+        results.add(nextState);
+    }
+
+    private void reduceAccumulator(List<State> results, State state, Long id) {
+        Action action = createAccumulatorAction(id);
+        action.setActionCost(-action.getActionCost());
+
+        State nextState = state.buildNextState(action);
+        Accumulator accumulator = nextState.findAccumulatorById(id);
+        accumulator.setAccumulatorMaxSize(accumulator.getAccumulatorMaxSize() - 1.0);
+
+        results.add(nextState);
+    }
+
+    private Action createAccumulatorAction(Long id) {
+        Action action = new Action();
+        action.setType(ActionType.ACCUMULATOR);
+        action.setObjectId(id);
+        action.setActionCost(this.data.getGridCosts().getStoragePowerCost());
+        return action;
+    }
+
+    /** =-=-=-=-= SOURCE WIND =-=-=-=-= */
+
+    private void addWindSource(List<State> results, State state, Long parentId) {
+        long newId = state.nextEnergySourceId();
+        Action action = createWindAction(newId);
+
+        State nextState = state.buildNextState(action);
+        EnergySource energySource = new EnergySource();
+        energySource.setId(newId);
+        energySource.setType(EnergySourceType.WIND);
+        energySource.setMaxPower(1.0);
+        energySource.setDistance(0.0);
+
+        Electrolyzer electrolyzer = nextState.findElectrolyzerById(parentId);
+        electrolyzer.getSources().add(energySource);
+        electrolyzer.recalculateSummaryEnergyProduction(data);
+
+        results.add(nextState);
+    }
+
+    private void updateWindSource(List<State> results, State state, Long parentId, Long id, double units) {
+        Action action = createWindAction(id);
+        action.setActionCost(units * action.getActionCost());
+
+        State nextState = state.buildNextState(action);
+        EnergySource energySource = nextState.findEnergySourceById(id);
+        energySource.setMaxPower(energySource.getMaxPower() + units);
+
+        Electrolyzer electrolyzer = nextState.findElectrolyzerById(parentId);
+        electrolyzer.recalculateSummaryEnergyProduction(data);
+
+        results.add(nextState);
+    }
+
+
+    private Action createWindAction(Long id) {
+        Action action = new Action();
+        action.setType(ActionType.WIND);
+        action.setObjectId(id);
+        action.setActionCost(this.data.getGridCosts().getWindCost());
+        return action;
+    }
+
+    /** =-=-=-=-= SOURCE PV =-=-=-=-= */
+
+    private void addPvSource(List<State> results, State state, Long parentId) {
+        long newId = state.nextEnergySourceId();
+        Action action = createPvAction(newId);
+
+        State nextState = state.buildNextState(action);
+        EnergySource energySource = new EnergySource();
+        energySource.setId(newId);
+        energySource.setType(EnergySourceType.PV);
+        energySource.setMaxPower(1.0);
+        energySource.setDistance(0.0);
+
+        Electrolyzer electrolyzer = nextState.findElectrolyzerById(parentId);
+        electrolyzer.getSources().add(energySource);
+        electrolyzer.recalculateSummaryEnergyProduction(data);
+
+        results.add(nextState);
+    }
+
+    private void updatePvSource(List<State> results, State state, Long parentId, Long id, double units) {
+        Action action = createPvAction(id);
+        action.setActionCost(units * action.getActionCost());
+
+        State nextState = state.buildNextState(action);
+        EnergySource energySource = nextState.findEnergySourceById(id);
+        energySource.setMaxPower(energySource.getMaxPower() + units);
+
+        Electrolyzer electrolyzer = nextState.findElectrolyzerById(parentId);
+        electrolyzer.recalculateSummaryEnergyProduction(data);
+
+        results.add(nextState);
+    }
+
+    private Action createPvAction(Long id) {
+        Action action = new Action();
+        action.setType(ActionType.PV);
+        action.setObjectId(id);
+        action.setActionCost(this.data.getGridCosts().getPvCost());
+        return action;
+    }
+
+    /** =-=-=-=-= SOURCE (reduce) =-=-=-=-= */
+
+    private void reduceSource(List<State> results, State state, Long parentId, Long id, EnergySourceType type) {
+        Action action = EnergySourceType.WIND.equals(type) ? createWindAction(id) : createPvAction(id);
+        action.setActionCost(-action.getActionCost());
+
+        State nextState = state.buildNextState(action);
+        EnergySource energySource = nextState.findEnergySourceById(id);
+        energySource.setMaxPower(energySource.getMaxPower() - 1.0);
+
+        Electrolyzer electrolyzer = nextState.findElectrolyzerById(parentId);
+        electrolyzer.recalculateSummaryEnergyProduction(data);
+
+        results.add(nextState);
+    }
+}
@@ -0,0 +1,68 @@
+package arp.search;
+
+import arp.service.Utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Archiwum niezdominowanych poprawnych siatek: minimalny koszt, minimalny zmarnowany wodór
+ * (parowanie i przepełnienie magazynu), maksymalny zapas wodoru (minHourHydrogenLevel).
+ * Stany muszą przychodzić w niemalejącej kolejności kosztu. Wtedy nowy stan może być zdominowany
+ * tylko w dwóch pozostałych kryteriach, co sprawdza schodek (zmarnowany -> zapas) w TreeMap w czasie O(log n).
+ * Stan zdominowany w schodku przez nowszy nie jest już potrzebny do sprawdzania, ale zostaje we froncie,
+ * bo jest tańszy - chyba że koszt jest równy.
+ */
+public class ParetoArchive {
+    private final TreeMap<Double, Double> staircase = new TreeMap<>();
+    private final List<State> front = new ArrayList<>();
+    private double lastCost = Double.NEGATIVE_INFINITY;
+
+    public boolean offer(State state) {
+        Metrics metrics = state.getMetrics();
+        if (!metrics.isGood()) {
+            return false;
+        }
+        if (metrics.getTotalCost() < lastCost) {
+            throw new IllegalArgumentException("States must be offered in non-decreasing order of cost");
+        }
+        lastCost = metrics.getTotalCost();
+        double wasted = getWasted(metrics);
+        double surplus = getSurplus(metrics);
+
+        // najmniejszy zmarnowany wodór nie większy od nowego ma w schodku największy zapas
+        Map.Entry<Double, Double> floor = staircase.floorEntry(wasted);
+        if (floor != null && floor.getValue() >= surplus) {
+            return false;
+        }
+        front.removeIf(archived -> archived.getMetrics().getTotalCost() == metrics.getTotalCost()
+                && getWasted(archived.getMetrics()) >= wasted && getSurplus(archived.getMetrics()) <= surplus);
+        // schodek: usuwamy punkty z nie mniejszym zmarnowanym wodorem i nie większym zapasem
+        Map.Entry<Double, Double> ceiling = staircase.ceilingEntry(wasted);
+        while (ceiling != null && ceiling.getValue() <= surplus) {
+            staircase.remove(ceiling.getKey());
+            ceiling = staircase.ceilingEntry(wasted);
+        }
+        staircase.put(wasted, surplus);
+        front.add(state);
+        return true;
+    }
+
+    public List<State> getFront() {
+        List<State> result = new ArrayList<>(front);
+        result.sort(Comparator.comparingDouble((State state) -> state.getMetrics().getTotalCost())
+                .thenComparingDouble(state -> getWasted(state.getMetrics())));
+        return result;
+    }
+
+    public static double getWasted(Metrics metrics) {
+        return Utils.standardRound(metrics.getTotalHydrogenWasted() + metrics.getSumHydrogenOverflow());
+    }
+
+    public static double getSurplus(Metrics metrics) {
+        return Utils.standardRound(metrics.getMinHourHydrogenLevel());
+    }
+}
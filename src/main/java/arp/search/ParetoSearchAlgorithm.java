@@ -0,0 +1,76 @@
+package arp.search;
+
+import arp.exception.BusinessException;
+import arp.service.CancellationToken;
+import arp.service.Data;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import static arp.exception.FailureReason.SOLUTION_NOT_FOUND;
+
+/**
+ * Front Pareto (koszt, zmarnowany wodór, zapas wodoru) w jednym przeszukiwaniu. Stany są przeglądane
+ * rosnąco po koszcie jak w BroadFirstSearchAlgorithm, ale poprawne stany też są rozwijane - większa siatka
+ * może marnować mniej albo mieć większy zapas. Przeszukiwanie kończy się po przekroczeniu kosztu
+ * najtańszej poprawnej siatki o costSpan albo po maxStates symulacjach.
+ */
+@lombok.Data
+public class ParetoSearchAlgorithm {
+    private Data data;
+    private NextStatesFactory nextStatesFactory;
+    private CancellationToken cancellationToken;
+    private double costSpan = 0.5;
+    private int maxStates = 2000;
+
+    public ParetoSearchAlgorithm(Data data) {
+        this.data = data;
+        this.nextStatesFactory = new NextStatesFactory(data);
+        this.cancellationToken = new CancellationToken();
+    }
+
+    public List<State> calculate() {
+        ParetoArchive archive = new ParetoArchive();
+        PriorityQueue<State> priorityQueue = new PriorityQueue<>();
+        Set<String> visitedStates = new HashSet<>();
+
+        State initialState = new State(data);
+        priorityQueue.add(initialState);
+        visitedStates.add(initialState.toString());
+        double costLimit = Double.POSITIVE_INFINITY;
+        int simulatedStates = 0;
+
+        while (!priorityQueue.isEmpty() && simulatedStates < maxStates) {
+            cancellationToken.throwIfCancelled();
+            State state = priorityQueue.poll();
+            if (state.getMetrics().getTotalCost() > costLimit) {
+                break;
+            }
+            if (state != initialState) {
+                state.updateMetrics(data);
+            }
+            simulatedStates++;
+            if (state.getMetrics().isGood()) {
+                if (costLimit == Double.POSITIVE_INFINITY) {
+                    costLimit = state.getMetrics().getTotalCost() * (1 + costSpan);
+                }
+                archive.offer(state);
+            }
+            // kroki godzinowe nie są potrzebne do porównań we froncie
+            state.getMetrics().setYearResult(null);
+            for (State nextState : nextStatesFactory.getNextStates(state)) {
+                if (visitedStates.add(nextState.toString())) {
+                    priorityQueue.add(nextState);
+                }
+            }
+        }
+
+        List<State> front = archive.getFront();
+        if (front.isEmpty()) {
+            throw new BusinessException("ParetoSearchAlgorithm has not found any valid state", SOLUTION_NOT_FOUND);
+        }
+        return front;
+    }
+}
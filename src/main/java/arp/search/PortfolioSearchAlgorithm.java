@@ -0,0 +1,107 @@
+package arp.search;
+
+import arp.exception.BusinessException;
+import arp.service.CancellationToken;
+import arp.service.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static arp.exception.FailureReason.SOLUTION_NOT_FOUND;
+
+/**
+ * Wyścig silników na wspólnym incumbencie. Kończy się, gdy jeden z dokładnych silników
+ * (best-first albo branch and bound) udowodni optymalność albo minie limit czasu -
+ * wtedy zwracamy najlepsze znalezione rozwiązanie. Przegrani są przerywani przez token.
+ * Silniki chodzą na wspólnej puli SearchExecutors.engines().
+ */
+@lombok.Data
+public class PortfolioSearchAlgorithm implements SearchStrategy {
+    private Data data;
+    private PortfolioStatistics statistics;
+    private Incumbent incumbent;
+    private CancellationToken cancellationToken;
+    private SearchProgress progress;
+    private long timeLimit = 30_000;
+    private ExecutorService executor = SearchExecutors.engines();
+    private Double finalLowerBound;
+
+    public PortfolioSearchAlgorithm(Data data, PortfolioStatistics statistics) {
+        this.data = data;
+        this.statistics = statistics;
+        this.incumbent = new Incumbent();
+        this.cancellationToken = new CancellationToken();
+        this.progress = new SearchProgress();
+    }
+
+    @Override
+    public State calculate() {
+        CancellationToken cancellationToken = new CancellationToken(this.cancellationToken);
+
+        BroadFirstSearchAlgorithm bestFirst = new BroadFirstSearchAlgorithm(data);
+        bestFirst.setIncumbent(incumbent);
+        bestFirst.setCancellationToken(cancellationToken);
+        bestFirst.setProgress(progress);
+
+        BranchAndBoundAlgorithm branchAndBound = new BranchAndBoundAlgorithm(data);
+        branchAndBound.setIncumbent(incumbent);
+        branchAndBound.setCancellationToken(cancellationToken);
+
+        LocalSearchAlgorithm localSearch = new LocalSearchAlgorithm(data);
+        localSearch.setIncumbent(incumbent);
+        localSearch.setCancellationToken(cancellationToken);
+        localSearch.setChains(Math.max(1, Runtime.getRuntime().availableProcessors() - 2));
+        localSearch.setIterations(Integer.MAX_VALUE);
+        localSearch.setTimeLimit(timeLimit);
+
+        long deadline = System.currentTimeMillis() + timeLimit;
+        CompletionService<State> exactEngines = new ExecutorCompletionService<>(executor);
+        List<Future<?>> futures = new ArrayList<>();
+        State result = null;
+        RuntimeException failure = null;
+        try {
+            futures.add(exactEngines.submit(bestFirst::calculate));
+            futures.add(exactEngines.submit(branchAndBound::calculate));
+            futures.add(executor.submit(() -> runQuietly(localSearch)));
+
+            for (int i = 0; i < 2 && result == null; i++) {
+                Future<State> future = exactEngines.poll(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                if (future == null) {
+                    break;
+                }
+                try {
+                    result = future.get();
+                } catch (ExecutionException e) {
+                    failure = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new RuntimeException(e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            cancellationToken.cancel();
+            futures.forEach(future -> future.cancel(false));
+        }
+        this.cancellationToken.throwIfCancelled();
+
+        boolean proven = result != null;
+        // po upływie limitu czasu nic nie jest udowodnione
+        finalLowerBound = proven ? result.getMetrics().getTotalCost() : null;
+        if (result == null) {
+            result = incumbent.getState();
+        }
+        statistics.recordRace(result != null ? incumbent.getSource() : null, incumbent.getImprovements(), proven);
+        if (result == null) {
+            throw failure != null ? failure : new BusinessException("PortfolioSearchAlgorithm has not found any valid state", SOLUTION_NOT_FOUND);
+        }
+        return result;
+    }
+
+    private void runQuietly(LocalSearchAlgorithm localSearch) {
+        try {
+            localSearch.calculate();
+        } catch (BusinessException ignored) {
+            // przeszukiwanie lokalne tylko zasila incumbenta
+        }
+    }
+}
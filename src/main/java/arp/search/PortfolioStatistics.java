@@ -0,0 +1,48 @@
+package arp.search;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Zbiorcze statystyki wyścigów silników - do strojenia portfela.
+ */
+public class PortfolioStatistics {
+    private final Map<SearchStrategyType, Long> wins = new EnumMap<>(SearchStrategyType.class);
+    private final Map<SearchStrategyType, Long> improvements = new EnumMap<>(SearchStrategyType.class);
+    private long races;
+    private long provenOptimal;
+    private long deadlineExpired;
+
+    public synchronized void recordRace(SearchStrategyType winner, Map<SearchStrategyType, Long> raceImprovements, boolean proven) {
+        races++;
+        if (proven) {
+            provenOptimal++;
+        } else {
+            deadlineExpired++;
+        }
+        if (winner != null) {
+            wins.merge(winner, 1L, Long::sum);
+        }
+        raceImprovements.forEach((type, count) -> improvements.merge(type, count, Long::sum));
+    }
+
+    public synchronized Map<SearchStrategyType, Long> getWins() {
+        return new EnumMap<>(wins);
+    }
+
+    public synchronized Map<SearchStrategyType, Long> getImprovements() {
+        return new EnumMap<>(improvements);
+    }
+
+    public synchronized long getRaces() {
+        return races;
+    }
+
+    public synchronized long getProvenOptimal() {
+        return provenOptimal;
+    }
+
+    public synchronized long getDeadlineExpired() {
+        return deadlineExpired;
+    }
+}
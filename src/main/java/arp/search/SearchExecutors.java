@@ -0,0 +1,46 @@
+package arp.search;
+
+import arp.exception.OverloadedException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Wspólne dla całego procesu pule wątków przeszukiwań zamiast puli tworzonej w każdym żądaniu.
+ * Silniki (wyścig portfolio, poddrzewa dekompozycji) i łańcuchy przeszukiwania lokalnego mają osobne pule - silnik przeszukiwania
+ * lokalnego czeka na swoje łańcuchy, więc w jednej puli mógłby czekać na zadania stojące za nim w kolejce.
+ * Pełna kolejka odrzuca przeszukiwanie odpowiedzią 429.
+ */
+public final class SearchExecutors {
+    private static final int PROCESSORS = Runtime.getRuntime().availableProcessors();
+    private static final int QUEUE_CAPACITY = 256;
+
+    private static final ExecutorService ENGINES = create("arp-engine-", Math.max(3, PROCESSORS));
+    private static final ExecutorService CHAINS = create("arp-chain-", PROCESSORS);
+
+    private SearchExecutors() {
+    }
+
+    public static ExecutorService engines() {
+        return ENGINES;
+    }
+
+    public static ExecutorService chains() {
+        return CHAINS;
+    }
+
+    private static ExecutorService create(String name, int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+            Thread thread = new Thread(runnable, name + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, (runnable, executor) -> {
+            throw new OverloadedException("Too many searches, try again later", 1);
+        });
+    }
+}
@@ -0,0 +1,37 @@
+package arp.search;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Postęp przeszukiwania odczytywany z innego wątku (np. przez API zadań).
+ */
+public class SearchProgress {
+    private final AtomicLong expandedStates = new AtomicLong();
+    private volatile int frontierSize;
+    private volatile Incumbent incumbent;
+
+    public void stateExpanded(int frontierSize) {
+        expandedStates.incrementAndGet();
+        this.frontierSize = frontierSize;
+    }
+
+    public long getExpandedStates() {
+        return expandedStates.get();
+    }
+
+    public int getFrontierSize() {
+        return frontierSize;
+    }
+
+    public void setIncumbent(Incumbent incumbent) {
+        this.incumbent = incumbent;
+    }
+
+    /**
+     * Koszt najlepszej znalezionej siatki albo null, gdy żadnej jeszcze nie ma.
+     */
+    public Double getIncumbentCost() {
+        Incumbent current = incumbent;
+        return current != null && current.getState() != null ? current.getTotalCost() : null;
+    }
+}
@@ -0,0 +1,15 @@
+package arp.search;
+
+/**
+ * Silnik wyszukujący najtańszą poprawną siatkę (minimalny CAPEX).
+ */
+public interface SearchStrategy {
+    State calculate();
+
+    /**
+     * Dolne ograniczenie kosztu udowodnione przez ostatnie calculate() albo null, gdy silnik nie dowodzi optymalności.
+     */
+    default Double getFinalLowerBound() {
+        return null;
+    }
+}
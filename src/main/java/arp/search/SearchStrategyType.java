@@ -0,0 +1,5 @@
+package arp.search;
+
+public enum SearchStrategyType {
+    BEST_FIRST, GREEDY_BRANCH_AND_BOUND, LOCAL_SEARCH, PORTFOLIO, DECOMPOSITION
+}
@@ -6,11 +6,15 @@ import arp.dto.grid.EnergySource;
 import arp.dto.grid.Storage;
 import arp.service.CalculateYearAlgorithm;
 import arp.service.Data;
+import arp.service.SimulationSummary;
 import arp.service.Utils;
 import arp.service.YearResult;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @lombok.Data
@@ -22,6 +26,12 @@ public class State implements Comparable<State>, Cloneable {
 
     private List<Storage> storages;
 
+    /**
+     * Liczba kupionych sztuk każdej pozycji katalogu. Rabat ilościowy zależy od niej, a nie od ścieżki
+     * previousState, którą przeszukiwanie lokalne ucina. Mapa jest wspólna z poprzednikiem do pierwszego zakupu.
+     */
+    private Map<String, Integer> purchases = Collections.emptyMap();
+
     public State(Data data) {
         this.previousState = null;
         this.action = null;
@@ -53,6 +63,7 @@ public class State implements Comparable<State>, Cloneable {
         State state = this.clone();
         state.previousState = this;
         state.action = action;
+        state.purchases = purchases;
 
         Metrics metrics = new Metrics();
         metrics.setGood(false);
@@ -72,6 +83,9 @@ public class State implements Comparable<State>, Cloneable {
     }
 
     private Metrics calculateMetrics(Data data) {
+        if (data.getSimulationCache() != null) {
+            return calculateMetrics(data.getSimulationCache().simulate(data));
+        }
         CalculateYearAlgorithm calculateYearAlgorithm = new CalculateYearAlgorithm(data);
         YearResult yearResult = calculateYearAlgorithm.calculate();
         Metrics metrics = new Metrics();
@@ -79,10 +93,58 @@ public class State implements Comparable<State>, Cloneable {
         metrics.setMinHourHydrogenLevel(yearResult.getMinHourHydrogenLevel());
         metrics.setTotalCost(getPreviousTotalCosts() + (action != null ? action.getActionCost(): 0));
         metrics.setTotalHydrogenWasted(yearResult.getTotalHydrogenWasted());
+        metrics.setSumHydrogenOverflow(yearResult.getSumHydrogenOverflow());
+        metrics.setSimulatedHours(yearResult.getSteps().size());
         metrics.setYearResult(yearResult);
         return metrics;
     }
 
+    /**
+     * Metryki z podsumowania z pamięci symulacji - bez kroków godzinowych, yearResult zostaje pusty.
+     */
+    private Metrics calculateMetrics(SimulationSummary summary) {
+        Metrics metrics = new Metrics();
+        metrics.setGood(summary.isGood());
+        metrics.setMinHourHydrogenLevel(summary.getMinHourHydrogenLevel());
+        metrics.setTotalCost(getPreviousTotalCosts() + (action != null ? action.getActionCost(): 0));
+        metrics.setTotalHydrogenWasted(summary.getTotalHydrogenWasted());
+        metrics.setSumHydrogenOverflow(summary.getSumHydrogenOverflow());
+        metrics.setSimulatedHours(summary.getSimulatedHours());
+        return metrics;
+    }
+
+    /**
+     * Pełna symulacja z krokami godzinowymi dla stanu, którego metryki przyszły z pamięci symulacji.
+     */
+    public YearResult calculateYearResult(Data data) {
+        if (metrics.getYearResult() == null) {
+            Data clonedData = data.clone(false);
+            clonedData.setStorages(storages);
+            clonedData.setSimulationCache(null);
+            metrics.setYearResult(new CalculateYearAlgorithm(clonedData).calculate());
+        }
+        return metrics.getYearResult();
+    }
+
+    /**
+     * Kopia z własnymi metrykami - przeliczanie kopii nie zmienia stanu oddanego wywołującemu.
+     */
+    public State copy() {
+        State state = clone();
+        state.metrics = metrics.copy();
+        return state;
+    }
+
+    public int getPurchases(ActionType type, String catalogItem) {
+        return purchases.getOrDefault(type + ":" + catalogItem, 0);
+    }
+
+    public void addPurchase(ActionType type, String catalogItem) {
+        Map<String, Integer> updated = new HashMap<>(purchases);
+        updated.merge(type + ":" + catalogItem, 1, Integer::sum);
+        purchases = updated;
+    }
+
     private double getPreviousTotalCosts() {
         return previousState != null ? previousState.getMetrics().getTotalCost() : 0.0;
     }
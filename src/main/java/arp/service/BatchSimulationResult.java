@@ -0,0 +1,15 @@
+package arp.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Wynik jednej siatki z partii - yearResult albo error.
+ */
+@Data
+@AllArgsConstructor
+public class BatchSimulationResult {
+    private int index;
+    private YearResult yearResult;
+    private RuntimeException error;
+}
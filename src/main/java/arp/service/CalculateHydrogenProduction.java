@@ -0,0 +1,63 @@
+package arp.service;
+
+import arp.dto.grid.Electrolyzer;
+
+import java.util.List;
+
+import static arp.service.Utils.getHoursOfSimulation;
+
+/**
+ * Godzinowa produkcja wodoru elektrolizerów bez symulowania magazynów.
+ * Przebieg akumulatora jest taki sam jak w CalculateNextStepAlgorithm (łącznie z zaokrąglaniem poziomu),
+ * bo produkcja elektrolizera nie zależy od stanu magazynu wodoru.
+ */
+public class CalculateHydrogenProduction {
+    private final Data data;
+
+    public CalculateHydrogenProduction(Data data) {
+        this.data = data;
+    }
+
+    /**
+     * Indeks i to produkcja w kroku liczonym z godziny i. Zwraca null, gdy któremuś
+     * elektrolizerowi zabraknie mocy - wtedy symulacja i tak zostałaby przerwana.
+     */
+    public double[] calculate(List<Electrolyzer> electrolyzers) {
+        double[] production = new double[Math.max(getHoursOfSimulation(data) - 1, 0)];
+        for (Electrolyzer electrolyzer : electrolyzers) {
+            double accumulatorLevel = 0;
+            double maxSize = electrolyzer.getAccumulator().getAccumulatorMaxSize();
+            for (int hour = 0; hour < production.length; hour++) {
+                double level = accumulatorLevel + electrolyzer.getSummaryEnergyProduction(data, hour);
+                if (level < electrolyzer.getMinPower()) {
+                    return null;
+                }
+                double usedPower = Math.min(electrolyzer.getMaxPower(), level);
+                level = Math.min(level - usedPower, maxSize);
+                accumulatorLevel = Utils.standardRound(level);
+                production[hour] += usedPower * electrolyzer.getEfficiency();
+            }
+        }
+        return production;
+    }
+
+    /**
+     * Najwyższy poziom akumulatora przy nieograniczonej pojemności. Większy akumulator
+     * niczego już nie zmienia, więc dalsze jego powiększanie tylko podnosi koszt.
+     */
+    public double calculateAccumulatorSaturation(Electrolyzer electrolyzer) {
+        int hours = getHoursOfSimulation(data) - 1;
+        double accumulatorLevel = 0;
+        double saturation = 0;
+        for (int hour = 0; hour < hours; hour++) {
+            double level = accumulatorLevel + electrolyzer.getSummaryEnergyProduction(data, hour);
+            if (level < electrolyzer.getMinPower()) {
+                break;
+            }
+            level -= Math.min(electrolyzer.getMaxPower(), level);
+            accumulatorLevel = Utils.standardRound(level);
+            saturation = Math.max(saturation, accumulatorLevel);
+        }
+        return saturation;
+    }
+}
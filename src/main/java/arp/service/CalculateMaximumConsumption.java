@@ -2,39 +2,208 @@ package arp.service;
 
 import arp.dto.grid.Electrolyzer;
 import arp.dto.grid.Storage;
+import arp.exception.BusinessException;
+import arp.exception.FailureReason;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import static arp.service.Utils.createTableOfValue;
 
 public class CalculateMaximumConsumption {
+    private static final int MAX_ITERATIONS = 100;
     private double epsilon = 0.01;
     private final Data data;
+    private final ForkJoinPool pool = ForkJoinPool.commonPool();
+    private final int parallelism = Math.max(1, ForkJoinPool.getCommonPoolParallelism());
+    private CancellationToken cancellationToken = new CancellationToken();
 
     public CalculateMaximumConsumption(Data data) {
         this.data = data;
     }
 
+    public void setCancellationToken(CancellationToken cancellationToken) {
+        this.cancellationToken = cancellationToken;
+    }
+
+    /**
+     * Dla jednego magazynu wynik liczymy bezpośrednio z produkcji wodoru, a pełna symulacja roku jest tylko jedna.
+     * Bisekcja zostaje dla wielu magazynów i gdy wynik bezpośredni nie przejdzie symulacji.
+     */
     public MaxConsumptionYearResult calculate() {
+        Double consumption = calculateDirectly();
+        if (consumption != null) {
+            YearResult result = calculate(consumption);
+            if (result.isGood()) {
+                return new MaxConsumptionYearResult(result, Utils.standardRound(consumption));
+            }
+        }
+        return calculateByBisection();
+    }
+
+    /**
+     * Poziom magazynu przy stałym zużyciu c: L(h+1) = min(pojemność, r * L(h) + produkcja(h) - c), r = 1 - strata/24.
+     * Od ostatniego zapełnienia magazynu w godzinie t poziom jest liniowy w c: r^(h-t) * pojemność + A - c * G,
+     * gdzie A i G to sumy produkcji i jedynek ważone potęgami r. Zaczynamy od górnego oszacowania i przy pierwszym
+     * spadku poniżej zera bierzemy c, przy którym ten odcinek kończy się dokładnie zerem. Mniejsze c tylko podnosi
+     * poziomy, więc kolejne przybliżenia maleją i nie schodzą poniżej szukanego maksimum - zwykle wystarcza kilka przejść.
+     */
+    private Double calculateDirectly() {
+        if (data.getStorages().size() != 1) {
+            return null;
+        }
+        Storage storage = data.getStorages().get(0);
+        double[] production = new CalculateHydrogenProduction(data).calculate(storage.getElectrolyzers());
+        double retention = 1.0 - data.getGridConstants().getStorageLoss() / 24.0;
+        if (production == null || retention <= 0) {
+            return null;
+        }
+        double consumption = getMax();
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            cancellationToken.throwIfCancelled();
+            double next = findViolation(production, retention, storage.getMaxCapacity(), consumption);
+            if (Double.isNaN(next)) {
+                return roundDown(production, retention, storage.getMaxCapacity(), consumption);
+            }
+            consumption = next;
+        }
+        return null;
+    }
+
+    /**
+     * @return zużycie, przy którym pierwszy odcinek z brakiem wodoru kończy się zerem, albo NaN gdy brakow nie ma
+     */
+    private double findViolation(double[] production, double retention, double capacity, double consumption) {
+        double level = 0;
+        double anchor = 0;
+        double anchorDecay = 1;
+        double weightedProduction = 0;
+        double weightedHours = 0;
+        for (double hourProduction : production) {
+            level = retention * level + hourProduction - consumption;
+            anchorDecay *= retention;
+            weightedProduction = retention * weightedProduction + hourProduction;
+            weightedHours = retention * weightedHours + 1;
+            if (level > capacity) {
+                level = capacity;
+                anchor = capacity;
+                anchorDecay = 1;
+                weightedProduction = 0;
+                weightedHours = 0;
+            } else if (level < 0) {
+                return Math.max(0, (anchorDecay * anchor + weightedProduction) / weightedHours);
+            }
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Wynik jest podawany z dokładnością do 0.001, więc zaokrąglamy w dół do poprawnej wartości.
+     */
+    private Double roundDown(double[] production, double retention, double capacity, double consumption) {
+        double rounded = Math.floor(consumption * 1000 + 1e-6) / 1000;
+        for (int attempt = 0; attempt < 3 && rounded >= 0; attempt++) {
+            if (Double.isNaN(findViolation(production, retention, capacity, rounded))) {
+                return rounded;
+            }
+            rounded -= 0.001;
+        }
+        return null;
+    }
+
+    /**
+     * Przeszukiwanie k-arne: w każdej rundzie k poziomów zużycia jest symulowanych równolegle na puli fork-join.
+     * Wynik jest monotoniczny, więc gdy któraś próba się skończy, próby o już przesądzonym wyniku
+     * (wyższe od niepoprawnej, niższe od poprawnej) są przerywane tokenem.
+     */
+    private MaxConsumptionYearResult calculateByBisection() {
         double min = 0;
         double max = getMax();
+        compileGrid();
 
-        YearResult result = calculate(max);
-        if (result.isGood()) {
-            return new MaxConsumptionYearResult(result, Utils.standardRound(max));
+        if (isGood(max, cancellationToken)) {
+            return new MaxConsumptionYearResult(calculate(max), Utils.standardRound(max));
         }
 
         while (min < max - epsilon) {
-            double mid = (max + min) / 2;
+            cancellationToken.throwIfCancelled();
+            double[] probes = new double[parallelism];
+            for (int i = 0; i < parallelism; i++) {
+                probes[i] = min + (max - min) * (i + 1) / (parallelism + 1);
+            }
+            Boolean[] outcomes = evaluate(probes);
+            for (int i = 0; i < parallelism; i++) {
+                if (outcomes[i]) {
+                    min = probes[i];
+                } else {
+                    max = probes[i];
+                    break;
+                }
+            }
+        }
 
-            result = calculate(mid);
+        return new MaxConsumptionYearResult(calculate(min), Utils.standardRound(min));
+    }
 
-            if (result.isGood()) {
-                min = mid;
-            } else {
-                max = mid;
+    private Boolean[] evaluate(double[] probes) {
+        Boolean[] outcomes = new Boolean[probes.length];
+        CancellationToken[] tokens = new CancellationToken[probes.length];
+        for (int i = 0; i < probes.length; i++) {
+            tokens[i] = new CancellationToken(cancellationToken);
+        }
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int i = 0; i < probes.length; i++) {
+            int probe = i;
+            tasks.add(pool.submit(() -> {
+                try {
+                    boolean good = isGood(probes[probe], tokens[probe]);
+                    outcomes[probe] = good;
+                    for (int j = 0; j < probes.length; j++) {
+                        if (good ? j < probe : j > probe) {
+                            tokens[j].cancel();
+                        }
+                    }
+                } catch (BusinessException e) {
+                    if (e.type != FailureReason.CANCELLED) {
+                        throw e;
+                    }
+                }
+            }));
+        }
+        tasks.forEach(ForkJoinTask::join);
+
+        // przerwane próby dostają wynik wynikający z monotoniczności
+        for (int i = 0; i < probes.length; i++) {
+            if (outcomes[i] == null) {
+                boolean lowerFailed = false;
+                for (int j = 0; j < i; j++) {
+                    lowerFailed |= Boolean.FALSE.equals(outcomes[j]);
+                }
+                outcomes[i] = !lowerFailed;
             }
         }
+        return outcomes;
+    }
 
-        return new MaxConsumptionYearResult(result, Utils.standardRound(min));
+    /**
+     * Produkcja elektrolizerów jest liczona raz przed rozdzieleniem prób - potem wątki tylko ją czytają.
+     */
+    private void compileGrid() {
+        for (Storage storage : data.getStorages()) {
+            for (Electrolyzer electrolyzer : storage.getElectrolyzers()) {
+                electrolyzer.getSummaryEnergyProduction(data, 0);
+            }
+        }
+    }
+
+    private boolean isGood(double value, CancellationToken cancellationToken) {
+        Data midData = cloneDataWithConsumption(value);
+        if (midData.getSimulationCache() != null) {
+            return midData.getSimulationCache().simulate(midData, cancellationToken).isGood();
+        }
+        return new CalculateYearAlgorithm(midData, cancellationToken).calculate().isGood();
     }
 
     private YearResult calculate(double value) {
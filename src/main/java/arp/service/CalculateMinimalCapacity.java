@@ -0,0 +1,37 @@
+package arp.service;
+
+/**
+ * Najmniejsza pojemność pojedynczego magazynu, przy której poziom wodoru nigdy nie spada poniżej zera.
+ * Przejście od końca roku: req(k) = max(0, (req(k+1) - bilans(k)) / (1 - strata/24)) to poziom potrzebny
+ * w godzinie k, żeby przetrwać resztę roku. Magazyn o pojemności max req(k) zawsze go utrzymuje,
+ * a mniejszy nie może - odpowiedź wychodzi z jednego przejścia zamiast z symulacji dla każdej pojemności.
+ */
+public class CalculateMinimalCapacity {
+    private final Data data;
+
+    public CalculateMinimalCapacity(Data data) {
+        this.data = data;
+    }
+
+    /**
+     * @param hydrogenProduction produkcja z CalculateHydrogenProduction
+     * @return minimalna pojemność, Double.POSITIVE_INFINITY gdy żadna pojemność nie wystarczy
+     * albo Double.NaN gdy magazyn traci cały wodór w ciągu godziny
+     */
+    public double calculate(double[] hydrogenProduction) {
+        double retention = 1.0 - data.getGridConstants().getStorageLoss() / 24.0;
+        if (retention <= 0) {
+            return Double.NaN;
+        }
+        double[] consumption = data.getVehiclesConsumption();
+        double required = 0;
+        double capacity = 0;
+        for (int hour = hydrogenProduction.length - 1; hour >= 0; hour--) {
+            double balance = hydrogenProduction[hour] - consumption[hour];
+            required = Math.max(0, (required - balance) / retention);
+            capacity = Math.max(capacity, required);
+        }
+        // magazyn startuje pusty
+        return required > 1e-9 ? Double.POSITIVE_INFINITY : capacity;
+    }
+}
@@ -16,14 +16,23 @@ import static arp.exception.FailureReason.LACK_OF_HYDROGEN;
 import static arp.service.Utils.getHoursOfSimulation;
 
 public class CalculateYearAlgorithm {
+    private static final int CANCELLATION_CHECK_HOURS = 256;
+
     private final Data data;
     private final CalculateNextStepAlgorithm calculateNextStepAlgorithm;
+    private final CancellationToken cancellationToken;
+    private StepListener stepListener;
     private List<Warning> warnings;
     private List<BusinessError> errors;
 
 
     public CalculateYearAlgorithm(Data data) {
+        this(data, null);
+    }
+
+    public CalculateYearAlgorithm(Data data, CancellationToken cancellationToken) {
         this.data = data;
+        this.cancellationToken = cancellationToken;
         this.calculateNextStepAlgorithm = new CalculateNextStepAlgorithm(data);
         this.warnings = new ArrayList<>();
         this.errors = new ArrayList<>();
@@ -35,12 +44,15 @@ public class CalculateYearAlgorithm {
         double sumHydrogenOverflow = 0;
         double sumPowerOverflow = 0;
         List<Step> steps = new ArrayList<>();
-        steps.add(step);
+        addStep(steps, step);
 
         for (int hour = 1; hour < getHoursOfSimulation(data); ++hour) {
+            if (cancellationToken != null && hour % CANCELLATION_CHECK_HOURS == 0) {
+                cancellationToken.throwIfCancelled();
+            }
             try {
                 Step newStep = calculateNextStepAlgorithm.calculate(step);
-                steps.add(newStep);
+                addStep(steps, newStep);
                 minHourHydrogenLevel = Math.min(minHourHydrogenLevel, newStep.getStorageStates().values().stream().mapToDouble(StorageState::getCurrentLevel).sum());
                 sumHydrogenOverflow += newStep.getOverflowHydrogenProduction();
                 sumPowerOverflow += newStep.getOverflowPowerProduction();
@@ -58,6 +70,18 @@ public class CalculateYearAlgorithm {
         return new YearResult(minHourHydrogenLevel, steps, sumHydrogenOverflow, sumPowerOverflow, warnings, errors, step.getTotalHydrogenWasted());
     }
 
+    public void setStepListener(StepListener stepListener) {
+        this.stepListener = stepListener;
+    }
+
+    private void addStep(List<Step> steps, Step step) {
+        if (stepListener != null) {
+            stepListener.onStep(step);
+        } else {
+            steps.add(step);
+        }
+    }
+
     private void finalValidation(double minHourHydrogenLevel, double sumHydrogenOverflow, double sumPowerOverflow, double totalHydrogenWasted) {
         if (minHourHydrogenLevel < 0) {
             errors.add(new BusinessError(LACK_OF_HYDROGEN, "During the year lowest hydrogen level during was: " + Utils.standardRound(minHourHydrogenLevel)));
@@ -0,0 +1,37 @@
+package arp.service;
+
+import arp.exception.BusinessException;
+import arp.exception.FailureReason;
+
+/**
+ * Flaga przerwania obliczeń sprawdzana cyklicznie przez długo działające algorytmy.
+ */
+public class CancellationToken {
+    private final CancellationToken parent;
+    private volatile boolean cancelled;
+
+    public CancellationToken() {
+        this(null);
+    }
+
+    /**
+     * Token przerywany razem z nadrzędnym - np. wyścig silników wewnątrz zadania anulowanego przez klienta.
+     */
+    public CancellationToken(CancellationToken parent) {
+        this.parent = parent;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled || parent != null && parent.isCancelled();
+    }
+
+    public void throwIfCancelled() {
+        if (isCancelled()) {
+            throw new BusinessException("Calculation has been cancelled", FailureReason.CANCELLED);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package arp.service;
 
 import arp.dto.GridConstants;
 import arp.dto.GridCosts;
+import arp.dto.catalog.ComponentCatalog;
 import arp.dto.grid.Storage;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
@@ -20,6 +21,8 @@ public class Data implements Cloneable {
     private double[] vehiclesConsumption; // godzina w roku
     private double pvMultiplier[] = null;
     private double windMultiplier[] = null;
+    private SimulationCache simulationCache; // wspólna między żądaniami, może być null
+    private ComponentCatalog catalog; // może być null - wtedy kroki o jedną jednostkę
 
     @Override
     public Data clone()  {
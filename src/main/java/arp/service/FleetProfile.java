@@ -0,0 +1,122 @@
+package arp.service;
+
+import arp.dto.grid.Vehicle;
+import arp.dto.util.WeeklyPeriod;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Flota skompilowana do tygodniowego szablonu 168 godzin. Zużycie w godzinie to
+ * demandFactor * fuel[h] + hydrogenTransportLoss * transport[h], a rok jest okresowym powieleniem tygodnia.
+ * Rozwinięte tablice roczne są współdzielone między żądaniami - nie wolno ich modyfikować.
+ */
+public class FleetProfile {
+    public static final int HOURS_OF_WEEK = 24 * 7;
+    private static final int MAX_EXPANSIONS = 8;
+
+    private final double[] fuel = new double[HOURS_OF_WEEK];
+    private final double[] transport = new double[HOURS_OF_WEEK];
+    private final Map<String, double[]> expansions = new LinkedHashMap<String, double[]>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, double[]> eldest) {
+            return size() > MAX_EXPANSIONS;
+        }
+    };
+
+    public FleetProfile(List<Vehicle> vehicles) {
+        for (Vehicle vehicle : vehicles) {
+            boolean[] weekly = calculateWeekly(vehicle.getWeeklyWork());
+            double vehicleFuel = vehicle.getCount() * vehicle.getFuelConsumption();
+            double vehicleTransport = vehicle.getDistance();
+            for (int hour = 0; hour < HOURS_OF_WEEK; hour++) {
+                if (weekly[hour]) {
+                    fuel[hour] += vehicleFuel;
+                    transport[hour] += vehicleTransport;
+                }
+            }
+        }
+    }
+
+    /**
+     * Kanoniczny opis floty - nie zależy od kolejności pojazdów ani ich identyfikatorów.
+     */
+    public static String getKey(List<Vehicle> vehicles) {
+        return vehicles.stream()
+                .map(v -> v.getCount() + ":" + v.getFuelConsumption() + ":" + v.getDistance() + ":" + toHex(calculateWeekly(v.getWeeklyWork())))
+                .sorted()
+                .collect(Collectors.joining(";"));
+    }
+
+    public double getHourlyConsumption(int hour, double hydrogenTransportLoss, double demandFactor) {
+        int hourOfWeek = hour % HOURS_OF_WEEK;
+        return demandFactor * fuel[hourOfWeek] + transport[hourOfWeek] * hydrogenTransportLoss;
+    }
+
+    public synchronized double[] getYearlyConsumption(double hydrogenTransportLoss, double demandFactor) {
+        return expansions.computeIfAbsent(hydrogenTransportLoss + ":" + demandFactor, key -> {
+            double[] consumption = new double[Utils.HOURS_OF_YEAR];
+            for (int hour = 0; hour < consumption.length; hour++) {
+                consumption[hour] = getHourlyConsumption(hour, hydrogenTransportLoss, demandFactor);
+            }
+            return consumption;
+        });
+    }
+
+    /**
+     * Maksimum roku jest maksimum tygodnia, bo rok zawiera każdą godzinę tygodnia.
+     */
+    public double getMaxConsumption(double hydrogenTransportLoss, double demandFactor) {
+        double max = 0;
+        for (int hour = 0; hour < HOURS_OF_WEEK; hour++) {
+            max = Math.max(max, getHourlyConsumption(hour, hydrogenTransportLoss, demandFactor));
+        }
+        return max;
+    }
+
+    /**
+     * Zużycie w godzinach [0, hours) bez rozwijania roku.
+     */
+    public double getConsumption(int hours, double hydrogenTransportLoss, double demandFactor) {
+        double week = 0;
+        double rest = 0;
+        for (int hour = 0; hour < HOURS_OF_WEEK; hour++) {
+            double current = getHourlyConsumption(hour, hydrogenTransportLoss, demandFactor);
+            week += current;
+            if (hour < hours % HOURS_OF_WEEK) {
+                rest += current;
+            }
+        }
+        return (hours / HOURS_OF_WEEK) * week + rest;
+    }
+
+    static boolean[] calculateWeekly(List<WeeklyPeriod> periods) {
+        boolean[] weekly = new boolean[HOURS_OF_WEEK];
+        for (WeeklyPeriod p : periods) {
+            if (p.getDayFrom() < 0 || p.getDayTo() > 6 || p.getDayFrom() > p.getDayTo())
+                continue;
+            if (p.getHourFrom() < 0 || p.getHourTo() > 23 || p.getHourFrom() > p.getHourTo())
+                continue;
+            for (int i = p.getDayFrom(); i <= p.getDayTo(); i++) {
+                for (int j = p.getHourFrom(); j <= p.getHourTo(); j++) {
+                    weekly[i * 24 + j] = true;
+                }
+            }
+        }
+        return weekly;
+    }
+
+    private static String toHex(boolean[] weekly) {
+        StringBuilder hex = new StringBuilder();
+        for (int i = 0; i < weekly.length; i += 4) {
+            int nibble = 0;
+            for (int j = 0; j < 4; j++) {
+                nibble = nibble << 1 | (weekly[i + j] ? 1 : 0);
+            }
+            hex.append(Character.forDigit(nibble, 16));
+        }
+        return hex.toString();
+    }
+}
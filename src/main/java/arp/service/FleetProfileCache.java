@@ -0,0 +1,57 @@
+package arp.service;
+
+import arp.dto.grid.Vehicle;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Skompilowane floty (LRU) według kanonicznego opisu floty.
+ */
+public class FleetProfileCache {
+    private final Map<String, FleetProfile> entries;
+    private long hits;
+    private long misses;
+
+    public FleetProfileCache() {
+        this(256);
+    }
+
+    public FleetProfileCache(int maxEntries) {
+        this.entries = new LinkedHashMap<String, FleetProfile>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, FleetProfile> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public FleetProfile get(List<Vehicle> vehicles) {
+        String key = FleetProfile.getKey(vehicles);
+        synchronized (this) {
+            FleetProfile profile = entries.get(key);
+            if (profile != null) {
+                hits++;
+                return profile;
+            }
+            misses++;
+        }
+        FleetProfile profile = new FleetProfile(vehicles);
+        synchronized (this) {
+            return entries.computeIfAbsent(key, k -> profile);
+        }
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized int getSize() {
+        return entries.size();
+    }
+}
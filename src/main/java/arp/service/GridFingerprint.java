@@ -0,0 +1,131 @@
+package arp.service;
+
+import arp.dto.GridConstants;
+import arp.dto.grid.Electrolyzer;
+import arp.dto.grid.EnergySource;
+import arp.dto.grid.Storage;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Kanoniczny skrót SHA-256 danych wejściowych. Elementy są sortowane po identyfikatorach, więc kolejność
+ * w żądaniu nie ma znaczenia. Koszty nie wchodzą do skrótu - przy tych samych siatkach i danych
+ * zmieniają tylko cenę rozwiązań, a nie ich poprawność.
+ */
+public class GridFingerprint {
+
+    public static String of(Data data) {
+        Hasher hasher = new Hasher();
+        putTopology(hasher, data.getStorages());
+        putEnvironment(hasher, data);
+        return hasher.toHex();
+    }
+
+    public static String ofTopology(List<Storage> storages) {
+        Hasher hasher = new Hasher();
+        putTopology(hasher, storages);
+        return hasher.toHex();
+    }
+
+    public static String ofEnvironment(Data data) {
+        Hasher hasher = new Hasher();
+        putEnvironment(hasher, data);
+        return hasher.toHex();
+    }
+
+    private static void putTopology(Hasher hasher, List<Storage> storages) {
+        hasher.putInt(storages.size());
+        for (Storage storage : sortedById(storages, Storage::getId)) {
+            hasher.putLong(storage.getId());
+            hasher.putDouble(storage.getMaxCapacity());
+            hasher.putInt(storage.getElectrolyzers().size());
+            for (Electrolyzer electrolyzer : sortedById(storage.getElectrolyzers(), Electrolyzer::getId)) {
+                hasher.putLong(electrolyzer.getId());
+                hasher.putDouble(electrolyzer.getMaxPower());
+                hasher.putDouble(electrolyzer.getMinPower());
+                hasher.putDouble(electrolyzer.getEfficiency());
+                hasher.putDouble(electrolyzer.getAccumulator() != null ? electrolyzer.getAccumulator().getAccumulatorMaxSize() : 0.0);
+                hasher.putArray(electrolyzer.getSummaryEnergyProduction());
+                hasher.putInt(electrolyzer.getSources().size());
+                for (EnergySource source : sortedById(electrolyzer.getSources(), EnergySource::getId)) {
+                    hasher.putLong(source.getId());
+                    hasher.putInt(source.getType() != null ? source.getType().ordinal() : -1);
+                    hasher.putDouble(source.getMaxPower() != null ? source.getMaxPower() : 0.0);
+                    hasher.putDouble(source.getDistance() != null ? source.getDistance() : 0.0);
+                }
+            }
+        }
+    }
+
+    private static void putEnvironment(Hasher hasher, Data data) {
+        GridConstants constants = data.getGridConstants();
+        hasher.putInt(Utils.getHoursOfSimulation(data));
+        hasher.putDouble(constants.getHydrogenTransportLoss());
+        hasher.putDouble(constants.getStorageLoss());
+        hasher.putDouble(constants.getTransmissionLoss());
+        hasher.putDouble(constants.getElectrolyzerEfficiency());
+        hasher.putArray(constants.getPvDailyProduction());
+        hasher.putArray(constants.getWindDailyProduction());
+        hasher.putArray(data.getPvMultiplier());
+        hasher.putArray(data.getWindMultiplier());
+        hasher.putArray(data.getVehiclesConsumption());
+    }
+
+    private static <T> List<T> sortedById(List<T> elements, Function<T, Long> id) {
+        return elements.stream()
+                .sorted(Comparator.comparing(id, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .collect(Collectors.toList());
+    }
+
+    private static class Hasher {
+        private final MessageDigest digest;
+        private final ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+
+        private Hasher() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private void putLong(Long value) {
+            buffer.clear();
+            buffer.putLong(value != null ? value : Long.MIN_VALUE);
+            digest.update(buffer.array(), 0, Long.BYTES);
+        }
+
+        private void putInt(int value) {
+            putLong((long) value);
+        }
+
+        private void putDouble(double value) {
+            putLong(Double.doubleToLongBits(value));
+        }
+
+        private void putArray(double[] values) {
+            if (values == null) {
+                putInt(-1);
+                return;
+            }
+            putInt(values.length);
+            ByteBuffer bytes = ByteBuffer.allocate(values.length * Double.BYTES);
+            bytes.asDoubleBuffer().put(values);
+            digest.update(bytes.array());
+        }
+
+        private String toHex() {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        }
+    }
+}
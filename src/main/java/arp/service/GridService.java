@@ -3,158 +3,373 @@ package arp.service;
 import arp.dto.GridConstants;
 import arp.dto.GridInput;
 import arp.dto.grid.Electrolyzer;
-import arp.dto.grid.EnergySource;
 import arp.dto.grid.Storage;
 import arp.dto.grid.Vehicle;
-import arp.dto.util.WeeklyPeriod;
-import arp.enums.EnergySourceType;
+import arp.exception.BusinessException;
+import arp.profile.ProfileLoader;
+import arp.profile.ProfileRegistry;
+import arp.profile.WeatherProfile;
+import arp.search.BranchAndBoundAlgorithm;
 import arp.search.BroadFirstSearchAlgorithm;
+import arp.search.CapexLowerBound;
+import arp.search.CapexSolutionCache;
+import arp.search.DecompositionSearchAlgorithm;
+import arp.search.Incumbent;
+import arp.search.LocalSearchAlgorithm;
+import arp.search.ParetoSearchAlgorithm;
+import arp.search.PortfolioSearchAlgorithm;
+import arp.search.PortfolioStatistics;
+import arp.search.SearchProgress;
+import arp.search.SearchStrategy;
+import arp.search.SearchStrategyType;
 import arp.search.State;
-import org.springframework.core.io.ClassPathResource;
-import org.springframework.core.io.Resource;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.util.Arrays;
-import java.util.HashMap;
+import javax.annotation.PreDestroy;
+
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static arp.exception.FailureReason.CANCELLED;
+import static arp.exception.FailureReason.INVALID_INPUT;
+import static arp.exception.FailureReason.SOLUTION_NOT_FOUND;
 
 @Service
 public class GridService {
 
-    private static boolean TEST = true;
+    private static final boolean TEST = true;
+    private static final int BATCH_WORKERS = Runtime.getRuntime().availableProcessors();
+    private static final int BATCH_QUEUE_CAPACITY = 4 * BATCH_WORKERS;
 
-    private CalculateYearAlgorithm calculateYearAlgorithm;
-    private BroadFirstSearchAlgorithm broadFirstSearchAlgorithm;
-    private CalculateMaximumConsumption calculateMaximumConsumption;
-    private static double pvMultiplier[] = null;
-    private static double windMultiplier[] = null;
+    private final PortfolioStatistics portfolioStatistics = new PortfolioStatistics();
+    private final CapexSolutionCache solutionCache = new CapexSolutionCache();
+    private final SimulationCache simulationCache = new SimulationCache();
+    private final FleetProfileCache fleetProfileCache = new FleetProfileCache();
+    private final ProfileRegistry profileRegistry;
+    private final ThreadPoolExecutor batchExecutor;
 
     public GridService() {
-        if (pvMultiplier == null) {
-            try {
-                if (TEST) {
-                    Resource resource = new ClassPathResource("irradiance.txt");
-                    String pvString = new String(Files.readAllBytes(resource.getFile().toPath()));
-                    pvMultiplier = Arrays.stream(pvString.split(",")).mapToDouble(s -> 1.0).toArray();
-                    resource = new ClassPathResource("wind.txt");
-                    String windString = new String(Files.readAllBytes(resource.getFile().toPath()));
-                    windMultiplier = Arrays.stream(windString.split(",")).mapToDouble(s -> 1.0).toArray();
-                } else {
-                    Resource resource = new ClassPathResource("irradiance.txt");
-                    String pvString = new String(Files.readAllBytes(resource.getFile().toPath()));
-                    pvMultiplier = Arrays.stream(pvString.split(",")).mapToDouble(s -> Double.valueOf(s)).toArray();
-                    resource = new ClassPathResource("wind.txt");
-                    String windString = new String(Files.readAllBytes(resource.getFile().toPath()));
-                    windMultiplier = Arrays.stream(windString.split(",")).mapToDouble(s -> Double.valueOf(s)).toArray();
-                }
-            } catch (IOException e) {
-                e.printStackTrace();
+        this(new ProfileRegistry());
+    }
+
+    @Autowired
+    public GridService(ProfileRegistry profileRegistry) {
+        this.profileRegistry = profileRegistry;
+        AtomicInteger threads = new AtomicInteger();
+        // przy pełnej kolejce symulację liczy wątek wywołujący, po zamknięciu puli zadanie nie może zginąć po cichu
+        this.batchExecutor = new ThreadPoolExecutor(BATCH_WORKERS, BATCH_WORKERS, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(BATCH_QUEUE_CAPACITY), runnable -> {
+            Thread thread = new Thread(runnable, "arp-batch-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, (runnable, executor) -> {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("Batch executor has been shut down");
             }
+            runnable.run();
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batchExecutor.shutdownNow();
+    }
+
+    /**
+     * Profile pogodowe wczytane raz na proces przy pierwszym użyciu (leniwa klasa - bez wyścigu przy inicjalizacji).
+     * Tablice są wspólne dla wszystkich żądań i nikt ich nie modyfikuje.
+     */
+    private static final class Profiles {
+        private static final double[] PV;
+        private static final double[] WIND;
+
+        static {
+            WeatherProfile pvProfile = ProfileLoader.load("irradiance");
+            WeatherProfile windProfile = ProfileLoader.load("wind");
+            PV = TEST ? Utils.createTableOfValue(1.0, pvProfile.size()) : pvProfile.toArray();
+            WIND = TEST ? Utils.createTableOfValue(1.0, windProfile.size()) : windProfile.toArray();
         }
     }
 
     public YearResult runSimulation(GridInput gridInput) {
         Data data = getDataAndInit(gridInput);
-        calculateYearAlgorithm = new CalculateYearAlgorithm(data);
+        YearResult yearResult = new CalculateYearAlgorithm(data).calculate();
+        simulationCache.put(data, yearResult);
+        return yearResult;
+    }
+
+    /**
+     * Symulacja bez zbierania kroków - każda godzina trafia od razu do słuchacza, więc wynik ma pustą listę kroków
+     * i nie trafia do SimulationCache.
+     */
+    public YearResult runSimulation(GridInput gridInput, StepListener stepListener) {
+        CalculateYearAlgorithm calculateYearAlgorithm = new CalculateYearAlgorithm(getDataAndInit(gridInput));
+        calculateYearAlgorithm.setStepListener(stepListener);
         return calculateYearAlgorithm.calculate();
     }
 
+    /**
+     * Siatki z partii dzielą stałe, koszty i flotę z sharedInput - profile i zużycie są liczone raz,
+     * a symulacje idą równolegle na wspólnej puli. Partia ma naraz w puli co najwyżej tyle symulacji, ile jest
+     * wątków, więc jedna duża partia nie zajmuje kolejki pozostałym. consumer dostaje wyniki w kolejności
+     * zakończenia, zawsze w wątku wywołującym.
+     */
+    public void runBatchSimulation(GridInput sharedInput, List<List<Storage>> grids,
+                                   Consumer<BatchSimulationResult> consumer) {
+        if (grids.isEmpty()) {
+            return;
+        }
+        GridConstants constants = resolveProfiles(sharedInput.getConstants());
+        double[] vehiclesConsumption = calculateYearlyConsumption(sharedInput.getGrid().getVehicles(),
+                constants.getHydrogenTransportLoss(), 1.0);
+        CompletionService<BatchSimulationResult> completionService = new ExecutorCompletionService<>(batchExecutor);
+        List<Future<BatchSimulationResult>> futures = new ArrayList<>();
+        int submitted = 0;
+        try {
+            for (; submitted < Math.min(grids.size(), BATCH_WORKERS); submitted++) {
+                futures.add(submitBatchSimulation(completionService, sharedInput, constants, vehiclesConsumption, grids, submitted));
+            }
+            for (int i = 0; i < grids.size(); i++) {
+                consumer.accept(completionService.take().get());
+                if (submitted < grids.size()) {
+                    futures.add(submitBatchSimulation(completionService, sharedInput, constants, vehiclesConsumption, grids, submitted++));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Calculation has been cancelled", CANCELLED);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new RuntimeException(e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private Future<BatchSimulationResult> submitBatchSimulation(CompletionService<BatchSimulationResult> completionService,
+                                                                GridInput sharedInput, GridConstants constants,
+                                                                double[] vehiclesConsumption, List<List<Storage>> grids,
+                                                                int index) {
+        return completionService.submit(() -> {
+            try {
+                Data data = createData(sharedInput, constants.clone(), vehiclesConsumption, grids.get(index));
+                return new BatchSimulationResult(index, new CalculateYearAlgorithm(data).calculate(), null);
+            } catch (RuntimeException e) {
+                return new BatchSimulationResult(index, null, e);
+            }
+        });
+    }
+
     public State calculateCapex(GridInput gridInput) {
+        return calculateCapex(gridInput, SearchStrategyType.BEST_FIRST);
+    }
+
+    /**
+     * Poprzednie rozwiązania tych samych danych (innych mogą być tylko koszty) są przeceniane
+     * i zasilają incumbenta, zanim ruszy przeszukiwanie. Przy katalogu ceny nie są liniowe,
+     * więc ani przecenianie, ani ograniczenie z relaksacji ciągłej nie obowiązują.
+     */
+    public State calculateCapex(GridInput gridInput, SearchStrategyType strategyType) {
+        return calculateCapex(gridInput, strategyType, new CancellationToken(), new SearchProgress());
+    }
+
+    public State calculateCapex(GridInput gridInput, SearchStrategyType strategyType, CancellationToken cancellationToken,
+                                SearchProgress progress) {
         Data data = getDataAndInit(gridInput);
-        broadFirstSearchAlgorithm = new BroadFirstSearchAlgorithm(data);
-        return broadFirstSearchAlgorithm.calculate();
+        boolean linearCosts = data.getCatalog() == null || data.getCatalog().isEmpty();
+        String fingerprint = GridFingerprint.of(data);
+        Incumbent incumbent = new Incumbent();
+        progress.setIncumbent(incumbent);
+        if (linearCosts) {
+            solutionCache.seed(fingerprint, data, incumbent, strategyType);
+        }
+        CapexLowerBound lowerBound = linearCosts ? new CapexLowerBound(data) : null;
+        SearchStrategy searchStrategy = createSearchStrategy(strategyType, data, lowerBound, incumbent, cancellationToken, progress);
+        State state = searchStrategy.calculate();
+        if (linearCosts) {
+            List<State> feasibleStates = incumbent.getFeasibleStates();
+            feasibleStates.add(state);
+            solutionCache.store(fingerprint, feasibleStates);
+        }
+        state.calculateYearResult(data);
+        // ograniczenie z korzenia tylko dla silników, które nie dowodzą optymalności
+        Double finalLowerBound = searchStrategy.getFinalLowerBound();
+        state.getMetrics().setCapexLowerBound(finalLowerBound != null ? finalLowerBound :
+                lowerBound != null ? Double.valueOf(lowerBound.getRootBound()) : null);
+        return state;
+    }
+
+    private SearchStrategy createSearchStrategy(SearchStrategyType strategyType, Data data, CapexLowerBound lowerBound,
+                                                Incumbent incumbent, CancellationToken cancellationToken,
+                                                SearchProgress progress) {
+        switch (strategyType) {
+            case GREEDY_BRANCH_AND_BOUND:
+                BranchAndBoundAlgorithm branchAndBoundAlgorithm = new BranchAndBoundAlgorithm(data);
+                branchAndBoundAlgorithm.setIncumbent(incumbent);
+                branchAndBoundAlgorithm.setCancellationToken(cancellationToken);
+                return branchAndBoundAlgorithm;
+            case LOCAL_SEARCH:
+                LocalSearchAlgorithm localSearchAlgorithm = new LocalSearchAlgorithm(data);
+                localSearchAlgorithm.setIncumbent(incumbent);
+                localSearchAlgorithm.setCancellationToken(cancellationToken);
+                return localSearchAlgorithm;
+            case PORTFOLIO:
+                PortfolioSearchAlgorithm portfolioSearchAlgorithm = new PortfolioSearchAlgorithm(data, portfolioStatistics);
+                portfolioSearchAlgorithm.setIncumbent(incumbent);
+                portfolioSearchAlgorithm.setCancellationToken(cancellationToken);
+                portfolioSearchAlgorithm.setProgress(progress);
+                return portfolioSearchAlgorithm;
+            case DECOMPOSITION:
+                DecompositionSearchAlgorithm decompositionSearchAlgorithm = new DecompositionSearchAlgorithm(data);
+                decompositionSearchAlgorithm.setIncumbent(incumbent);
+                decompositionSearchAlgorithm.setCancellationToken(cancellationToken);
+                return decompositionSearchAlgorithm;
+            case BEST_FIRST:
+            default:
+                BroadFirstSearchAlgorithm broadFirstSearchAlgorithm = new BroadFirstSearchAlgorithm(data);
+                broadFirstSearchAlgorithm.setLowerBound(lowerBound);
+                broadFirstSearchAlgorithm.setIncumbent(incumbent);
+                broadFirstSearchAlgorithm.setCancellationToken(cancellationToken);
+                broadFirstSearchAlgorithm.setProgress(progress);
+                return broadFirstSearchAlgorithm;
+        }
+    }
+
+    /**
+     * Krzywa minimalnego CAPEX od skali floty. Poziomy są liczone rosnąco jednym przeszukiwaniem BEST_FIRST,
+     * które po każdym poziomie wznawiamy z jego frontu. Poziom bez rozwiązania kończy krzywą - większe też go nie mają.
+     */
+    public TreeMap<Double, State> calculateDemandSweep(GridInput gridInput, List<Double> demandFactors) {
+        TreeMap<Double, State> result = new TreeMap<>();
+        if (demandFactors.stream().anyMatch(f -> f == null || f < 0)) {
+            throw new BusinessException("Demand factors must be non-negative", INVALID_INPUT);
+        }
+        BroadFirstSearchAlgorithm broadFirstSearchAlgorithm = null;
+        for (Double demandFactor : new TreeSet<>(demandFactors)) {
+            Data data = getDataAndInit(gridInput, demandFactor);
+            State state;
+            try {
+                if (broadFirstSearchAlgorithm == null) {
+                    broadFirstSearchAlgorithm = new BroadFirstSearchAlgorithm(data);
+                    state = broadFirstSearchAlgorithm.calculate();
+                } else {
+                    state = broadFirstSearchAlgorithm.resume(data);
+                }
+            } catch (BusinessException e) {
+                if (e.type != SOLUTION_NOT_FOUND) {
+                    throw e;
+                }
+                break;
+            }
+            state.getMetrics().setCapexLowerBound(broadFirstSearchAlgorithm.getFinalLowerBound());
+            result.put(demandFactor, state);
+        }
+        return result;
+    }
+
+    public List<State> calculateParetoFront(GridInput gridInput) {
+        Data data = getDataAndInit(gridInput);
+        return new ParetoSearchAlgorithm(data).calculate();
     }
 
     public MaxConsumptionYearResult calculateHydrogen(GridInput gridInput) {
+        return calculateHydrogen(gridInput, new CancellationToken());
+    }
+
+    public MaxConsumptionYearResult calculateHydrogen(GridInput gridInput, CancellationToken cancellationToken) {
         Data data = getDataAndInit(gridInput);
-        calculateMaximumConsumption = new CalculateMaximumConsumption(data);
+        CalculateMaximumConsumption calculateMaximumConsumption = new CalculateMaximumConsumption(data);
+        calculateMaximumConsumption.setCancellationToken(cancellationToken);
         return calculateMaximumConsumption.calculate();
     }
 
+    public PortfolioStatistics getPortfolioStatistics() {
+        return portfolioStatistics;
+    }
+
+    public SimulationCache getSimulationCache() {
+        return simulationCache;
+    }
+
     private Data getDataAndInit(GridInput gridInput) {
+        return getDataAndInit(gridInput, 1.0);
+    }
+
+    /**
+     * Żądanie nie jest modyfikowane - obliczenia dostają kopie stałych i magazynów.
+     */
+    private Data getDataAndInit(GridInput gridInput, double demandFactor) {
+        GridConstants constants = resolveProfiles(gridInput.getConstants());
+        return createData(gridInput, constants, calculateYearlyConsumption(gridInput.getGrid().getVehicles(),
+                constants.getHydrogenTransportLoss(), demandFactor), gridInput.getGrid().getStorages());
+    }
+
+    private Data createData(GridInput gridInput, GridConstants constants, double[] vehiclesConsumption,
+                            List<Storage> gridStorages) {
+        List<Storage> storages = gridStorages.stream()
+                .map(Storage::clone)
+                .collect(Collectors.toList());
         Data data = new Data(
-                gridInput.getConstants(),
+                constants,
                 gridInput.getCosts(),
-                gridInput.getGrid().getStorages(),
-                calculateYearlyConsumption(gridInput.getGrid().getVehicles(),
-                        gridInput.getConstants().getHydrogenTransportLoss()),
-                pvMultiplier,
-                windMultiplier
+                storages,
+                vehiclesConsumption,
+                Profiles.PV,
+                Profiles.WIND,
+                simulationCache,
+                gridInput.getCatalog()
         );
-        recalculateElectrolyzers(gridInput.getGrid().getStorages(), data);
+        recalculateElectrolyzers(storages, data);
         return data;
     }
 
+    /**
+     * Profil z rejestru zastępuje tablicę w kopii stałych. Wszystkie żądania dostają tę samą tablicę,
+     * więc skrót środowiska w SimulationCache jest liczony raz na profil.
+     */
+    private GridConstants resolveProfiles(GridConstants constants) {
+        GridConstants resolved = constants.clone();
+        if (constants.getPvProfileId() != null) {
+            resolved.setPvDailyProduction(profileRegistry.get(constants.getPvProfileId()).getValues());
+        }
+        if (constants.getWindProfileId() != null) {
+            resolved.setWindDailyProduction(profileRegistry.get(constants.getWindProfileId()).getValues());
+        }
+        return resolved;
+    }
+
     private void recalculateElectrolyzers(List<Storage> storages, Data data) {
         for (Storage storage : storages)
             for (Electrolyzer electrolyzer : storage.getElectrolyzers())
                 electrolyzer.recalculateSummaryEnergyProduction(data);
     }
 
-    private double[] calculateSummaryEnergyProduction(Electrolyzer electrolyzer, GridConstants constants) {
-        double[] production = new double[365 * 24];
-        for (int i = 0; i < 365 * 24; i++) {
-            double current = 0;
-            for (EnergySource es : electrolyzer.getSources()) {
-                current += es.getMaxPower() * getPowerMultiplier(i, es.getType(), constants)
-                        * (1.0 - constants.getTransmissionLoss());
-            }
-            production[i] = current;
-        }
-        return production;
+    public double[] calculateYearlyConsumption(List<Vehicle> vehicles, Double hydrogenTransportLoss) {
+        return calculateYearlyConsumption(vehicles, hydrogenTransportLoss, 1.0);
     }
 
-    private double getPowerMultiplier(int hour, EnergySourceType type, GridConstants constants) {
-        if (type == EnergySourceType.PV) {
-            if (constants.getPvDailyProduction() != null)
-                return constants.getPvDailyProduction()[hour % constants.getPvDailyProduction().length];
-            else
-                return pvMultiplier[hour];
-        }
-        if (type == EnergySourceType.WIND) {
-            if (constants.getWindDailyProduction() != null)
-                return constants.getWindDailyProduction()[hour % constants.getWindDailyProduction().length];
-            else
-                return windMultiplier[hour];
-        }
-        return 1.0;
+    /**
+     * demandFactor skaluje tylko zużycie pojazdów, straty transportu zależą od odległości, a nie od liczby pojazdów.
+     * Zwracana tablica jest współdzielona przez żądania z tą samą flotą - nie wolno jej modyfikować.
+     */
+    public double[] calculateYearlyConsumption(List<Vehicle> vehicles, Double hydrogenTransportLoss, double demandFactor) {
+        return fleetProfileCache.get(vehicles).getYearlyConsumption(hydrogenTransportLoss, demandFactor);
     }
 
-    public double[] calculateYearlyConsumption(List<Vehicle> vehicles, Double hydrogenTransportLoss) {
-        double[] consumption = new double[365 * 24];
-        Map<Long, boolean[]> weeklyWork = new HashMap<>();
-        for (Vehicle v : vehicles) {
-            weeklyWork.put(v.getId(), calculateWeekly(v.getWeeklyWork()));
-        }
-        for (int i = 0; i < 365 * 24; i++) {
-            double current = 0;
-            for (Vehicle v : vehicles) {
-                if (weeklyWork.get(v.getId())[i % (24 * 7)]) {
-                    current += v.getCount() * v.getFuelConsumption() + v.getDistance() * hydrogenTransportLoss;
-                }
-            }
-            consumption[i] = current;
-        }
-        return consumption;
-    }
-
-    private boolean[] calculateWeekly(List<WeeklyPeriod> periods) {
-        boolean[] weekly = new boolean[24 * 7];
-        Arrays.fill(weekly, false);
-        for (WeeklyPeriod p : periods) {
-            if (p.getDayFrom() < 0 || p.getDayTo() > 6 || p.getDayFrom() > p.getDayTo())
-                continue;
-            if (p.getHourFrom() < 0 || p.getHourTo() > 23 || p.getHourFrom() > p.getHourTo())
-                continue;
-            for (int i = p.getDayFrom(); i <= p.getDayTo(); i++) {
-                for (int j = p.getHourFrom(); j <= p.getHourTo(); j++) {
-                    weekly[i * 7 + j] = true;
-                }
-            }
-        }
-        return weekly;
+    public double calculateMaxConsumption(List<Vehicle> vehicles, Double hydrogenTransportLoss) {
+        return fleetProfileCache.get(vehicles).getMaxConsumption(hydrogenTransportLoss, 1.0);
     }
 }
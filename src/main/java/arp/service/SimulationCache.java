@@ -0,0 +1,380 @@
+package arp.service;
+
+import arp.dto.GridConstants;
+import arp.dto.warming.BusinessError;
+import arp.dto.warming.Warning;
+import arp.exception.FailureReason;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Wspólna dla żądań pamięć podsumowań symulacji (LRU). Klucz to skrót siatki i skrót stałych, profili i zużycia
+ * z GridFingerprint. Skrót danych jest zapamiętywany dla ostatnio użytych tablic, bo w jednym przeszukiwaniu
+ * zmieniają się tylko siatki. Gdy ustawiona jest właściwość arp.simulationCache.directory, podsumowania
+ * trafiają też na dysk i przetrwają restart. Zapis idzie w osobnym wątku, a katalog jest ograniczony rozmiarem -
+ * najdawniej używane pliki są usuwane.
+ */
+public class SimulationCache {
+    public static final String DIRECTORY_PROPERTY = "arp.simulationCache.directory";
+    private static final int FILE_VERSION = 1;
+    private static final long MAX_DISK_BYTES = 256L * 1024 * 1024;
+    private static final int WRITE_QUEUE_CAPACITY = 4096;
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final Logger LOGGER = LoggerFactory.getLogger(SimulationCache.class);
+
+    private final Map<String, SimulationSummary> entries;
+    private final Path directory;
+    private final long maxDiskBytes;
+    private final Map<String, Long> diskFiles = new LinkedHashMap<>(16, 0.75f, true);
+    private final ThreadPoolExecutor writer;
+    private long diskBytes;
+    private volatile Environment lastEnvironment;
+    private long hits;
+    private long diskHits;
+    private long misses;
+    private long evictions;
+
+    public SimulationCache() {
+        this(20_000, System.getProperty(DIRECTORY_PROPERTY) != null ? Paths.get(System.getProperty(DIRECTORY_PROPERTY)) : null);
+    }
+
+    public SimulationCache(int maxEntries, Path directory) {
+        this(maxEntries, directory, MAX_DISK_BYTES);
+    }
+
+    public SimulationCache(int maxEntries, Path directory, long maxDiskBytes) {
+        this.directory = directory;
+        this.maxDiskBytes = maxDiskBytes;
+        this.entries = new LinkedHashMap<String, SimulationSummary>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SimulationSummary> eldest) {
+                if (size() > maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+        if (directory != null) {
+            // pełna kolejka gubi zapis - wpis zostaje w pamięci, a na dysk trafi przy kolejnym wyniku
+            this.writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(WRITE_QUEUE_CAPACITY), runnable -> {
+                Thread thread = new Thread(runnable, "arp-simulation-cache-writer");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.DiscardPolicy());
+            loadDiskFiles();
+        } else {
+            this.writer = null;
+        }
+    }
+
+    public SimulationSummary simulate(Data data) {
+        return simulate(data, null);
+    }
+
+    /**
+     * Przerwana symulacja kończy się wyjątkiem CANCELLED i nie trafia do pamięci.
+     */
+    public SimulationSummary simulate(Data data, CancellationToken cancellationToken) {
+        String key = getKey(data);
+        SimulationSummary summary = get(key);
+        if (summary == null) {
+            summary = SimulationSummary.of(new CalculateYearAlgorithm(data, cancellationToken).calculate());
+            put(key, summary);
+        }
+        return summary;
+    }
+
+    /**
+     * Zapisuje wynik pełnej symulacji policzonej poza pamięcią (np. w /validateGrid).
+     */
+    public void put(Data data, YearResult yearResult) {
+        put(getKey(data), SimulationSummary.of(yearResult));
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getDiskHits() {
+        return diskHits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    public long getDiskBytes() {
+        synchronized (diskFiles) {
+            return diskBytes;
+        }
+    }
+
+    public int getDiskFiles() {
+        synchronized (diskFiles) {
+            return diskFiles.size();
+        }
+    }
+
+    /**
+     * Czeka na zapis wszystkich wpisów zleconych wcześniej.
+     */
+    public void flush() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.submit(() -> {
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RejectedExecutionException e) {
+            LOGGER.warn("Simulation cache flush failed", e);
+        }
+    }
+
+    public synchronized double getHitRate() {
+        long requests = hits + diskHits + misses;
+        return requests > 0 ? (double) (hits + diskHits) / requests : 0.0;
+    }
+
+    private SimulationSummary get(String key) {
+        synchronized (this) {
+            SimulationSummary summary = entries.get(key);
+            if (summary != null) {
+                hits++;
+                return summary;
+            }
+        }
+        SimulationSummary summary = readFromDisk(key);
+        synchronized (this) {
+            if (summary != null) {
+                diskHits++;
+                entries.put(key, summary);
+            } else {
+                misses++;
+            }
+        }
+        return summary;
+    }
+
+    private void put(String key, SimulationSummary summary) {
+        synchronized (this) {
+            entries.put(key, summary);
+        }
+        if (writer != null) {
+            writer.execute(() -> writeToDisk(key, summary));
+        }
+    }
+
+    private String getKey(Data data) {
+        return GridFingerprint.ofTopology(data.getStorages()) + "-" + getEnvironmentFingerprint(data);
+    }
+
+    private String getEnvironmentFingerprint(Data data) {
+        Environment environment = lastEnvironment;
+        if (environment == null || !environment.matches(data)) {
+            environment = new Environment(data, GridFingerprint.ofEnvironment(data));
+            lastEnvironment = environment;
+        }
+        return environment.fingerprint;
+    }
+
+    private SimulationSummary readFromDisk(String key) {
+        if (directory == null) {
+            return null;
+        }
+        synchronized (diskFiles) {
+            if (diskFiles.get(key) == null) {
+                return null;
+            }
+        }
+        try (InputStream stream = Files.newInputStream(directory.resolve(key)); DataInputStream input = new DataInputStream(stream)) {
+            if (input.readInt() != FILE_VERSION) {
+                return null;
+            }
+            double minHourHydrogenLevel = input.readDouble();
+            double sumHydrogenOverflow = input.readDouble();
+            double sumPowerOverflow = input.readDouble();
+            double totalHydrogenWasted = input.readDouble();
+            int simulatedHours = input.readInt();
+            List<Warning> warnings = new ArrayList<>();
+            for (int i = input.readInt(); i > 0; i--) {
+                warnings.add(new Warning(input.readUTF()));
+            }
+            List<BusinessError> errors = new ArrayList<>();
+            for (int i = input.readInt(); i > 0; i--) {
+                errors.add(new BusinessError(FailureReason.valueOf(input.readUTF()), input.readUTF()));
+            }
+            return new SimulationSummary(minHourHydrogenLevel, sumHydrogenOverflow, sumPowerOverflow, totalHydrogenWasted,
+                    simulatedHours, warnings, errors);
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, SimulationSummary summary) {
+        try {
+            Files.createDirectories(directory);
+            // zapis przez plik tymczasowy, żeby równoległy odczyt nie zobaczył połowy wpisu
+            Path temporary = Files.createTempFile(directory, key, TEMPORARY_SUFFIX);
+            try (OutputStream stream = Files.newOutputStream(temporary); DataOutputStream output = new DataOutputStream(stream)) {
+                output.writeInt(FILE_VERSION);
+                output.writeDouble(summary.getMinHourHydrogenLevel());
+                output.writeDouble(summary.getSumHydrogenOverflow());
+                output.writeDouble(summary.getSumPowerOverflow());
+                output.writeDouble(summary.getTotalHydrogenWasted());
+                output.writeInt(summary.getSimulatedHours());
+                output.writeInt(summary.getWarnings().size());
+                for (Warning warning : summary.getWarnings()) {
+                    output.writeUTF(warning.getWarning());
+                }
+                output.writeInt(summary.getErrors().size());
+                for (BusinessError error : summary.getErrors()) {
+                    output.writeUTF(error.getReason().name());
+                    output.writeUTF(error.getMessage());
+                }
+            }
+            Files.move(temporary, directory.resolve(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            addDiskFile(key, Files.size(directory.resolve(key)));
+        } catch (IOException e) {
+            LOGGER.warn("Cannot write simulation summary {} to {}", key, directory, e);
+        }
+    }
+
+    /**
+     * Indeks plików z poprzednich uruchomień, od najdawniej zmienionych. Pozostałości po przerwanych zapisach są usuwane.
+     */
+    private void loadDiskFiles() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> summaries = new ArrayList<>();
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (file.getFileName().toString().endsWith(TEMPORARY_SUFFIX)) {
+                    Files.deleteIfExists(file);
+                } else {
+                    summaries.add(file);
+                }
+            }
+            Map<Path, Long> modified = new HashMap<>();
+            for (Path file : summaries) {
+                modified.put(file, Files.getLastModifiedTime(file).toMillis());
+            }
+            summaries.sort(Comparator.comparing(modified::get));
+            for (Path file : summaries) {
+                addDiskFile(file.getFileName().toString(), Files.size(file));
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Cannot read simulation cache directory {}", directory, e);
+        }
+    }
+
+    private void addDiskFile(String key, long size) {
+        List<String> evicted = new ArrayList<>();
+        synchronized (diskFiles) {
+            Long previous = diskFiles.put(key, size);
+            diskBytes += size - (previous != null ? previous : 0);
+            Iterator<Map.Entry<String, Long>> eldest = diskFiles.entrySet().iterator();
+            while (diskBytes > maxDiskBytes && eldest.hasNext()) {
+                Map.Entry<String, Long> entry = eldest.next();
+                diskBytes -= entry.getValue();
+                evicted.add(entry.getKey());
+                eldest.remove();
+            }
+        }
+        for (String evictedKey : evicted) {
+            try {
+                Files.deleteIfExists(directory.resolve(evictedKey));
+            } catch (IOException e) {
+                LOGGER.warn("Cannot delete simulation summary {} from {}", evictedKey, directory, e);
+            }
+        }
+    }
+
+    /**
+     * Dane porównywane po wartościach - każde żądanie ma własną kopię stałych, a tablice z tej samej
+     * floty i profili są zwykle wspólne, więc zwykle wystarcza porównanie referencji.
+     */
+    private static class Environment {
+        private final Integer hoursOfSimulation;
+        private final double hydrogenTransportLoss;
+        private final double storageLoss;
+        private final double transmissionLoss;
+        private final double electrolyzerEfficiency;
+        private final double[] pvDailyProduction;
+        private final double[] windDailyProduction;
+        private final double[] pvMultiplier;
+        private final double[] windMultiplier;
+        private final double[] vehiclesConsumption;
+        private final String fingerprint;
+
+        private Environment(Data data, String fingerprint) {
+            GridConstants constants = data.getGridConstants();
+            this.hoursOfSimulation = constants.getHoursOfSimulation();
+            this.hydrogenTransportLoss = constants.getHydrogenTransportLoss();
+            this.storageLoss = constants.getStorageLoss();
+            this.transmissionLoss = constants.getTransmissionLoss();
+            this.electrolyzerEfficiency = constants.getElectrolyzerEfficiency();
+            this.pvDailyProduction = constants.getPvDailyProduction();
+            this.windDailyProduction = constants.getWindDailyProduction();
+            this.pvMultiplier = data.getPvMultiplier();
+            this.windMultiplier = data.getWindMultiplier();
+            this.vehiclesConsumption = data.getVehiclesConsumption();
+            this.fingerprint = fingerprint;
+        }
+
+        private boolean matches(Data data) {
+            GridConstants other = data.getGridConstants();
+            return Objects.equals(hoursOfSimulation, other.getHoursOfSimulation())
+                    && hydrogenTransportLoss == other.getHydrogenTransportLoss()
+                    && storageLoss == other.getStorageLoss()
+                    && transmissionLoss == other.getTransmissionLoss()
+                    && electrolyzerEfficiency == other.getElectrolyzerEfficiency()
+                    && sameValues(pvDailyProduction, other.getPvDailyProduction())
+                    && sameValues(windDailyProduction, other.getWindDailyProduction())
+                    && sameValues(pvMultiplier, data.getPvMultiplier())
+                    && sameValues(windMultiplier, data.getWindMultiplier())
+                    && sameValues(vehiclesConsumption, data.getVehiclesConsumption());
+        }
+
+        private static boolean sameValues(double[] values, double[] other) {
+            return values == other || Arrays.equals(values, other);
+        }
+    }
+}
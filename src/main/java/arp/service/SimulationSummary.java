@@ -0,0 +1,38 @@
+package arp.service;
+
+import arp.dto.warming.BusinessError;
+import arp.dto.warming.Warning;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Wynik symulacji roku bez kroków godzinowych - tyle potrzebują silniki wyszukiwania.
+ */
+@Data
+@AllArgsConstructor
+public class SimulationSummary {
+    private double minHourHydrogenLevel;
+    private double sumHydrogenOverflow;
+    private double sumPowerOverflow;
+    private double totalHydrogenWasted;
+    private int simulatedHours;
+    private List<Warning> warnings;
+    private List<BusinessError> errors;
+
+    public static SimulationSummary of(YearResult yearResult) {
+        return new SimulationSummary(
+                yearResult.getMinHourHydrogenLevel(),
+                yearResult.getSumHydrogenOverflow(),
+                yearResult.getSumPowerOverflow(),
+                yearResult.getTotalHydrogenWasted(),
+                yearResult.getSteps().size(),
+                yearResult.getWarnings(),
+                yearResult.getErrors());
+    }
+
+    public boolean isGood() {
+        return errors.size() == 0 && minHourHydrogenLevel >= 0;
+    }
+}
@@ -0,0 +1,9 @@
+package arp.service;
+
+/**
+ * Odbiera kolejne godziny symulacji. Gdy jest ustawiony, CalculateYearAlgorithm nie trzyma kroków w pamięci.
+ */
+@FunctionalInterface
+public interface StepListener {
+    void onStep(Step step);
+}
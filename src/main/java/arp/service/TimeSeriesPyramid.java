@@ -0,0 +1,87 @@
+package arp.service;
+
+import arp.enums.Resolution;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Minimum, maksimum i średnia godzinowej serii na wszystkich poziomach Resolution, liczone w jednym przejściu.
+ */
+public class TimeSeriesPyramid {
+    private final Map<Resolution, Level> levels = new EnumMap<>(Resolution.class);
+    private long bytes;
+
+    public TimeSeriesPyramid(double[] hourly) {
+        levels.put(Resolution.HOUR, new Level(hourly, hourly, hourly));
+        bytes = (long) hourly.length * Double.BYTES;
+        Resolution[] aggregated = {Resolution.FOUR_HOURS, Resolution.DAY, Resolution.WEEK, Resolution.MONTH};
+        double[][] min = new double[aggregated.length][];
+        double[][] max = new double[aggregated.length][];
+        double[][] sum = new double[aggregated.length][];
+        int[][] count = new int[aggregated.length][];
+        for (int l = 0; l < aggregated.length; l++) {
+            int buckets = aggregated[l].getBuckets(hourly.length);
+            min[l] = new double[buckets];
+            max[l] = new double[buckets];
+            sum[l] = new double[buckets];
+            count[l] = new int[buckets];
+        }
+        for (int hour = 0; hour < hourly.length; hour++) {
+            double value = hourly[hour];
+            for (int l = 0; l < aggregated.length; l++) {
+                int bucket = aggregated[l].getBucket(hour);
+                if (count[l][bucket] == 0 || value < min[l][bucket]) {
+                    min[l][bucket] = value;
+                }
+                if (count[l][bucket] == 0 || value > max[l][bucket]) {
+                    max[l][bucket] = value;
+                }
+                sum[l][bucket] += value;
+                count[l][bucket]++;
+            }
+        }
+        for (int l = 0; l < aggregated.length; l++) {
+            for (int bucket = 0; bucket < sum[l].length; bucket++) {
+                sum[l][bucket] /= count[l][bucket];
+            }
+            levels.put(aggregated[l], new Level(min[l], max[l], sum[l]));
+            bytes += 3L * sum[l].length * Double.BYTES;
+        }
+    }
+
+    /**
+     * Przybliżony rozmiar wartości we wszystkich poziomach - poziom HOUR jest jedną tablicą.
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    public Level getLevel(Resolution resolution) {
+        return levels.get(resolution);
+    }
+
+    public static class Level {
+        private final double[] min;
+        private final double[] max;
+        private final double[] mean;
+
+        Level(double[] min, double[] max, double[] mean) {
+            this.min = min;
+            this.max = max;
+            this.mean = mean;
+        }
+
+        public double[] getMin() {
+            return min;
+        }
+
+        public double[] getMax() {
+            return max;
+        }
+
+        public double[] getMean() {
+            return mean;
+        }
+    }
+}
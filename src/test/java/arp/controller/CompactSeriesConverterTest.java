@@ -0,0 +1,67 @@
+package arp.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CompactSeriesConverterTest {
+    public static final String BASE_DIR = "./src/test/resources/";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    public void shouldEncodeSeriesAsBase64Floats() throws Exception {
+        // when
+        JsonNode json = validateGrid(CompactSeriesConverter.FLOAT32);
+
+        // then
+        JsonNode hydrogenProduction = json.get("hydrogenProduction");
+        assertTrue(hydrogenProduction.isTextual());
+        ByteBuffer buffer = ByteBuffer.wrap(Base64.getDecoder().decode(hydrogenProduction.asText()))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(Float.BYTES, buffer.remaining());
+        assertEquals(0.0f, buffer.getFloat());
+        assertTrue(json.get("isValid").isBoolean());
+    }
+
+    @Test
+    public void shouldKeepPlainJsonByDefault() throws Exception {
+        // when
+        JsonNode json = validateGrid(MediaType.APPLICATION_JSON);
+
+        // then
+        assertTrue(json.get("hydrogenProduction").isArray());
+    }
+
+    private JsonNode validateGrid(MediaType accept) throws Exception {
+        String jsonInput = new String(Files.readAllBytes(Paths.get(BASE_DIR + "validate_grid_in.json")));
+        String response = this.mvc.perform(post("/validateGrid")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(accept)
+                .content(jsonInput)
+        ).andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(accept))
+                .andReturn().getResponse().getContentAsString();
+        return new ObjectMapper().readTree(response);
+    }
+}
@@ -1,11 +1,14 @@
 package arp.service;
 
 import arp.dto.GridConstants;
+import arp.dto.GridCosts;
 import arp.dto.grid.Accumulator;
 import arp.dto.grid.Electrolyzer;
 import arp.dto.grid.Storage;
 import org.assertj.core.util.Lists;
 
+import static arp.service.Utils.createTableOfValue;
+
 public class AbstractAlgorithmTest {
     protected Step initStep(Storage storage, Accumulator accumulator, int hour, double storageState, double accumulatorState) {
         Step step = new Step();
@@ -37,6 +40,43 @@ public class AbstractAlgorithmTest {
         return data;
     }
 
+    /**
+     * Pusty magazyn bez elektrolizerów - najtańsza poprawna siatka to PV (2.0) + elektrolizer (5.0).
+     */
+    protected Data buildSearchData(double[] consumption) {
+        GridConstants gridConstants = new GridConstants();
+        gridConstants.setPvDailyProduction(createTableOfValue(1.0));
+        gridConstants.setWindDailyProduction(createTableOfValue(1.0));
+        gridConstants.setElectrolyzerEfficiency(1.0);
+
+        GridCosts gridCosts = new GridCosts();
+        gridCosts.setPvCost(2.0d);
+        gridCosts.setWindCost(3.0d);
+        gridCosts.setStoragePowerCost(10.0d);
+        gridCosts.setElectrolyzerCost(5.0d);
+        gridCosts.setStorageHydrogenCost(10.0d);
+
+        Storage storage = new Storage();
+        storage.setId(1l);
+        storage.setMaxCapacity(0.0);
+
+        Data data = new Data();
+        data.setGridCosts(gridCosts);
+        data.setGridConstants(gridConstants);
+        data.getStorages().add(storage);
+        data.setVehiclesConsumption(consumption);
+        return data;
+    }
+
+    /**
+     * Słońce co drugą godzinę - samo PV nie wystarcza, więc optimum jest droższe niż przy płaskich profilach.
+     */
+    protected Data buildAlternatingSunData() {
+        Data data = buildSearchData(createTableOfValue(1.0));
+        data.getGridConstants().setPvDailyProduction(new double[]{1.0, 0.0});
+        return data;
+    }
+
     protected Electrolyzer buildElectrolyzerWithAccumulator() {
         Electrolyzer electrolyzer = new Electrolyzer();
         electrolyzer.setId(1l);
@@ -0,0 +1,71 @@
+package arp.service;
+
+import arp.admission.AdmissionControl;
+import arp.admission.AdmissionPool;
+import arp.admission.WorkloadType;
+import arp.dto.GridConstants;
+import arp.dto.GridInput;
+import arp.dto.grid.Accumulator;
+import arp.dto.grid.Electrolyzer;
+import arp.dto.grid.EnergySource;
+import arp.dto.grid.Grid;
+import arp.dto.grid.Storage;
+import arp.enums.EnergySourceType;
+import arp.exception.OverloadedException;
+import org.assertj.core.util.Lists;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionControlTest {
+
+    @Test
+    void shouldRejectRequestOverBudget() {
+        //given
+        AdmissionControl admissionControl = new AdmissionControl(4, 0, 0);
+        AdmissionPool.Permit permit = admissionControl.admit(WorkloadType.CAPEX_SEARCH, getInputGrid());
+
+        //when
+        OverloadedException exception = assertThrows(OverloadedException.class,
+                () -> admissionControl.admit(WorkloadType.CAPEX_SEARCH, getInputGrid()));
+        permit.release();
+
+        //then
+        assertTrue(exception.getRetryAfterSeconds() >= 1);
+        AdmissionPool pool = admissionControl.getPools().get(WorkloadType.CAPEX_SEARCH.ordinal());
+        assertEquals(1, pool.getRejected());
+        assertEquals(0, pool.getUnitsInUse());
+        admissionControl.admit(WorkloadType.SIMULATION, getInputGrid()).release();
+    }
+
+    @Test
+    void shouldEstimateWorkFromGridSizeAndHours() {
+        //given
+        GridInput gridInput = getInputGrid();
+
+        //when
+        int simulation = AdmissionControl.estimateUnits(WorkloadType.SIMULATION, gridInput, 1);
+        int capexSweep = AdmissionControl.estimateUnits(WorkloadType.CAPEX_SEARCH, gridInput, 3);
+
+        //then
+        assertEquals(1, simulation);
+        assertEquals(192, capexSweep);
+    }
+
+    private GridInput getInputGrid() {
+        Electrolyzer electrolyzer = new Electrolyzer();
+        electrolyzer.setId(41L);
+        electrolyzer.setAccumulator(new Accumulator(100d));
+        electrolyzer.setSources(Lists.newArrayList(new EnergySource(31L, EnergySourceType.WIND, 100d, 0d),
+                new EnergySource(32L, EnergySourceType.PV, 100d, 0d)));
+        GridConstants gridConstants = new GridConstants();
+        gridConstants.setHoursOfSimulation(Utils.HOURS_OF_YEAR / 2);
+        return new GridInput(new Grid(Collections.emptyList(),
+                Collections.singletonList(new Storage(21L, 1000.0, Collections.singletonList(electrolyzer)))),
+                gridConstants, null);
+    }
+}
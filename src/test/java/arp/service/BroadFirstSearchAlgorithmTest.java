@@ -18,6 +18,7 @@ import java.util.List;
 
 import static arp.service.Utils.createTableOfValue;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class BroadFirstSearchAlgorithmTest extends AbstractAlgorithmTest{
 
@@ -330,6 +331,42 @@ public class BroadFirstSearchAlgorithmTest extends AbstractAlgorithmTest{
     }
 
 
+    @Test
+    public void shouldFindSameCostWithAndWithoutSurrogate() {
+        // given
+        Data data = buildSearchData(createTableOfValue(1.0));
+
+        // when
+        State guided = calculate(data);
+        BroadFirstSearchAlgorithm plain = new BroadFirstSearchAlgorithm(buildSearchData(createTableOfValue(1.0)));
+        plain.setSurrogateEnabled(false);
+        State unguided = plain.calculate();
+
+        // then
+        assertEquals(unguided.getMetrics().getTotalCost(), guided.getMetrics().getTotalCost());
+    }
+
+    @Test
+    public void shouldResumeSearchForHigherDemand() {
+        // given
+        BroadFirstSearchAlgorithm broadFirstSearchAlgorithm = new BroadFirstSearchAlgorithm(buildSearchData(createTableOfValue(1.0)));
+        // bez ograniczenia nie ma incumbenta z relaksacji, więc poprzednie rozwiązanie jest symulowane ponownie
+        broadFirstSearchAlgorithm.setLowerBoundEnabled(false);
+        State lowDemand = broadFirstSearchAlgorithm.calculate();
+        lowDemand.getMetrics().setCapexLowerBound(5.0);
+
+        // when
+        State highDemand = broadFirstSearchAlgorithm.resume(buildSearchData(createTableOfValue(2.0)));
+
+        // then
+        assertEquals(7.0, lowDemand.getMetrics().getTotalCost());
+        assertTrue(lowDemand.getMetrics().isGood());
+        assertEquals(5.0, (double) lowDemand.getMetrics().getCapexLowerBound());
+        assertTrue(highDemand.getMetrics().isGood());
+        assertEquals(calculate(buildSearchData(createTableOfValue(2.0))).getMetrics().getTotalCost(),
+                highDemand.getMetrics().getTotalCost());
+    }
+
     private State calculate(Data data) {
         BroadFirstSearchAlgorithm broadFirstSearchAlgorithm = new BroadFirstSearchAlgorithm(data);
         return broadFirstSearchAlgorithm.calculate();
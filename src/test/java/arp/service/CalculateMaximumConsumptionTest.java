@@ -1,11 +1,14 @@
 package arp.service;
 
 import arp.dto.grid.Electrolyzer;
+import arp.dto.grid.Storage;
+import org.assertj.core.util.Lists;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
 import static arp.service.Utils.createTableOfValue;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class CalculateMaximumConsumptionTest extends AbstractAlgorithmTest {
     @Test
@@ -113,4 +116,57 @@ class CalculateMaximumConsumptionTest extends AbstractAlgorithmTest {
         double expectedValue = 2.0;
         assertEquals(expectedValue, value);
     }
+
+    @Test
+    public void shouldFindExactConsumptionLimitedByStorage() {
+        // given
+        double storageMaxCapacity = 0.7d;
+
+        Electrolyzer electrolyzer = buildElectrolyzerWithAccumulator();
+        electrolyzer.setMaxPower(2.0d);
+        electrolyzer.setEfficiency(1.0d);
+        electrolyzer.getAccumulator().setAccumulatorMaxSize(0.d);
+        double[] tableOfValue = createTableOfValue(0.0);
+        for (int i = 0; i < tableOfValue.length; i += 2) {
+            tableOfValue[i] = 2;
+        }
+        electrolyzer.setSummaryEnergyProduction(tableOfValue);
+
+        Data data = buildData(electrolyzer, storageMaxCapacity, null);
+
+        // when
+        MaxConsumptionYearResult result = new CalculateMaximumConsumption(data).calculate();
+
+        // then
+        double expectedValue = 0.7;
+        assertEquals(expectedValue, result.getMaxConsumption());
+        assertTrue(result.getYearResult().isGood());
+    }
+
+    @Test
+    public void shouldSearchInParallelForManyStorages() {
+        // given
+        Electrolyzer electrolyzer = buildElectrolyzerWithAccumulator();
+        electrolyzer.setMaxPower(2.0d);
+        electrolyzer.setEfficiency(1.0d);
+        electrolyzer.getAccumulator().setAccumulatorMaxSize(0.d);
+        electrolyzer.setSummaryEnergyProduction(createTableOfValue(1.0));
+        Data data = buildData(electrolyzer, 0.0d, null);
+        data.getGridConstants().setHoursOfSimulation(24 * 7);
+
+        Electrolyzer secondElectrolyzer = electrolyzer.clone();
+        secondElectrolyzer.setId(2l);
+        Storage secondStorage = new Storage();
+        secondStorage.setId(2l);
+        secondStorage.setElectrolyzers(Lists.newArrayList(secondElectrolyzer));
+        data.getStorages().add(secondStorage);
+
+        // when
+        MaxConsumptionYearResult result = new CalculateMaximumConsumption(data).calculate();
+
+        // then
+        assertEquals(2.0, result.getMaxConsumption(), 0.01);
+        assertTrue(result.getMaxConsumption() <= 2.0);
+        assertTrue(result.getYearResult().isGood());
+    }
 }
\ No newline at end of file
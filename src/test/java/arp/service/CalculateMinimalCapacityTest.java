@@ -0,0 +1,74 @@
+package arp.service;
+
+import arp.dto.grid.Electrolyzer;
+import org.assertj.core.util.Lists;
+import org.junit.jupiter.api.Test;
+
+import static arp.service.Utils.createTableOfValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CalculateMinimalCapacityTest extends AbstractAlgorithmTest {
+
+    @Test
+    public void shouldFindCapacityMatchingSimulation() {
+        // given
+        Electrolyzer electrolyzer = buildAlternatingElectrolyzer();
+        Data data = buildData(electrolyzer, 0.0, createTableOfValue(1.0));
+
+        // when
+        double[] production = new CalculateHydrogenProduction(data).calculate(Lists.newArrayList(electrolyzer));
+        double capacity = new CalculateMinimalCapacity(data).calculate(production);
+
+        // then
+        assertEquals(1.0, capacity);
+        assertTrue(simulate(data, capacity).isGood());
+        assertFalse(simulate(data, capacity - 0.1).isGood());
+    }
+
+    @Test
+    public void shouldNotFindCapacityWithoutEnoughProduction() {
+        // given
+        Electrolyzer electrolyzer = buildAlternatingElectrolyzer();
+        Data data = buildData(electrolyzer, 0.0, createTableOfValue(1.5));
+
+        // when
+        double[] production = new CalculateHydrogenProduction(data).calculate(Lists.newArrayList(electrolyzer));
+        double capacity = new CalculateMinimalCapacity(data).calculate(production);
+
+        // then
+        assertEquals(Double.POSITIVE_INFINITY, capacity);
+    }
+
+    @Test
+    public void shouldFindAccumulatorSaturation() {
+        // given
+        Electrolyzer electrolyzer = buildAlternatingElectrolyzer();
+        electrolyzer.setMaxPower(1.0);
+        Data data = buildData(electrolyzer, 0.0, createTableOfValue(1.0));
+
+        // when
+        double saturation = new CalculateHydrogenProduction(data).calculateAccumulatorSaturation(electrolyzer);
+
+        // then
+        assertEquals(1.0, saturation);
+    }
+
+    private Electrolyzer buildAlternatingElectrolyzer() {
+        double[] energyProduction = new double[Utils.HOURS_OF_YEAR];
+        for (int i = 0; i < energyProduction.length; i += 2) {
+            energyProduction[i] = 2.0;
+        }
+        Electrolyzer electrolyzer = buildElectrolyzerWithAccumulator();
+        electrolyzer.setMaxPower(2.0);
+        electrolyzer.setEfficiency(1.0);
+        electrolyzer.setSummaryEnergyProduction(energyProduction);
+        return electrolyzer;
+    }
+
+    private YearResult simulate(Data data, double capacity) {
+        data.getStorages().get(0).setMaxCapacity(capacity);
+        return new CalculateYearAlgorithm(data).calculate();
+    }
+}
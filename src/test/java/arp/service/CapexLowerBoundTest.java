@@ -0,0 +1,70 @@
+package arp.service;
+
+import arp.search.BroadFirstSearchAlgorithm;
+import arp.search.CapexLowerBound;
+import arp.search.SearchProgress;
+import arp.search.State;
+import org.junit.jupiter.api.Test;
+
+import static arp.service.Utils.createTableOfValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CapexLowerBoundTest extends AbstractAlgorithmTest {
+
+    @Test
+    public void shouldPruneSearchWithoutChangingOptimum() {
+        // given
+        Data data = buildAlternatingSunData();
+        data.setVehiclesConsumption(createTableOfValue(2.0));
+        Data unboundedData = buildAlternatingSunData();
+        unboundedData.setVehiclesConsumption(createTableOfValue(2.0));
+        SearchProgress bounded = new SearchProgress();
+        SearchProgress unbounded = new SearchProgress();
+
+        // when
+        BroadFirstSearchAlgorithm withBound = new BroadFirstSearchAlgorithm(data);
+        withBound.setProgress(bounded);
+        State state = withBound.calculate();
+        BroadFirstSearchAlgorithm withoutBound = new BroadFirstSearchAlgorithm(unboundedData);
+        withoutBound.setLowerBoundEnabled(false);
+        withoutBound.setProgress(unbounded);
+        State unboundedState = withoutBound.calculate();
+
+        // then
+        assertEquals(16.0, state.getMetrics().getTotalCost());
+        assertEquals(unboundedState.getMetrics().getTotalCost(), state.getMetrics().getTotalCost());
+        assertTrue(bounded.getExpandedStates() < unbounded.getExpandedStates());
+    }
+
+    @Test
+    public void shouldNotExceedOptimumWithAlternatingSun() {
+        // given
+        Data data = buildAlternatingSunData();
+
+        // when
+        CapexLowerBound lowerBound = new CapexLowerBound(data);
+        State state = new BroadFirstSearchAlgorithm(buildAlternatingSunData()).calculate();
+
+        // then
+        assertTrue(lowerBound.getRootBound() <= state.getMetrics().getTotalCost() + 1e-6);
+        assertEquals(8.0, state.getMetrics().getTotalCost());
+    }
+
+    @Test
+    public void shouldReportProvenBoundInsteadOfRootBound() {
+        // given
+        Data data = buildAlternatingSunData();
+        data.getGridCosts().setWindCost(100.0);
+
+        // when
+        BroadFirstSearchAlgorithm broadFirstSearchAlgorithm = new BroadFirstSearchAlgorithm(data);
+        State state = broadFirstSearchAlgorithm.calculate();
+
+        // then
+        // relaksacja nie wycenia magazynu, więc ograniczenie z korzenia jest dużo niższe od optimum
+        assertEquals(19.0, state.getMetrics().getTotalCost());
+        assertTrue(broadFirstSearchAlgorithm.getLowerBound().getRootBound() < 10.0);
+        assertEquals(19.0, (double) broadFirstSearchAlgorithm.getFinalLowerBound());
+    }
+}
@@ -0,0 +1,70 @@
+package arp.service;
+
+import arp.enums.EnergySourceType;
+import arp.search.BroadFirstSearchAlgorithm;
+import arp.search.CapexSolutionCache;
+import arp.search.Incumbent;
+import arp.search.SearchStrategyType;
+import arp.search.State;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static arp.service.Utils.createTableOfValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CapexSolutionCacheTest extends AbstractAlgorithmTest {
+
+    @Test
+    public void shouldRescoreCachedSolutionWithNewCosts() {
+        // given
+        CapexSolutionCache cache = new CapexSolutionCache();
+        Data data = buildSearchData(createTableOfValue(1.0));
+        String fingerprint = GridFingerprint.of(data);
+        BroadFirstSearchAlgorithm broadFirstSearchAlgorithm = new BroadFirstSearchAlgorithm(data);
+        State state = broadFirstSearchAlgorithm.calculate();
+        List<State> feasibleStates = broadFirstSearchAlgorithm.getIncumbent().getFeasibleStates();
+        feasibleStates.add(state);
+        cache.store(fingerprint, feasibleStates);
+
+        Data repricedData = buildSearchData(createTableOfValue(1.0));
+        repricedData.getGridCosts().setPvCost(4.0);
+        Incumbent incumbent = new Incumbent();
+
+        // when
+        boolean seeded = cache.seed(GridFingerprint.of(repricedData), repricedData, incumbent, SearchStrategyType.BEST_FIRST);
+        BroadFirstSearchAlgorithm warmStarted = new BroadFirstSearchAlgorithm(repricedData);
+        warmStarted.setIncumbent(incumbent);
+        double seedCost = incumbent.getTotalCost();
+        State repriced = warmStarted.calculate();
+
+        // then
+        assertEquals(fingerprint, GridFingerprint.of(repricedData));
+        assertTrue(seeded);
+        assertEquals(7.0, CapexSolutionCache.calculateCost(data.getStorages(), state.getStorages(), data.getGridCosts()));
+        assertEquals(9.0, seedCost);
+        assertTrue(repriced.getMetrics().isGood());
+        // przeceniona siatka z PV jest tylko punktem startu - przy droższym PV optimum przechodzi na wiatr
+        assertEquals(8.0, repriced.getMetrics().getTotalCost());
+        assertEquals(EnergySourceType.WIND,
+                repriced.getStorages().get(0).getElectrolyzers().get(0).getSources().get(0).getType());
+    }
+
+    @Test
+    public void shouldMissWhenConsumptionChanges() {
+        // given
+        CapexSolutionCache cache = new CapexSolutionCache();
+        Data data = buildSearchData(createTableOfValue(1.0));
+        cache.store(GridFingerprint.of(data), List.of(new BroadFirstSearchAlgorithm(data).calculate()));
+        Data otherData = buildSearchData(createTableOfValue(2.0));
+
+        // when
+        boolean seeded = cache.seed(GridFingerprint.of(otherData), otherData, new Incumbent(), SearchStrategyType.BEST_FIRST);
+
+        // then
+        assertFalse(seeded);
+        assertEquals(1, cache.getMisses());
+    }
+}
@@ -0,0 +1,61 @@
+package arp.service;
+
+import arp.chart.ChartService;
+import arp.enums.Resolution;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ChartServiceTest {
+
+    @Test
+    public void shouldRenderChartOnceOnFirstRequest() throws Exception {
+        // given
+        ChartService chartService = new ChartService(1024 * 1024, 1024 * 1024, 1);
+        String resultId = chartService.register(buildResult());
+
+        // when
+        CompletableFuture<byte[]> image = chartService.getChart(resultId, ChartService.HYDROGEN, Resolution.HOUR, null);
+        byte[] png = image.get();
+
+        // then
+        assertEquals((byte) 0x89, png[0]);
+        assertEquals('P', png[1]);
+        assertSame(image, chartService.getChart(resultId, ChartService.HYDROGEN, Resolution.HOUR, null));
+        assertEquals(1, chartService.getRenders());
+        assertNull(chartService.getChart(resultId, "unknown", Resolution.HOUR, null));
+        chartService.shutdown();
+    }
+
+    @Test
+    public void shouldForgetOldestResults() {
+        // given
+        long resultBytes = buildResult().values().stream().mapToLong(TimeSeriesPyramid::getBytes).sum();
+        ChartService chartService = new ChartService(resultBytes + resultBytes / 2, 1024 * 1024, 1);
+        String first = chartService.register(buildResult());
+
+        // when
+        String second = chartService.register(buildResult());
+
+        // then
+        assertNull(chartService.getChart(first, ChartService.HYDROGEN, Resolution.HOUR, null));
+        assertEquals(resultBytes, chartService.getResultBytes());
+        assertNotNull(chartService.getChart(second, ChartService.HYDROGEN, Resolution.HOUR, null));
+        chartService.shutdown();
+    }
+
+    private Map<String, TimeSeriesPyramid> buildResult() {
+        Map<String, TimeSeriesPyramid> series = new HashMap<>();
+        series.put(ChartService.ELECTRICITY, new TimeSeriesPyramid(new double[]{1.0, 2.0, 3.0, 4.0, 5.0, 6.0, 7.0, 8.0}));
+        series.put(ChartService.HYDROGEN, new TimeSeriesPyramid(new double[]{1.0, 0.0, 1.0, 0.0, 1.0, 0.0, 1.0, 0.0}));
+        series.put(ChartService.HYDROGEN_LEVEL, new TimeSeriesPyramid(new double[]{0.0, 1.0, 2.0, 3.0, 4.0, 5.0, 6.0, 7.0}));
+        return series;
+    }
+}
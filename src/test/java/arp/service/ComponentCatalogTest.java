@@ -0,0 +1,126 @@
+package arp.service;
+
+import arp.dto.catalog.CatalogItem;
+import arp.dto.catalog.ComponentCatalog;
+import arp.dto.catalog.VolumeDiscount;
+import arp.dto.grid.EnergySource;
+import arp.exception.BusinessException;
+import arp.search.ActionType;
+import arp.search.BroadFirstSearchAlgorithm;
+import arp.search.NextStatesFactory;
+import arp.search.State;
+import org.assertj.core.util.Lists;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static arp.service.Utils.createTableOfValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ComponentCatalogTest extends AbstractAlgorithmTest {
+
+    @Test
+    public void shouldBuildGridFromCatalogSizes() {
+        // given
+        Data data = buildSearchData(createTableOfValue(1.0));
+        data.setCatalog(buildCatalog());
+
+        // when
+        State state = new BroadFirstSearchAlgorithm(data).calculate();
+        State withoutCatalog = new BroadFirstSearchAlgorithm(buildSearchData(createTableOfValue(1.0))).calculate();
+
+        // then
+        // bez katalogu wystarcza 1MW PV, z katalogiem najmniejsza instalacja PV ma 2MW
+        assertEquals(7.0, withoutCatalog.getMetrics().getTotalCost());
+        assertEquals(8.0, state.getMetrics().getTotalCost());
+        EnergySource source = state.getStorages().get(0).getElectrolyzers().get(0).getSources().get(0);
+        assertEquals(2.0, (double) source.getMaxPower());
+    }
+
+    @Test
+    public void shouldPreferDiscountedSmallerStacks() {
+        // given
+        Data data = buildSearchData(createTableOfValue(2.0));
+        data.setCatalog(buildCatalog());
+
+        // when
+        State state = new BroadFirstSearchAlgorithm(data).calculate();
+
+        // then
+        assertEquals(12.0, state.getMetrics().getTotalCost());
+        assertEquals(2.0, state.getStorages().get(0).getElectrolyzers().stream().mapToDouble(e -> e.getMaxPower()).sum());
+    }
+
+    @Test
+    public void shouldCountPurchasesWithoutPreviousStates() {
+        // given
+        Data data = buildSearchData(createTableOfValue(1.0));
+        ComponentCatalog catalog = new ComponentCatalog();
+        catalog.setElectrolyzer(Lists.newArrayList(
+                new CatalogItem("Stack 1MW", 1.0, 5.0, Lists.newArrayList(new VolumeDiscount(3, 0.2)))));
+        data.setCatalog(catalog);
+        NextStatesFactory nextStatesFactory = new NextStatesFactory(data);
+        State state = new State(data);
+
+        // when
+        List<Double> prices = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            state = nextStatesFactory.getNextStates(state).stream()
+                    .filter(s -> ActionType.ELECTROLYZER.equals(s.getAction().getType()))
+                    .findFirst().get();
+            prices.add(state.getAction().getActionCost());
+            // jak w przeszukiwaniu lokalnym - stan nie pamięta ścieżki
+            state.setPreviousState(null);
+        }
+
+        // then
+        assertEquals(Lists.newArrayList(5.0, 5.0, 4.0), prices);
+        assertEquals(3, state.getPurchases(ActionType.ELECTROLYZER, "Stack 1MW"));
+    }
+
+    @Test
+    public void shouldKeepLowerBoundWithEmptyCatalog() {
+        // given
+        Data data = buildSearchData(createTableOfValue(1.0));
+        data.setCatalog(new ComponentCatalog());
+
+        // when
+        BroadFirstSearchAlgorithm broadFirstSearchAlgorithm = new BroadFirstSearchAlgorithm(data);
+        State state = broadFirstSearchAlgorithm.calculate();
+
+        // then
+        assertEquals(7.0, state.getMetrics().getTotalCost());
+        assertNotNull(broadFirstSearchAlgorithm.getLowerBound());
+    }
+
+    @Test
+    public void shouldRejectInvalidCatalogItems() {
+        // given
+        ComponentCatalog zeroSize = buildCatalog();
+        zeroSize.getPv().get(0).setSize(0.0);
+        ComponentCatalog negativePrice = buildCatalog();
+        negativePrice.getWind().get(0).setPrice(-1.0);
+        ComponentCatalog fullDiscount = buildCatalog();
+        fullDiscount.getElectrolyzer().get(0).getVolumeDiscounts().get(0).setDiscount(1.0);
+
+        // when then
+        for (ComponentCatalog catalog : Lists.newArrayList(zeroSize, negativePrice, fullDiscount)) {
+            Data data = buildSearchData(createTableOfValue(1.0));
+            data.setCatalog(catalog);
+            assertThrows(BusinessException.class, () -> new BroadFirstSearchAlgorithm(data).calculate());
+        }
+    }
+
+    private ComponentCatalog buildCatalog() {
+        ComponentCatalog catalog = new ComponentCatalog();
+        catalog.setPv(Lists.newArrayList(new CatalogItem("PV 2MW", 2.0, 3.0, new ArrayList<>())));
+        catalog.setWind(Lists.newArrayList(new CatalogItem("Turbine 2.5MW", 2.5, 6.0, new ArrayList<>())));
+        catalog.setElectrolyzer(Lists.newArrayList(
+                new CatalogItem("Stack 1MW", 1.0, 5.0, Lists.newArrayList(new VolumeDiscount(2, 0.2))),
+                new CatalogItem("Stack 2MW", 2.0, 9.5, new ArrayList<>())));
+        return catalog;
+    }
+}
@@ -0,0 +1,51 @@
+package arp.service;
+
+import arp.dto.grid.Storage;
+import arp.enums.EnergySourceType;
+import arp.search.DecompositionSearchAlgorithm;
+import arp.search.State;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.Collectors;
+
+import static arp.service.Utils.createTableOfValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DecompositionSearchAlgorithmTest extends AbstractAlgorithmTest {
+
+    @Test
+    public void shouldGiveWholeDemandToOneStorageWhenCheaper() {
+        // given
+        Data data = buildSearchData(createTableOfValue(1.0));
+        Storage second = new Storage();
+        second.setId(2l);
+        data.getStorages().add(second);
+
+        // when
+        DecompositionSearchAlgorithm decompositionSearchAlgorithm = new DecompositionSearchAlgorithm(data);
+        decompositionSearchAlgorithm.setRounds(1);
+        State state = decompositionSearchAlgorithm.calculate();
+
+        // then
+        assertTrue(state.getMetrics().isGood());
+        assertEquals(7.0, state.getMetrics().getTotalCost());
+        assertEquals(2, state.getStorages().size());
+        assertEquals(1, state.getStorages().stream().flatMap(s -> s.getElectrolyzers().stream())
+                .map(e -> e.getId()).collect(Collectors.toSet()).size());
+    }
+
+    @Test
+    public void shouldFallBackToBestFirstForSingleStorage() {
+        // given
+        Data data = buildSearchData(createTableOfValue(1.0));
+        data.getGridCosts().setPvCost(4.0);
+
+        // when
+        State state = new DecompositionSearchAlgorithm(data).calculate();
+
+        // then
+        assertEquals(8.0, state.getMetrics().getTotalCost());
+        assertEquals(EnergySourceType.WIND, state.getStorages().get(0).getElectrolyzers().get(0).getSources().get(0).getType());
+    }
+}
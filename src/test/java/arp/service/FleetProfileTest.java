@@ -0,0 +1,52 @@
+package arp.service;
+
+import arp.dto.grid.Vehicle;
+import arp.dto.util.WeeklyPeriod;
+import org.assertj.core.util.Lists;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class FleetProfileTest {
+
+    @Test
+    public void shouldUseWholeWeekOfWork() {
+        // given
+        Vehicle vehicle = new Vehicle(1L, 2L, Collections.singletonList(new WeeklyPeriod(0, 6, 0, 23)), 1.5, 10L);
+
+        // when
+        double[] consumption = new FleetProfile(Collections.singletonList(vehicle)).getYearlyConsumption(0.1, 1.0);
+
+        // then
+        assertEquals(4.0, consumption[0], 1e-9);
+        assertEquals(4.0, consumption[100], 1e-9);
+        assertEquals(4.0, consumption[Utils.HOURS_OF_YEAR - 1], 1e-9);
+    }
+
+    @Test
+    public void shouldShareCompiledFleetRegardlessOfOrder() {
+        // given
+        Vehicle day = new Vehicle(1L, 2L, Collections.singletonList(new WeeklyPeriod(0, 4, 8, 15)), 1.0, 0L);
+        Vehicle night = new Vehicle(2L, 1L, Collections.singletonList(new WeeklyPeriod(5, 6, 0, 5)), 3.0, 20L);
+        List<Vehicle> fleet = Lists.newArrayList(day, night);
+        List<Vehicle> reversed = Lists.newArrayList(night, day);
+        FleetProfileCache cache = new FleetProfileCache();
+
+        // when
+        double[] consumption = cache.get(fleet).getYearlyConsumption(0.1, 1.0);
+        FleetProfile profile = cache.get(reversed);
+
+        // then
+        assertSame(consumption, profile.getYearlyConsumption(0.1, 1.0));
+        assertEquals(1, cache.getHits());
+        assertEquals(5.0, consumption[5 * 24]);
+        assertEquals(2.0, consumption[8]);
+        assertEquals(Arrays.stream(consumption).max().getAsDouble(), profile.getMaxConsumption(0.1, 1.0));
+        assertEquals(Arrays.stream(consumption).sum(), profile.getConsumption(Utils.HOURS_OF_YEAR, 0.1, 1.0), 1e-6);
+    }
+}
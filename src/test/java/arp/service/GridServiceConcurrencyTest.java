@@ -0,0 +1,168 @@
+package arp.service;
+
+import arp.dto.GridConstants;
+import arp.dto.GridCosts;
+import arp.dto.GridInput;
+import arp.dto.grid.Accumulator;
+import arp.dto.grid.Electrolyzer;
+import arp.dto.grid.EnergySource;
+import arp.dto.grid.Grid;
+import arp.dto.grid.Storage;
+import arp.dto.grid.Vehicle;
+import arp.dto.util.WeeklyPeriod;
+import arp.enums.EnergySourceType;
+import arp.search.State;
+import org.assertj.core.util.Lists;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class GridServiceConcurrencyTest {
+    private static final int REQUESTS = 16;
+    private static final int CAPEX_REQUESTS = 6;
+    private static final int BENCHMARK_REQUESTS = 256;
+    private static final Logger LOGGER = LoggerFactory.getLogger(GridServiceConcurrencyTest.class);
+
+    GridService gridService = new GridService();
+
+    @Test
+    void shouldNotModifyRequest() {
+        //given
+        GridInput gridInput = getInputGrid(1L);
+
+        //when
+        gridService.runSimulation(gridInput);
+
+        //then
+        assertNull(gridInput.getGrid().getStorages().get(0).getElectrolyzers().get(0).getSourcePowers());
+    }
+
+    @Test
+    void shouldGiveSequentialResultsForConcurrentRequests() throws Exception {
+        //given
+        double[] expected = new double[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            expected[i] = gridService.runSimulation(getInputGrid(i + 1L)).getMinHourHydrogenLevel();
+        }
+
+        for (int threads : new int[]{1, 2, 4, 8}) {
+            //when
+            double[] actual = runSimulations(threads, REQUESTS);
+
+            //then
+            for (int i = 0; i < REQUESTS; i++) {
+                assertEquals(expected[i], actual[i]);
+            }
+        }
+    }
+
+    /**
+     * Przepustowość symulacji na 1, 2, 4 i 8 wątkach - uruchamiany ręcznie, bo wynik zależy od liczby rdzeni maszyny.
+     */
+    @Disabled("Benchmark, run manually")
+    @Test
+    void measureSimulationThroughput() throws Exception {
+        // rozgrzewka JIT
+        runSimulations(1, REQUESTS);
+
+        for (int threads : new int[]{1, 2, 4, 8}) {
+            long start = System.nanoTime();
+            runSimulations(threads, BENCHMARK_REQUESTS);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            LOGGER.info("{} threads: {} requests/s", threads, String.format("%.1f", BENCHMARK_REQUESTS / seconds));
+        }
+    }
+
+    @Test
+    void shouldGiveSequentialCapexForConcurrentRequests() throws Exception {
+        //given
+        double[] expected = new double[CAPEX_REQUESTS];
+        for (int i = 0; i < CAPEX_REQUESTS; i++) {
+            expected[i] = new GridService().calculateCapex(getCapexInput(i % 2 + 1L)).getMetrics().getTotalCost();
+        }
+
+        for (int threads : new int[]{2, 4}) {
+            //when
+            GridService sharedService = new GridService();
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            List<Future<State>> futures = new ArrayList<>();
+            for (int i = 0; i < CAPEX_REQUESTS; i++) {
+                GridInput gridInput = getCapexInput(i % 2 + 1L);
+                futures.add(executor.submit(() -> sharedService.calculateCapex(gridInput)));
+            }
+            double[] actual = new double[CAPEX_REQUESTS];
+            for (int i = 0; i < CAPEX_REQUESTS; i++) {
+                actual[i] = futures.get(i).get().getMetrics().getTotalCost();
+            }
+            executor.shutdown();
+
+            //then
+            assertArrayEquals(expected, actual);
+        }
+    }
+
+    private double[] runSimulations(int threads, int requests) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<YearResult>> futures = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                GridInput gridInput = getInputGrid(i % REQUESTS + 1L);
+                futures.add(executor.submit(() -> gridService.runSimulation(gridInput)));
+            }
+            double[] results = new double[requests];
+            for (int i = 0; i < requests; i++) {
+                results[i] = futures.get(i).get().getMinHourHydrogenLevel();
+            }
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private GridInput getCapexInput(long vehicles) {
+        GridInput gridInput = getInputGrid(vehicles);
+        gridInput.getGrid().getStorages().get(0).setMaxCapacity(0.0);
+        gridInput.getGrid().getStorages().get(0).setElectrolyzers(new ArrayList<>());
+        gridInput.getConstants().setHoursOfSimulation(24 * 7);
+        gridInput.getConstants().setElectrolyzerEfficiency(1.0);
+        return gridInput;
+    }
+
+    private GridInput getInputGrid(long vehicles) {
+        EnergySource energySource = new EnergySource(31L, EnergySourceType.WIND, 100d, 0d);
+        Electrolyzer electrolyzer = new Electrolyzer();
+        electrolyzer.setId(41L);
+        electrolyzer.setMaxPower(50d);
+        electrolyzer.setEfficiency(50d);
+        electrolyzer.setAccumulator(new Accumulator(100d));
+        electrolyzer.setSources(Lists.newArrayList(energySource));
+        Storage storage = new Storage(21L, 1000.0, Collections.singletonList(electrolyzer));
+        Vehicle vehicle = new Vehicle(11L, vehicles, Collections.singletonList(new WeeklyPeriod(0, 6, 8, 15)), 1.0, 0L);
+
+        GridConstants gridConstants = new GridConstants();
+        gridConstants.setHoursOfSimulation(24 * 28);
+        gridConstants.setWindDailyProduction(Utils.createTableOfValue(1d, 24));
+        gridConstants.setPvDailyProduction(Utils.createTableOfValue(1d, 24));
+
+        GridCosts gridCosts = new GridCosts();
+        gridCosts.setPvCost(10d);
+        gridCosts.setWindCost(10d);
+        gridCosts.setElectrolyzerCost(20d);
+        gridCosts.setStorageHydrogenCost(20d);
+        gridCosts.setStoragePowerCost(20d);
+        return new GridInput(new Grid(Collections.singletonList(vehicle), Collections.singletonList(storage)),
+                gridConstants, gridCosts);
+    }
+}
@@ -1,15 +1,22 @@
 package arp.service;
 
 import arp.dto.*;
+import arp.dto.catalog.CatalogItem;
+import arp.dto.catalog.ComponentCatalog;
 import arp.dto.grid.*;
 import arp.dto.util.WeeklyPeriod;
 import arp.enums.EnergySourceType;
+import arp.profile.ProfileRegistry;
+import arp.search.SearchStrategyType;
+import arp.search.State;
 import org.assertj.core.util.Lists;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -29,6 +36,119 @@ class GridServiceTest {
         assertEquals(result.isGood(), true);
     }
 
+    @Test
+    void runSimulationWithUploadedProfile() {
+        //given
+        ProfileRegistry profileRegistry = new ProfileRegistry();
+        GridService service = new GridService(profileRegistry);
+        GridInput gridInput = getInputGrid();
+        gridInput.getConstants().setWindProfileId(profileRegistry.register(Utils.createTableOfValue(0d, 24)).getId());
+
+        //when
+        YearResult result = service.runSimulation(gridInput);
+
+        //then
+        assertEquals(result.isGood(), false);
+    }
+
+    @Test
+    void streamSimulationSteps() {
+        //given
+        GridInput gridInput = getInputGrid();
+        List<Double> hydrogenProduction = new ArrayList<>();
+
+        //when
+        YearResult streamed = gridService.runSimulation(gridInput, step -> hydrogenProduction.add(step.getHydrogenProduction()));
+        YearResult result = gridService.runSimulation(gridInput);
+
+        //then
+        assertTrue(streamed.getSteps().isEmpty());
+        assertEquals(result.isGood(), streamed.isGood());
+        assertEquals(result.getSteps().size(), hydrogenProduction.size());
+        assertEquals((double) result.getSteps().get(100).getHydrogenProduction(), (double) hydrogenProduction.get(100));
+    }
+
+    @Test
+    void runBatchSimulation() {
+        //given
+        GridInput gridInput = getInputGrid();
+        Storage weakStorage = getStorage();
+        weakStorage.getElectrolyzers().get(0).getSources().get(0).setMaxPower(0d);
+        List<List<Storage>> grids = Arrays.asList(gridInput.getGrid().getStorages(), Collections.singletonList(weakStorage));
+        BatchSimulationResult[] results = new BatchSimulationResult[grids.size()];
+
+        //when
+        gridService.runBatchSimulation(gridInput, grids, result -> results[result.getIndex()] = result);
+
+        //then
+        assertEquals(gridService.runSimulation(gridInput).isGood(), results[0].getYearResult().isGood());
+        assertEquals(results[0].getYearResult().isGood(), true);
+        assertEquals(results[1].getYearResult().isGood(), false);
+        assertEquals((double) gridInput.getGrid().getStorages().get(0).getElectrolyzers().get(0).getSources().get(0).getMaxPower(), 100d);
+    }
+
+    @Test
+    void runBatchLargerThanExecutor() {
+        //given
+        GridService batchService = new GridService();
+        GridInput gridInput = getInputGrid();
+        List<List<Storage>> grids = new ArrayList<>();
+        for (int i = 0; i < 3 * Runtime.getRuntime().availableProcessors() + 1; i++) {
+            grids.add(Collections.singletonList(getStorage()));
+        }
+        boolean[] delivered = new boolean[grids.size()];
+
+        //when
+        batchService.runBatchSimulation(gridInput, grids, result -> delivered[result.getIndex()] = result.getYearResult().isGood());
+        batchService.shutdown();
+
+        //then
+        for (boolean good : delivered) {
+            assertTrue(good);
+        }
+        assertThrows(RejectedExecutionException.class, () -> batchService.runBatchSimulation(gridInput, grids, result -> { }));
+    }
+
+    @Test
+    void calculateCapexWithProvenBound() {
+        //given
+        GridInput gridInput = getCapexInput();
+
+        //when
+        State state = gridService.calculateCapex(gridInput, SearchStrategyType.BEST_FIRST);
+
+        //then
+        assertTrue(state.getMetrics().isGood());
+        assertEquals(state.getMetrics().getTotalCost(), (double) state.getMetrics().getCapexLowerBound());
+    }
+
+    @Test
+    void calculateCapexWithoutBoundForCatalog() {
+        //given
+        GridInput gridInput = getCapexInput();
+        ComponentCatalog catalog = new ComponentCatalog();
+        catalog.setWind(Lists.newArrayList(new CatalogItem("Turbine 2MW", 2.0, 15.0, new ArrayList<>())));
+        gridInput.getGrid().getVehicles().get(0).setCount(1L);
+        gridInput.setCatalog(catalog);
+
+        //when
+        State state = gridService.calculateCapex(gridInput, SearchStrategyType.DECOMPOSITION);
+
+        //then
+        // ceny z katalogu nie są liniowe, a dekompozycja nie dowodzi optymalności
+        assertTrue(state.getMetrics().isGood());
+        assertNull(state.getMetrics().getCapexLowerBound());
+    }
+
+    private GridInput getCapexInput() {
+        GridInput gridInput = getInputGrid();
+        gridInput.getGrid().getStorages().get(0).setMaxCapacity(0.0);
+        gridInput.getGrid().getStorages().get(0).setElectrolyzers(new ArrayList<>());
+        gridInput.getConstants().setHoursOfSimulation(24 * 7);
+        gridInput.getConstants().setElectrolyzerEfficiency(1.0);
+        return gridInput;
+    }
+
     private GridInput getInputGrid() {
         return new GridInput(getGrid(), getConstants(), getCosts());
     }
@@ -0,0 +1,99 @@
+package arp.service;
+
+import arp.search.BroadFirstSearchAlgorithm;
+import arp.search.HydrogenLevelSurrogate;
+import arp.search.State;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static arp.service.Utils.createTableOfValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HydrogenLevelSurrogateTest extends AbstractAlgorithmTest {
+    private static final int TRAINING_SAMPLES = 16;
+
+    @Test
+    public void shouldPredictInfeasibleGridOnlyAfterMinSamples() {
+        // given
+        Data data = buildSearchData(createTableOfValue(1.0));
+        State emptyGrid = buildEmptyGrid(data);
+        State validGrid = buildValidGrid();
+        HydrogenLevelSurrogate surrogate = new HydrogenLevelSurrogate();
+
+        // when
+        train(surrogate, data, emptyGrid, validGrid, 11);
+        boolean coldPrediction = surrogate.isLikelyInfeasible(emptyGrid);
+        train(surrogate, data, emptyGrid, validGrid, TRAINING_SAMPLES - 11);
+
+        // then
+        assertFalse(coldPrediction);
+        assertTrue(surrogate.isWarm());
+        assertTrue(surrogate.isLikelyInfeasible(emptyGrid));
+        assertFalse(surrogate.isLikelyInfeasible(validGrid));
+    }
+
+    @Test
+    public void shouldDeferPredictedInfeasibleStateAndResumeIt() {
+        // given
+        Data data = buildSearchData(createTableOfValue(1.0));
+        List<State> deferred = new ArrayList<>();
+        Set<State> evaluated = Collections.newSetFromMap(new IdentityHashMap<>());
+        // model zapamiętuje stany uznane za niepoprawne i stany zasymulowane
+        HydrogenLevelSurrogate surrogate = new HydrogenLevelSurrogate() {
+            @Override
+            public boolean isLikelyInfeasible(State state) {
+                boolean likelyInfeasible = super.isLikelyInfeasible(state);
+                if (likelyInfeasible) {
+                    deferred.add(state);
+                }
+                return likelyInfeasible;
+            }
+
+            @Override
+            public void update(State state, int hoursOfSimulation) {
+                evaluated.add(state);
+                super.update(state, hoursOfSimulation);
+            }
+        };
+        train(surrogate, data, buildEmptyGrid(data), buildValidGrid(), TRAINING_SAMPLES);
+        evaluated.clear();
+
+        // when
+        BroadFirstSearchAlgorithm broadFirstSearchAlgorithm = new BroadFirstSearchAlgorithm(data);
+        // bez incumbenta z relaksacji przeszukiwanie nie kończy się przed zdjęciem odłożonych stanów
+        broadFirstSearchAlgorithm.setLowerBoundEnabled(false);
+        broadFirstSearchAlgorithm.setSurrogate(surrogate);
+        State state = broadFirstSearchAlgorithm.calculate();
+
+        // then
+        assertEquals(7.0, state.getMetrics().getTotalCost());
+        assertFalse(deferred.isEmpty());
+        assertTrue(deferred.stream().anyMatch(evaluated::contains));
+    }
+
+    private void train(HydrogenLevelSurrogate surrogate, Data data, State emptyGrid, State validGrid, int samples) {
+        for (int i = 0; i < samples; i++) {
+            surrogate.update(i % 2 == 0 ? emptyGrid : validGrid, Utils.getHoursOfSimulation(data));
+        }
+    }
+
+    private State buildEmptyGrid(Data data) {
+        State state = new State(data);
+        state.updateMetrics(data);
+        return state;
+    }
+
+    /**
+     * Najtańsza poprawna siatka dla tych samych danych: PV 1MW i elektrolizer 1MW.
+     */
+    private State buildValidGrid() {
+        return new BroadFirstSearchAlgorithm(buildSearchData(createTableOfValue(1.0))).calculate();
+    }
+}
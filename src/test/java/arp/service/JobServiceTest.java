@@ -0,0 +1,167 @@
+package arp.service;
+
+import arp.admission.AdmissionControl;
+import arp.admission.WorkloadType;
+import arp.dto.GridConstants;
+import arp.dto.GridCosts;
+import arp.dto.GridInput;
+import arp.dto.grid.Accumulator;
+import arp.dto.grid.Electrolyzer;
+import arp.dto.grid.EnergySource;
+import arp.dto.grid.Grid;
+import arp.dto.grid.Storage;
+import arp.dto.grid.Vehicle;
+import arp.dto.util.WeeklyPeriod;
+import arp.enums.EnergySourceType;
+import arp.exception.BusinessException;
+import arp.exception.FailureReason;
+import arp.exception.OverloadedException;
+import arp.job.Job;
+import arp.job.JobService;
+import arp.job.JobStatus;
+import arp.search.SearchStrategyType;
+import arp.search.State;
+import org.assertj.core.util.Lists;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JobServiceTest {
+
+    GridService gridService = new GridService();
+
+    @Test
+    void shouldRunCapexJobInBackground() throws InterruptedException {
+        //given
+        JobService jobService = new JobService(gridService, new AdmissionControl(), 1, 4, 60_000, 16);
+
+        //when
+        Job job = jobService.submitMinCapex(getInputGrid(), SearchStrategyType.BEST_FIRST);
+        awaitFinished(job);
+
+        //then
+        assertEquals(JobStatus.DONE, job.getStatus());
+        assertTrue(job.getResult() instanceof State);
+        assertTrue(job.getProgress().getExpandedStates() > 0);
+        assertEquals(0.0, (double) job.getProgress().getIncumbentCost());
+        jobService.shutdown();
+    }
+
+    @Test
+    void shouldCancelJob() throws InterruptedException {
+        //given
+        JobService jobService = new JobService(gridService, new AdmissionControl(), 1, 4, 60_000, 16);
+        jobService.submitHydrogenProduction(getInputGrid());
+        Job job = jobService.submitHydrogenProduction(getInputGrid());
+
+        //when
+        jobService.cancel(job.getId());
+        awaitFinished(job);
+
+        //then
+        assertEquals(JobStatus.CANCELLED, job.getStatus());
+        jobService.shutdown();
+    }
+
+    @Test
+    void shouldEvictFinishedJobAfterTtl() throws InterruptedException {
+        //given
+        JobService jobService = new JobService(gridService, new AdmissionControl(), 1, 4, 0, 16);
+        Job job = jobService.submitHydrogenProduction(getInputGrid());
+        awaitFinished(job);
+        Thread.sleep(5);
+
+        //when, then
+        BusinessException unknown = assertThrows(BusinessException.class, () -> jobService.get(job.getId()));
+        assertEquals(FailureReason.NOT_FOUND, unknown.type);
+        jobService.shutdown();
+    }
+
+    @Test
+    void shouldKeepOnlyNewestFinishedJobs() throws InterruptedException {
+        //given
+        JobService jobService = new JobService(gridService, new AdmissionControl(), 1, 4, 60_000, 1);
+        Job first = jobService.submitHydrogenProduction(getInputGrid(), result -> result.getMaxConsumption());
+        awaitFinished(first);
+        Thread.sleep(5);
+        Job second = jobService.submitHydrogenProduction(getInputGrid(), result -> result.getMaxConsumption());
+        awaitFinished(second);
+
+        //when, then
+        assertTrue(second.getResult() instanceof Double);
+        assertEquals(second, jobService.get(second.getId()));
+        assertThrows(BusinessException.class, () -> jobService.get(first.getId()));
+        jobService.shutdown();
+    }
+
+    @Test
+    void shouldFailJobAndReleaseUnitsAfterError() throws InterruptedException {
+        //given
+        AdmissionControl admissionControl = new AdmissionControl();
+        JobService jobService = new JobService(gridService, admissionControl, 1, 4, 60_000, 16);
+
+        //when
+        Job job = jobService.submitHydrogenProduction(getInputGrid(), result -> {
+            throw new StackOverflowError();
+        });
+        awaitFinished(job);
+
+        //then
+        assertEquals(JobStatus.FAILED, job.getStatus());
+        assertEquals(0, admissionControl.getPools().get(WorkloadType.MAX_CONSUMPTION.ordinal()).getUnitsInUse());
+        jobService.shutdown();
+    }
+
+    @Test
+    void shouldHoldAdmissionUnitsUntilJobFinishes() throws InterruptedException {
+        //given
+        AdmissionControl admissionControl = new AdmissionControl(4, 0, 0);
+        JobService jobService = new JobService(gridService, admissionControl, 1, 4, 60_000, 16);
+        Job job = jobService.submitMinCapex(getInputGrid(), SearchStrategyType.BEST_FIRST);
+
+        //when
+        assertThrows(OverloadedException.class, () -> jobService.submitMinCapex(getInputGrid(), SearchStrategyType.BEST_FIRST));
+        awaitFinished(job);
+
+        //then
+        assertEquals(JobStatus.DONE, job.getStatus());
+        assertEquals(0, admissionControl.getPools().get(WorkloadType.CAPEX_SEARCH.ordinal()).getUnitsInUse());
+        jobService.shutdown();
+    }
+
+    private void awaitFinished(Job job) throws InterruptedException {
+        for (int i = 0; i < 1000 && !job.isFinished(); i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    private GridInput getInputGrid() {
+        EnergySource energySource = new EnergySource(31L, EnergySourceType.WIND, 100d, 0d);
+        Electrolyzer electrolyzer = new Electrolyzer();
+        electrolyzer.setId(41L);
+        electrolyzer.setMaxPower(50d);
+        electrolyzer.setEfficiency(50d);
+        electrolyzer.setAccumulator(new Accumulator(100d));
+        electrolyzer.setSources(Lists.newArrayList(energySource));
+        Storage storage = new Storage(21L, 1000.0, Collections.singletonList(electrolyzer));
+        Vehicle vehicle = new Vehicle(11L, 10L, Collections.singletonList(new WeeklyPeriod(0, 6, 0, 23)), 1.0, 0L);
+
+        GridConstants gridConstants = new GridConstants();
+        gridConstants.setHoursOfSimulation(24 * 28);
+        gridConstants.setWindDailyProduction(Utils.createTableOfValue(1d, 24));
+        gridConstants.setPvDailyProduction(Utils.createTableOfValue(1d, 24));
+
+        GridCosts gridCosts = new GridCosts();
+        gridCosts.setPvCost(10d);
+        gridCosts.setWindCost(10d);
+        gridCosts.setElectrolyzerCost(20d);
+        gridCosts.setStorageHydrogenCost(20d);
+        gridCosts.setStoragePowerCost(20d);
+        return new GridInput(new Grid(Collections.singletonList(vehicle), Collections.singletonList(storage)),
+                gridConstants, gridCosts);
+    }
+}
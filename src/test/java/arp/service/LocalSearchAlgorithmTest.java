@@ -0,0 +1,79 @@
+package arp.service;
+
+import arp.search.BroadFirstSearchAlgorithm;
+import arp.search.CapexLowerBound;
+import arp.search.Incumbent;
+import arp.search.LocalSearchAlgorithm;
+import arp.search.SearchStrategyType;
+import arp.search.State;
+import org.junit.jupiter.api.Test;
+
+import static arp.service.Utils.createTableOfValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalSearchAlgorithmTest extends AbstractAlgorithmTest {
+
+    @Test
+    public void shouldImproveSeededIncumbentWithinBounds() {
+        // given
+        Data data = buildSearchData(createTableOfValue(1.0));
+        Data expensivePvData = buildSearchData(createTableOfValue(1.0));
+        expensivePvData.getGridCosts().setPvCost(4.0);
+        // siatka z wiatrakiem - poprawna, ale droższa od optimum z PV
+        State windGrid = new BroadFirstSearchAlgorithm(expensivePvData).calculate();
+        Incumbent incumbent = new Incumbent();
+        incumbent.offer(windGrid, SearchStrategyType.BEST_FIRST);
+
+        // when
+        LocalSearchAlgorithm localSearchAlgorithm = createAlgorithm(data);
+        localSearchAlgorithm.setIncumbent(incumbent);
+        State state = localSearchAlgorithm.calculate();
+
+        // then
+        assertEquals(8.0, windGrid.getMetrics().getTotalCost());
+        assertTrue(state.getMetrics().isGood());
+        assertTrue(state.getMetrics().getTotalCost() < windGrid.getMetrics().getTotalCost());
+        assertTrue(state.getMetrics().getTotalCost() >= new CapexLowerBound(data).getRootBound() - 1e-6);
+    }
+
+    @Test
+    public void shouldRepeatResultWithOneChainAndFixedSeed() {
+        // given
+        Data data = buildSearchData(createTableOfValue(2.0));
+
+        // when
+        State first = createAlgorithm(data).calculate();
+        State second = createAlgorithm(buildSearchData(createTableOfValue(2.0))).calculate();
+
+        // then
+        assertTrue(first.getMetrics().isGood());
+        assertEquals(first.toString(), second.toString());
+        assertEquals(first.getMetrics().getTotalCost(), second.getMetrics().getTotalCost());
+        assertTrue(first.getMetrics().getTotalCost() >= new BroadFirstSearchAlgorithm(data).calculate().getMetrics().getTotalCost());
+    }
+
+    @Test
+    public void shouldNotAddAnythingToValidGrid() {
+        // given
+        Data data = buildSearchData(createTableOfValue(0.0));
+
+        // when
+        State state = createAlgorithm(data).calculate();
+
+        // then
+        assertEquals(0.0, state.getMetrics().getTotalCost());
+    }
+
+    /**
+     * Jeden łańcuch ze stałym seed i limitem iteracji zamiast czasu - wynik nie zależy od szeregowania wątków.
+     */
+    private LocalSearchAlgorithm createAlgorithm(Data data) {
+        LocalSearchAlgorithm localSearchAlgorithm = new LocalSearchAlgorithm(data);
+        localSearchAlgorithm.setChains(1);
+        localSearchAlgorithm.setSeed(42);
+        localSearchAlgorithm.setIterations(300);
+        localSearchAlgorithm.setTimeLimit(60_000);
+        return localSearchAlgorithm;
+    }
+}
@@ -0,0 +1,81 @@
+package arp.service;
+
+import arp.search.Metrics;
+import arp.search.ParetoArchive;
+import arp.search.ParetoSearchAlgorithm;
+import arp.search.State;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static arp.service.Utils.createTableOfValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParetoSearchAlgorithmTest extends AbstractAlgorithmTest {
+
+    @Test
+    public void shouldKeepOnlyNonDominatedStates() {
+        // given
+        State initialState = new State(buildSearchData(createTableOfValue(1.0)));
+        ParetoArchive archive = new ParetoArchive();
+
+        // when
+        boolean cheapest = archive.offer(buildState(initialState, 1.0, 5.0, 0.0));
+        boolean lessWasted = archive.offer(buildState(initialState, 2.0, 1.0, 0.0));
+        boolean dominated = archive.offer(buildState(initialState, 3.0, 5.0, 0.0));
+        boolean moreSurplus = archive.offer(buildState(initialState, 3.0, 5.0, 2.0));
+        boolean sameCostBetter = archive.offer(buildState(initialState, 3.0, 4.0, 2.0));
+
+        // then
+        assertTrue(cheapest);
+        assertTrue(lessWasted);
+        assertFalse(dominated);
+        assertTrue(moreSurplus);
+        assertTrue(sameCostBetter);
+        assertEquals(3, archive.getFront().size());
+        assertEquals(4.0, ParetoArchive.getWasted(archive.getFront().get(2).getMetrics()));
+    }
+
+    @Test
+    public void shouldKeepPricierGridThatWastesLessHydrogen() {
+        // given
+        // dwa PV dają 2.0 przy zużyciu 1.5 - nadmiar przepada; PV z wiatrakiem (0.5) trafia dokładnie, ale drożej
+        Data data = buildSearchData(createTableOfValue(1.5));
+        data.getGridConstants().setWindDailyProduction(createTableOfValue(0.5));
+        ParetoSearchAlgorithm paretoSearchAlgorithm = new ParetoSearchAlgorithm(data);
+        paretoSearchAlgorithm.setMaxStates(300);
+
+        // when
+        List<State> front = paretoSearchAlgorithm.calculate();
+
+        // then
+        assertEquals(2, front.size());
+        assertEquals(14.0, front.get(0).getMetrics().getTotalCost());
+        assertTrue(ParetoArchive.getWasted(front.get(0).getMetrics()) > 0);
+        assertEquals(15.0, front.get(1).getMetrics().getTotalCost());
+        assertEquals(0.0, ParetoArchive.getWasted(front.get(1).getMetrics()));
+        for (State first : front) {
+            for (State second : front) {
+                assertFalse(first != second && dominates(first.getMetrics(), second.getMetrics()));
+            }
+        }
+    }
+
+    private boolean dominates(Metrics first, Metrics second) {
+        return first.getTotalCost() <= second.getTotalCost()
+                && ParetoArchive.getWasted(first) <= ParetoArchive.getWasted(second)
+                && ParetoArchive.getSurplus(first) >= ParetoArchive.getSurplus(second);
+    }
+
+    private State buildState(State initialState, double cost, double wasted, double surplus) {
+        State state = initialState.buildNextState(null);
+        Metrics metrics = state.getMetrics();
+        metrics.setGood(true);
+        metrics.setTotalCost(cost);
+        metrics.setTotalHydrogenWasted(wasted);
+        metrics.setMinHourHydrogenLevel(surplus);
+        return state;
+    }
+}
@@ -0,0 +1,77 @@
+package arp.service;
+
+import arp.search.BranchAndBoundAlgorithm;
+import arp.search.BroadFirstSearchAlgorithm;
+import arp.search.Incumbent;
+import arp.search.PortfolioSearchAlgorithm;
+import arp.search.PortfolioStatistics;
+import arp.search.SearchStrategyType;
+import arp.search.State;
+import org.junit.jupiter.api.Test;
+
+import static arp.service.Utils.createTableOfValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PortfolioSearchAlgorithmTest extends AbstractAlgorithmTest {
+
+    @Test
+    public void shouldFindOptimumWithBranchAndBound() {
+        // given
+        Data data = buildAlternatingSunData();
+
+        // when
+        State state = new BranchAndBoundAlgorithm(data).calculate();
+
+        // then
+        assertTrue(state.getMetrics().isGood());
+        assertEquals(new BroadFirstSearchAlgorithm(buildAlternatingSunData()).calculate().getMetrics().getTotalCost(),
+                state.getMetrics().getTotalCost());
+    }
+
+    @Test
+    public void shouldProveOptimumAndRecordWinner() {
+        // given
+        Data data = buildAlternatingSunData();
+        PortfolioStatistics statistics = new PortfolioStatistics();
+
+        // when
+        PortfolioSearchAlgorithm portfolioSearchAlgorithm = new PortfolioSearchAlgorithm(data, statistics);
+        State state = portfolioSearchAlgorithm.calculate();
+
+        // then
+        assertEquals(state.getMetrics().getTotalCost(), (double) portfolioSearchAlgorithm.getFinalLowerBound());
+        assertEquals(new BroadFirstSearchAlgorithm(buildAlternatingSunData()).calculate().getMetrics().getTotalCost(),
+                state.getMetrics().getTotalCost());
+        assertEquals(1, statistics.getRaces());
+        assertEquals(1, statistics.getProvenOptimal());
+        assertEquals(1L, statistics.getWins().values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    public void shouldReturnIncumbentWhenTimeLimitExpires() {
+        // given
+        Data data = buildSearchData(createTableOfValue(1.0));
+        Data expensivePvData = buildSearchData(createTableOfValue(1.0));
+        expensivePvData.getGridCosts().setPvCost(4.0);
+        State windGrid = new BroadFirstSearchAlgorithm(expensivePvData).calculate();
+        Incumbent incumbent = new Incumbent();
+        incumbent.offer(windGrid, SearchStrategyType.BEST_FIRST);
+        PortfolioStatistics statistics = new PortfolioStatistics();
+
+        // when
+        PortfolioSearchAlgorithm portfolioSearchAlgorithm = new PortfolioSearchAlgorithm(data, statistics);
+        portfolioSearchAlgorithm.setIncumbent(incumbent);
+        portfolioSearchAlgorithm.setTimeLimit(0);
+        State state = portfolioSearchAlgorithm.calculate();
+
+        // then
+        assertTrue(state.getMetrics().isGood());
+        assertTrue(state.getMetrics().getTotalCost() <= windGrid.getMetrics().getTotalCost());
+        assertEquals(1, statistics.getRaces());
+        assertEquals(0, statistics.getProvenOptimal());
+        assertEquals(1, statistics.getDeadlineExpired());
+        assertNull(portfolioSearchAlgorithm.getFinalLowerBound());
+    }
+}
@@ -0,0 +1,67 @@
+package arp.service;
+
+import arp.exception.BusinessException;
+import arp.exception.FailureReason;
+import arp.exception.OverloadedException;
+import arp.profile.ProfileFormat;
+import arp.profile.ProfileRegistry;
+import arp.profile.RegisteredProfile;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProfileRegistryTest {
+
+    @Test
+    public void shouldStoreSameProfileOnce() {
+        // given
+        ProfileRegistry profileRegistry = new ProfileRegistry();
+        ByteBuffer floats = ByteBuffer.allocate(3 * Float.BYTES).putFloat(0.5f).putFloat(1.0f).putFloat(0.0f);
+
+        // when
+        RegisteredProfile fromValues = profileRegistry.register(new double[]{0.5, 1.0, 0.0});
+        RegisteredProfile fromBase64 = profileRegistry.registerBase64(Base64.getEncoder().encodeToString(floats.array()));
+
+        // then
+        assertSame(fromValues, fromBase64);
+        assertEquals(1, profileRegistry.size());
+        assertSame(fromValues, profileRegistry.get(fromValues.getId()));
+    }
+
+    @Test
+    public void shouldComputeDerivedDataOnce() {
+        // given
+        ProfileRegistry profileRegistry = new ProfileRegistry();
+
+        // when
+        RegisteredProfile profile = profileRegistry.register(new double[]{0.5, 1.0, 0.0});
+
+        // then
+        assertEquals(0.5, profile.getCapacityFactor());
+        assertEquals(0.0, profile.getMin());
+        assertEquals(1.0, profile.getMax());
+    }
+
+    @Test
+    public void shouldLimitNumberAndLengthOfProfiles() {
+        // given
+        ProfileRegistry profileRegistry = new ProfileRegistry(2, 3);
+        RegisteredProfile first = profileRegistry.register(new double[]{0.5});
+        profileRegistry.register(new double[]{1.0});
+
+        // when, then
+        assertSame(first, profileRegistry.register(new double[]{0.5}));
+        OverloadedException full = assertThrows(OverloadedException.class, () -> profileRegistry.register(new double[]{0.0}));
+        assertEquals(FailureReason.OVERLOADED, full.type);
+        BusinessException tooLong = assertThrows(BusinessException.class,
+                () -> profileRegistry.registerBase64(Base64.getEncoder().encodeToString(new byte[4 * Float.BYTES])));
+        assertEquals(FailureReason.INVALID_INPUT, tooLong.type);
+        assertThrows(BusinessException.class, () -> profileRegistry.registerBinary(ProfileFormat.encode(new double[4])));
+        assertEquals(2, profileRegistry.size());
+    }
+}
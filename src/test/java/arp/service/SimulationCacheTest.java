@@ -0,0 +1,88 @@
+package arp.service;
+
+import arp.dto.grid.Electrolyzer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static arp.service.Utils.createTableOfValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SimulationCacheTest extends AbstractAlgorithmTest {
+
+    @Test
+    public void shouldReuseSummaryOfSameGrid() {
+        // given
+        SimulationCache cache = new SimulationCache(16, null);
+        Data data = buildCachedData(cache);
+
+        // when
+        SimulationSummary first = cache.simulate(data);
+        SimulationSummary second = cache.simulate(buildCachedData(cache));
+        YearResult yearResult = new CalculateYearAlgorithm(data).calculate();
+
+        // then
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertEquals(first, second);
+        assertEquals(yearResult.getMinHourHydrogenLevel(), first.getMinHourHydrogenLevel());
+        assertEquals(yearResult.getSteps().size(), first.getSimulatedHours());
+        assertEquals(yearResult.isGood(), first.isGood());
+    }
+
+    @Test
+    public void shouldReadSummaryFromDisk(@TempDir Path directory) {
+        // given
+        SimulationCache cache = new SimulationCache(16, directory);
+        SimulationSummary written = cache.simulate(buildCachedData(null));
+        cache.flush();
+        SimulationCache restarted = new SimulationCache(16, directory);
+
+        // when
+        SimulationSummary read = restarted.simulate(buildCachedData(restarted));
+
+        // then
+        assertEquals(1, restarted.getDiskHits());
+        assertEquals(0, restarted.getMisses());
+        assertEquals(written, read);
+        assertTrue(read.isGood());
+    }
+
+    @Test
+    public void shouldRemoveLeastRecentlyUsedFilesOverDiskBudget(@TempDir Path directory) throws IOException {
+        // given
+        SimulationCache probe = new SimulationCache(16, directory.resolve("probe"));
+        probe.simulate(buildCachedData(null));
+        probe.flush();
+        SimulationCache cache = new SimulationCache(16, directory.resolve("bounded"), probe.getDiskBytes());
+
+        // when
+        cache.simulate(buildCachedData(null));
+        Data larger = buildCachedData(null);
+        larger.getStorages().get(0).setMaxCapacity(5.0);
+        cache.simulate(larger);
+        cache.flush();
+
+        // then
+        assertEquals(1, cache.getDiskFiles());
+        try (Stream<Path> files = Files.list(directory.resolve("bounded"))) {
+            assertEquals(1, files.count());
+        }
+        assertEquals(1, new SimulationCache(16, directory.resolve("bounded")).getDiskFiles());
+    }
+
+    private Data buildCachedData(SimulationCache cache) {
+        Electrolyzer electrolyzer = buildElectrolyzerWithAccumulator();
+        electrolyzer.setMaxPower(2.0);
+        electrolyzer.setEfficiency(1.0);
+        electrolyzer.setSummaryEnergyProduction(createTableOfValue(2.0));
+        Data data = buildData(electrolyzer, 0.0, createTableOfValue(1.0));
+        data.setSimulationCache(cache);
+        return data;
+    }
+}
@@ -0,0 +1,78 @@
+package arp.service;
+
+import arp.chart.Lttb;
+import arp.enums.Resolution;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TimeSeriesPyramidTest {
+
+    @Test
+    public void shouldAggregateFourHourPeriods() {
+        // given
+        TimeSeriesPyramid pyramid = new TimeSeriesPyramid(new double[]{1.0, 2.0, 3.0, 4.0, 5.0, 6.0, 7.0, 8.0, 9.0});
+
+        // when
+        TimeSeriesPyramid.Level level = pyramid.getLevel(Resolution.FOUR_HOURS);
+
+        // then
+        assertArrayEquals(new double[]{2.5, 6.5, 9.0}, level.getMean(), 1e-9);
+        assertArrayEquals(new double[]{1.0, 5.0, 9.0}, level.getMin(), 1e-9);
+        assertArrayEquals(new double[]{4.0, 8.0, 9.0}, level.getMax(), 1e-9);
+    }
+
+    @Test
+    public void shouldSplitYearIntoCalendarMonths() {
+        // given
+        double[] hourly = Utils.createTableOfValue(1.0);
+        hourly[31 * 24] = 25.0;
+
+        // when
+        TimeSeriesPyramid.Level level = new TimeSeriesPyramid(hourly).getLevel(Resolution.MONTH);
+
+        // then
+        assertEquals(12, level.getMean().length);
+        assertEquals(1.0, level.getMax()[0]);
+        assertEquals(25.0, level.getMax()[1]);
+    }
+
+    @Test
+    public void shouldNotMergeHoursAfterYearIntoDecember() {
+        // given
+        double[] hourly = new double[8784];
+        Arrays.fill(hourly, 1.0);
+        Arrays.fill(hourly, 8760, hourly.length, 25.0);
+
+        // when
+        TimeSeriesPyramid.Level level = new TimeSeriesPyramid(hourly).getLevel(Resolution.MONTH);
+
+        // then
+        assertEquals(13, level.getMean().length);
+        assertEquals(1.0, level.getMax()[11]);
+        assertEquals(25.0, level.getMin()[12]);
+    }
+
+    @Test
+    public void shouldKeepEndpointsWhenDownsampling() {
+        // given
+        double[] x = new double[100];
+        double[] y = new double[100];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = i;
+            y[i] = Math.sin(i);
+        }
+
+        // when
+        double[][] sampled = Lttb.downsample(x, y, 10);
+
+        // then
+        assertEquals(10, sampled[0].length);
+        assertEquals(0.0, sampled[0][0]);
+        assertEquals(99.0, sampled[0][9]);
+        assertEquals(y[99], sampled[1][9]);
+    }
+}
@@ -0,0 +1,79 @@
+package arp.service;
+
+import arp.profile.ProfileConverter;
+import arp.profile.ProfileFormat;
+import arp.profile.ProfileLoader;
+import arp.profile.WeatherProfile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WeatherProfileTest {
+
+    @Test
+    public void shouldConvertTextProfileToBinary(@TempDir Path directory) throws IOException {
+        // given
+        Path text = directory.resolve("wind.txt");
+        Files.write(text, "0.4263,0.4006,\n0.0".getBytes(StandardCharsets.US_ASCII));
+        Path binary = directory.resolve("wind.bin");
+
+        // when
+        ProfileConverter.convert(text, binary);
+        WeatherProfile profile = ProfileFormat.decode("wind", ByteBuffer.wrap(Files.readAllBytes(binary)));
+
+        // then
+        assertArrayEquals(new double[]{0.4263, 0.4006, 0.0}, profile.toArray());
+        assertEquals(0.4006, profile.get(1));
+    }
+
+    @Test
+    public void shouldMapBinaryProfileFromDisk(@TempDir Path directory) throws IOException {
+        // given
+        double[] expected = ProfileLoader.parseText(getClass().getResourceAsStream("/wind.txt"));
+        Path binary = directory.resolve("wind.bin");
+        Files.write(binary, ProfileFormat.encode(expected));
+
+        // when
+        WeatherProfile profile = ProfileLoader.map("wind", binary);
+
+        // then
+        assertTrue(profile.getValues().isDirect());
+        assertArrayEquals(expected, profile.toArray());
+        assertEquals(expected[8783], profile.get(8783));
+    }
+
+    @Test
+    public void shouldRejectCorruptedProfile() {
+        // given
+        byte[] bytes = ProfileFormat.encode(new double[]{1.0, 2.0});
+        bytes[bytes.length - 1] ^= 1;
+
+        // when, then
+        assertThrows(IllegalStateException.class, () -> ProfileFormat.decode("pv", ByteBuffer.wrap(bytes)));
+    }
+
+    @Test
+    public void shouldLoadProfileFromClasspath() throws IOException {
+        // given
+        double[] expected = ProfileLoader.parseText(getClass().getResourceAsStream("/irradiance.txt"));
+
+        // when
+        WeatherProfile profile = ProfileLoader.load("irradiance");
+
+        // then
+        assertArrayEquals(expected, profile.toArray());
+        assertEquals(8784, profile.size());
+        assertArrayEquals(new double[]{1.0}, ProfileLoader.parseText(new ByteArrayInputStream(" 1.0 ".getBytes())));
+    }
+}